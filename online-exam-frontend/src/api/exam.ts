@@ -1,5 +1,12 @@
 // online-exam-frontend/src/api/exam.ts
 import axios from '../config/axios';
+import { CursorPage } from '../types/exam.types';
+
+// Paginated lists return the next page's cursor in this response header
+const toCursorPage = <T>(response: { data: T[]; headers: any }): CursorPage<T> => ({
+    items: response.data,
+    nextCursor: response.headers['x-next-cursor'] ?? null,
+});
 
 export const examAPI = {
     // Teacher endpoints
@@ -27,8 +34,13 @@ export const examAPI = {
         await axios.delete(`/teacher/exams/${examId}`);
     },
 
-    getExamResults: async (examId: number): Promise<any[]> => {
-        const response = await axios.get(`/teacher/exams/${examId}/results`);
+    getExamResults: async (examId: number, cursor?: string | null): Promise<CursorPage<any>> => {
+        const response = await axios.get(`/teacher/exams/${examId}/results`, { params: { cursor: cursor ?? undefined } });
+        return toCursorPage(response);
+    },
+
+    getExamLeaderboard: async (examId: number, limit: number = 10): Promise<any[]> => {
+        const response = await axios.get(`/teacher/exams/${examId}/leaderboard`, { params: { limit } });
         return response.data;
     },
 
@@ -84,7 +96,8 @@ export const examAPI = {
 
             console.log('📤 [examAPI] Request body:', requestBody);
 
-            const response = await axios.post(`/student/exams/${data.examId}/submit`, requestBody);
+            const headers = data.idempotencyKey ? { 'Idempotency-Key': data.idempotencyKey } : undefined;
+            const response = await axios.post(`/student/exams/${data.examId}/submit`, requestBody, { headers });
 
             console.log('✅ [examAPI] Submission successful:', response.data);
             return response.data;
@@ -96,11 +109,23 @@ export const examAPI = {
         }
     },
 
-    getStudentResults: async (): Promise<any[]> => {
-        const response = await axios.get('/student/exams/results');
+    // Starts an attempt, or resumes the running one along with its saved answers
+    startAttempt: async (examId: number): Promise<any> => {
+        const response = await axios.post(`/student/exams/${examId}/attempt`);
+        return response.data;
+    },
+
+    // Autosave: only the answers changed since the last call
+    saveAttemptAnswers: async (attemptId: number, answers: { questionId: number; answer: string }[]): Promise<any> => {
+        const response = await axios.patch(`/student/attempts/${attemptId}/answers`, { answers });
         return response.data;
     },
 
+    getStudentResults: async (cursor?: string | null): Promise<CursorPage<any>> => {
+        const response = await axios.get('/student/exams/results', { params: { cursor: cursor ?? undefined } });
+        return toCursorPage(response);
+    },
+
     getResultById: async (resultId: number): Promise<any> => {
         const response = await axios.get(`/student/exams/results/${resultId}`);
         return response.data;
@@ -55,6 +55,8 @@ const UsersPage: React.FC = () => {
         role: 'STUDENT',
         enabled: true
     });
+    const [nextCursor, setNextCursor] = useState<string | null>(null);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [snackbar, setSnackbar] = useState({ open: false, message: '', severity: 'success' as 'success' | 'error' });
 
     useEffect(() => {
@@ -67,6 +69,7 @@ const UsersPage: React.FC = () => {
             setError(null);
             const response = await axiosInstance.get('/admin/users');
             setUsers(response.data);
+            setNextCursor(response.headers['x-next-cursor'] ?? null);
         } catch (err: any) {
             setError(err.response?.data?.error || 'Failed to fetch users');
             console.error('Error fetching users:', err);
@@ -75,6 +78,21 @@ const UsersPage: React.FC = () => {
         }
     };
 
+    // The user list is paginated; later pages are appended
+    const loadMoreUsers = async () => {
+        try {
+            setLoadingMore(true);
+            const response = await axiosInstance.get('/admin/users', { params: { cursor: nextCursor } });
+            setUsers(prev => [...prev, ...response.data]);
+            setNextCursor(response.headers['x-next-cursor'] ?? null);
+        } catch (err: any) {
+            setError(err.response?.data?.error || 'Failed to fetch users');
+            console.error('Error fetching more users:', err);
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     const handleEditClick = (user: User) => {
         setSelectedUser(user);
         setEditForm({
@@ -229,6 +247,14 @@ const UsersPage: React.FC = () => {
                     </Table>
                 </TableContainer>
 
+                {nextCursor && (
+                    <Box sx={{ display: 'flex', justifyContent: 'center', mt: 2 }}>
+                        <Button variant="outlined" onClick={loadMoreUsers} disabled={loadingMore}>
+                            {loadingMore ? 'Loading...' : 'Load more'}
+                        </Button>
+                    </Box>
+                )}
+
                 {users.length === 0 && !loading && (
                     <Typography align="center" color="text.secondary" sx={{ py: 4 }}>
                         No users found
@@ -32,6 +32,8 @@ const AllResultsPage: React.FC = () => {
     const [results, setResults] = useState<ExamResult[]>([]);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState<string | null>(null);
+    const [nextCursor, setNextCursor] = useState<string | null>(null);
+    const [loadingMore, setLoadingMore] = useState(false);
 
     useEffect(() => {
         fetchResults();
@@ -41,8 +43,9 @@ const AllResultsPage: React.FC = () => {
         try {
             setLoading(true);
             setError(null);
-            const data = await examAPI.getStudentResults();
-            setResults(data);
+            const page = await examAPI.getStudentResults();
+            setResults(page.items);
+            setNextCursor(page.nextCursor);
         } catch (err: any) {
             setError(err.response?.data?.error || 'Failed to fetch results');
             console.error('Error fetching results:', err);
@@ -51,6 +54,20 @@ const AllResultsPage: React.FC = () => {
         }
     };
 
+    const loadMore = async () => {
+        try {
+            setLoadingMore(true);
+            const page = await examAPI.getStudentResults(nextCursor);
+            setResults(prev => [...prev, ...page.items]);
+            setNextCursor(page.nextCursor);
+        } catch (err: any) {
+            setError(err.response?.data?.error || 'Failed to fetch results');
+            console.error('Error fetching more results:', err);
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     const getStatusIcon = (status: string) => {
         return status === 'PASSED' ?
             <PassIcon color="success" /> :
@@ -169,6 +186,14 @@ const AllResultsPage: React.FC = () => {
                         </Table>
                     </TableContainer>
                 )}
+
+                {nextCursor && (
+                    <Box sx={{ display: 'flex', justifyContent: 'center', mt: 2 }}>
+                        <Button variant="outlined" onClick={loadMore} disabled={loadingMore}>
+                            {loadingMore ? 'Loading...' : 'Load more'}
+                        </Button>
+                    </Box>
+                )}
             </Paper>
         </Container>
     );
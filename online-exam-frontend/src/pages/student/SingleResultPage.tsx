@@ -191,6 +191,13 @@ const SingleResultPage: React.FC = () => {
                                 }}
                             />
                         </Box>
+
+                        {detailedResult.rank != null && (
+                            <Typography variant="body1" align="center" sx={{ mt: 2 }}>
+                                Rank {detailedResult.rank} of {detailedResult.rankedCount}
+                                {' · '}{detailedResult.percentile?.toFixed(1)}th percentile
+                            </Typography>
+                        )}
                     </CardContent>
                 </Card>
 
@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import {
     Container,
     Paper,
@@ -49,6 +49,11 @@ const TakeExamPage: React.FC = () => {
     const [timeTaken, setTimeTaken] = useState<number>(0);
     const [submitDialogOpen, setSubmitDialogOpen] = useState(false);
     const [submitting, setSubmitting] = useState(false);
+    // One key per attempt so retried submits return the stored result instead of failing
+    const idempotencyKey = useRef<string>(crypto.randomUUID());
+    // Server-side attempt and the answers changed since the last autosave
+    const attemptId = useRef<number | null>(null);
+    const unsavedAnswers = useRef<Record<number, string>>({});
 
     useEffect(() => {
         if (id) {
@@ -77,12 +82,33 @@ const TakeExamPage: React.FC = () => {
         }
     }, [exam]);
 
+    useEffect(() => {
+        const autosave = setInterval(() => {
+            saveUnsavedAnswers();
+        }, 3000);
+        return () => clearInterval(autosave);
+    }, []);
+
     const fetchExam = async () => {
         try {
             setLoading(true);
             setError(null);
             // Use getStudentExamById instead of getExamById
             const data = await examAPI.getStudentExamById(parseInt(id!));
+
+            // Start (or resume) the attempt so answers survive a reload
+            try {
+                const attempt = await examAPI.startAttempt(parseInt(id!));
+                attemptId.current = attempt.attemptId;
+                const saved: Record<number, string> = {};
+                (attempt.answers || []).forEach((a: StudentAnswer) => {
+                    saved[a.questionId] = a.answer;
+                });
+                setAnswers(saved);
+            } catch (attemptErr) {
+                console.error('Could not start attempt, answers will only be sent on submit:', attemptErr);
+            }
+
             setExam(data);
         } catch (err: any) {
             setError(err.response?.data?.error || 'Failed to load exam');
@@ -97,6 +123,24 @@ const TakeExamPage: React.FC = () => {
             ...prev,
             [questionId]: answer
         }));
+        unsavedAnswers.current[questionId] = answer;
+    };
+
+    const saveUnsavedAnswers = async () => {
+        const changed = unsavedAnswers.current;
+        if (attemptId.current === null || Object.keys(changed).length === 0) return;
+
+        unsavedAnswers.current = {};
+        try {
+            await examAPI.saveAttemptAnswers(attemptId.current, Object.entries(changed).map(([questionId, answer]) => ({
+                questionId: parseInt(questionId),
+                answer
+            })));
+        } catch (err) {
+            // Keep the changes for the next round; newer edits win
+            unsavedAnswers.current = { ...changed, ...unsavedAnswers.current };
+            console.error('Autosave failed:', err);
+        }
     };
 
     const handleNext = () => {
@@ -147,7 +191,8 @@ const TakeExamPage: React.FC = () => {
             const takeExamRequest = {
                 examId: exam.id,
                 answers: answerList,
-                timeTaken: Math.floor(timeTaken / 60) // Convert to minutes
+                timeTaken: Math.floor(timeTaken / 60), // Convert to minutes
+                idempotencyKey: idempotencyKey.current
             };
 
             console.log('Submitting exam request:', takeExamRequest);
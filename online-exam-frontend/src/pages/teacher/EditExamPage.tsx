@@ -99,6 +99,7 @@ const EditExamPage: React.FC = () => {
                 startTime: examData.startTime || undefined,
                 endTime: examData.endTime || undefined,
                 questions: examData.questions?.map((q: any) => ({
+                    id: q.id,
                     text: q.text,
                     type: q.type,
                     option1: q.option1 || '',
@@ -156,7 +157,11 @@ const EditExamPage: React.FC = () => {
         if (exam) {
             const questionToDuplicate = {...exam.questions[index]};
             const updatedQuestions = [...exam.questions];
-            updatedQuestions.splice(index + 1, 0, {...questionToDuplicate, text: `${questionToDuplicate.text} (Copy)`});
+            updatedQuestions.splice(index + 1, 0, {
+                ...questionToDuplicate,
+                id: undefined,
+                text: `${questionToDuplicate.text} (Copy)`
+            });
             setExam({...exam, questions: updatedQuestions});
         }
     };
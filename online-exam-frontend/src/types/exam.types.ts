@@ -57,6 +57,10 @@ export interface ExamResult {
     status: 'PASSED' | 'FAILED';
     timeTaken: number;
     submittedAt: string;
+    // Standing among the exam's finished results; absent while in progress
+    rank?: number;
+    rankedCount?: number;
+    percentile?: number;
     answers: AnswerDetail[];
 }
 
@@ -73,6 +77,7 @@ export interface AnswerDetail {
 }
 
 export interface CreateQuestionRequest {
+    id?: number; // set when editing a stored question; omitted for new ones
     text: string;
     type: 'MULTIPLE_CHOICE' | 'TRUE_FALSE' | 'SHORT_ANSWER';
     option1?: string;
@@ -101,4 +106,10 @@ export interface ExamWithCorrectAnswers extends Exam {
 
 export interface QuestionWithCorrectAnswer extends Question {
     correctAnswer: string;
-}
\ No newline at end of file
+}
+
+// One page of a cursor-paginated list; nextCursor is null on the last page
+export interface CursorPage<T> {
+    items: T[];
+    nextCursor: string | null;
+}
@@ -0,0 +1,60 @@
+package com.examsystem.config;
+
+import com.examsystem.model.ExamStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the exam_stats rows for exams whose results were recorded before
+ * the aggregates existed, with one INSERT ... SELECT over exam_results.
+ * Exams that already have a row are left alone, so this is a no-op after the
+ * first start. When nodes start together, only one backfill gets its rows in.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExamStatsInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Injected only so the schema exists before the backfill runs
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void backfill() {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder buckets = new StringBuilder();
+        for (int i = 0; i < ExamStats.HISTOGRAM_BUCKETS; i++) {
+            columns.append(", bucket_").append(i);
+
+            // Same bands as ExamStats.bucketOf: [10i, 10i + 10), open-ended at both extremes
+            String condition = i == 0 ? "r.percentage < 10"
+                    : i == ExamStats.HISTOGRAM_BUCKETS - 1 ? "r.percentage >= " + (i * 10)
+                    : "r.percentage >= " + (i * 10) + " AND r.percentage < " + ((i + 1) * 10);
+            buckets.append(", SUM(CASE WHEN ").append(condition).append(" THEN 1 ELSE 0 END)");
+        }
+
+        int created;
+        try {
+            created = jdbcTemplate.update(
+                    "INSERT INTO exam_stats (exam_id, attempt_count, pass_count, score_sum, score_square_sum, percentage_sum"
+                            + columns + ", updated_at) "
+                            + "SELECT r.exam_id, COUNT(*), SUM(CASE WHEN r.status = 'PASSED' THEN 1 ELSE 0 END), "
+                            + "SUM(r.score), SUM(r.score * r.score), SUM(r.percentage)" + buckets + ", CURRENT_TIMESTAMP "
+                            + "FROM exam_results r "
+                            + "WHERE r.status <> 'IN_PROGRESS' "
+                            + "AND NOT EXISTS (SELECT 1 FROM exam_stats s WHERE s.exam_id = r.exam_id) "
+                            + "GROUP BY r.exam_id");
+        } catch (DuplicateKeyException e) {
+            // Another node's backfill committed the same rows first
+            System.out.println("📊 Result aggregates already backfilled by another node");
+            return;
+        }
+        if (created > 0) {
+            System.out.println("📊 Backfilled result aggregates for " + created + " exams");
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.examsystem.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.CacheSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for exams and their questions, held in
+ * bounded Caffeine caches behind JCache. Published exams are read by every
+ * student request; with the cache they are served without SQL until an
+ * update, publish or delete evicts them (see ExamCacheEvictor).
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String EXAM_REGION = "exams";
+    public static final String QUESTION_REGION = "questions";
+    public static final String EXAM_QUESTIONS_REGION = "exam-questions";
+
+    @Value("${app.cache.exams.max-size:2000}")
+    private long examMaxSize;
+
+    @Value("${app.cache.questions.max-size:100000}")
+    private long questionMaxSize;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        // A manager of our own rather than the provider's shared default, so two
+        // application contexts in one JVM never see each other's cached rows
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("examsystem-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        createRegion(cacheManager, EXAM_REGION, examMaxSize);
+        createRegion(cacheManager, EXAM_QUESTIONS_REGION, examMaxSize);
+        createRegion(cacheManager, QUESTION_REGION, questionMaxSize);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(CacheSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(CacheSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // Every region is created above with a size bound; an unknown one is a mapping mistake
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long maximumSize) {
+        if (cacheManager.getCache(name) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        // Hibernate stores immutable disassembled state, so copying on every read is wasted work
+        configuration.setStoreByValue(false);
+        configuration.setNativeStatisticsEnabled(true);
+        cacheManager.createCache(name, configuration);
+    }
+}
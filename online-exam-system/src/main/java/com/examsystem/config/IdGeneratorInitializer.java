@@ -0,0 +1,62 @@
+package com.examsystem.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Questions, exam results and student answers take their ids from pooled
+ * rows in the id_generators table instead of AUTO_INCREMENT, which is what
+ * lets Hibernate batch their inserts. Before the first insert, each row is
+ * moved past the highest id already in its table so databases that were
+ * filled under IDENTITY keep working.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdGeneratorInitializer {
+
+    // Must match the allocationSize of the @TableGenerator mappings
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> GENERATED_TABLES = Map.of(
+            "questions", "id",
+            "exam_results", "id",
+            "student_answers", "id"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Injected only so the schema exists before the generator rows are aligned
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void alignGenerators() {
+        GENERATED_TABLES.forEach((table, idColumn) -> {
+            Long maxId = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(" + idColumn + "), 0) FROM " + table, Long.class);
+            long floor = (maxId != null ? maxId : 0) + ALLOCATION_SIZE + 1;
+
+            int updated = jdbcTemplate.update(
+                    "UPDATE id_generators SET next_val = ? WHERE gen_name = ? AND next_val < ?",
+                    floor, table, floor);
+            if (updated == 0) {
+                Integer rows = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM id_generators WHERE gen_name = ?", Integer.class, table);
+                if (rows == null || rows == 0) {
+                    try {
+                        jdbcTemplate.update("INSERT INTO id_generators (gen_name, next_val) VALUES (?, ?)", table, floor);
+                    } catch (DuplicateKeyException e) {
+                        // Another node starting at the same time created the row first: align it instead
+                        jdbcTemplate.update("UPDATE id_generators SET next_val = ? WHERE gen_name = ? AND next_val < ?",
+                                floor, table, floor);
+                    }
+                }
+            }
+        });
+    }
+}
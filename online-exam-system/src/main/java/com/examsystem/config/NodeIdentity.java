@@ -0,0 +1,40 @@
+package com.examsystem.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+/**
+ * Name of this application node, stored on rows a node takes ownership of
+ * (claimed submission tickets, running attempts) so that it finds its own
+ * again after a restart. Defaults to the host name; set app.node-id when
+ * several nodes share a host.
+ */
+@Component
+public class NodeIdentity {
+
+    // Matches the owner columns
+    private static final int MAX_LENGTH = 64;
+
+    private final String id;
+
+    public NodeIdentity(@Value("${app.node-id:}") String configuredId) {
+        String name = configuredId.isBlank() ? hostName() : configuredId.strip();
+        this.id = name.length() > MAX_LENGTH ? name.substring(0, MAX_LENGTH) : name;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "node-" + UUID.randomUUID();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.examsystem.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Page size bounds for the cursor-paginated list endpoints.
+ */
+@Component
+public class PaginationSettings {
+
+    @Value("${app.pagination.default-size:50}")
+    private int defaultSize;
+
+    @Value("${app.pagination.max-size:200}")
+    private int maxSize;
+
+    // Missing or non-positive sizes get the default; larger ones are capped
+    public int pageSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return Math.min(defaultSize, maxSize);
+        }
+        return Math.min(requested, maxSize);
+    }
+}
@@ -43,6 +43,9 @@ public class SecurityConfig {
     @Value("${cors.allowed-headers:Authorization,Content-Type,X-Requested-With,Accept,Origin,Access-Control-Request-Method,Access-Control-Request-Headers}")
     private String allowedHeaders;
 
+    @Value("${cors.exposed-headers:Authorization,Content-Disposition,X-Next-Cursor}")
+    private String exposedHeaders;
+
     @Value("${cors.allow-credentials:true}")
     private boolean allowCredentials;
 
@@ -85,6 +88,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList(allowedOrigins.split(",")));
         configuration.setAllowedMethods(Arrays.asList(allowedMethods.split(",")));
         configuration.setAllowedHeaders(Arrays.asList(allowedHeaders.split(",")));
+        configuration.setExposedHeaders(Arrays.asList(exposedHeaders.split(",")));
         configuration.setAllowCredentials(allowCredentials);
         configuration.setMaxAge(3600L);
 
@@ -1,7 +1,14 @@
 // src/main/java/com/examsystem/controller/AdminController.java
 package com.examsystem.controller;
 
+import com.examsystem.config.PaginationSettings;
+import com.examsystem.dto.AdminStats;
+import com.examsystem.dto.CursorPage;
+import com.examsystem.model.Role;
 import com.examsystem.model.User;
+import com.examsystem.service.AdminStatsService;
+import com.examsystem.service.CacheMetrics;
+import com.examsystem.service.ExamPurgeService;
 import com.examsystem.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -12,6 +19,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/admin")
@@ -22,12 +30,27 @@ import java.util.List;
 public class AdminController {
 
     private final UserService userService;
+    private final PaginationSettings paginationSettings;
+    private final CacheMetrics cacheMetrics;
+    private final AdminStatsService adminStatsService;
+    private final ExamPurgeService examPurgeService;
 
     @GetMapping("/users")
-    @Operation(summary = "Get all users")
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    @Operation(summary = "Get users one page at a time; the next page's cursor is in the X-Next-Cursor header")
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) Role role,
+                                         @RequestParam(required = false) Boolean enabled,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer size) {
+        try {
+            CursorPage<User> page = userService.getUsersPage(role, enabled, cursor, paginationSettings.pageSize(size));
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.items());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/users/{id}")
@@ -52,21 +75,20 @@ public class AdminController {
     }
 
     @GetMapping("/stats")
-    @Operation(summary = "Get system statistics")
-    public ResponseEntity<?> getStats() {
-        long totalUsers = userService.getAllUsers().size();
-        long students = userService.countStudents();
-        long teachers = userService.countTeachers();
-        long admins = userService.countAdmins();
+    @Operation(summary = "Get system statistics: users by role, exams by status, submissions per day and pass rate")
+    public ResponseEntity<AdminStats> getStats() {
+        return ResponseEntity.ok(adminStatsService.getStats());
+    }
 
-        return ResponseEntity.ok(new StatsResponse(totalUsers, students, teachers, admins));
+    @GetMapping("/cache-stats")
+    @Operation(summary = "Get size, hit, miss and eviction counts of the in-process caches")
+    public ResponseEntity<?> getCacheStats() {
+        return ResponseEntity.ok(cacheMetrics.snapshot());
     }
 
-    // DTO for stats response
-    public record StatsResponse(
-            long totalUsers,
-            long students,
-            long teachers,
-            long admins
-    ) {}
+    @GetMapping("/exam-purges")
+    @Operation(summary = "Get progress of the background removal of deleted exams")
+    public ResponseEntity<?> getExamPurges() {
+        return ResponseEntity.ok(examPurgeService.getProgress());
+    }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import com.examsystem.model.Role;
 import com.examsystem.model.User;
 import com.examsystem.repository.UserRepository;
 import com.examsystem.service.JwtService;
+import com.examsystem.service.UserIdentifierIndex;
 import com.examsystem.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -36,6 +37,7 @@ public class AuthController {
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
     private final UserService userService;
+    private final UserIdentifierIndex userIdentifierIndex;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
 
@@ -160,14 +162,15 @@ public class AuthController {
     @GetMapping("/check-username/{username}")
     @Operation(summary = "Check if username exists")
     public ResponseEntity<Boolean> checkUsername(@PathVariable String username) {
-        boolean exists = userService.userExists(username);
+        // Names the filter has never seen are free without a query
+        boolean exists = userIdentifierIndex.usernameExists(username);
         return ResponseEntity.ok(exists);
     }
 
     @GetMapping("/check-email/{email}")
     @Operation(summary = "Check if email exists")
     public ResponseEntity<Boolean> checkEmail(@PathVariable String email) {
-        boolean exists = userService.emailExists(email);
+        boolean exists = userIdentifierIndex.emailExists(email);
         return ResponseEntity.ok(exists);
     }
 
@@ -207,6 +210,7 @@ public class AuthController {
             // Delete if exists
             userRepository.findByUsername("admin").ifPresent(user -> {
                 userRepository.delete(user);
+                userService.principalChanged(user.getUsername());
                 System.out.println("Deleted existing admin user");
             });
 
@@ -221,6 +225,7 @@ public class AuthController {
                     .build();
 
             User savedAdmin = userRepository.save(admin);
+            userIdentifierIndex.add(savedAdmin.getUsername(), savedAdmin.getEmail());
 
             String token = jwtService.generateToken(savedAdmin);
 
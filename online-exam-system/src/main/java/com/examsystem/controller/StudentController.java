@@ -1,29 +1,48 @@
 package com.examsystem.controller;
 
+import com.examsystem.config.PaginationSettings;
+import com.examsystem.dto.CursorPage;
 import com.examsystem.dto.exam.AnswerResponse;
 import com.examsystem.dto.exam.ExamResponse;
-import com.examsystem.dto.exam.QuestionResponse;
+import com.examsystem.dto.exam.ExamSummary;
 import com.examsystem.dto.exam.TakeExamRequest;
 import com.examsystem.dto.exam.ExamResultResponse;
 import com.examsystem.model.*;
+import com.examsystem.service.AttemptService;
+import com.examsystem.service.ContentVersionService;
+import com.examsystem.service.ExamPaperCache;
+import com.examsystem.service.ExamRankService;
 import com.examsystem.service.ExamService;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.examsystem.service.StudentDashboardService;
+import com.examsystem.service.SubmissionQueueService;
+import com.examsystem.service.SubmissionService;
+import com.examsystem.service.TakenExamIndex;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @RestController
@@ -35,150 +54,33 @@ import java.util.stream.Collectors;
 @Transactional
 public class StudentController {
 
+    // Cached copies are kept per user but revalidated on every use, with the ETags below
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final ExamService examService;
+    private final ExamPaperCache examPaperCache;
+    private final ContentVersionService contentVersionService;
+    private final StudentDashboardService studentDashboardService;
+    private final ExamRankService examRankService;
+    private final SubmissionQueueService submissionQueueService;
+    private final SubmissionService submissionService;
+    private final AttemptService attemptService;
+    private final TakenExamIndex takenExamIndex;
+    private final PaginationSettings paginationSettings;
 
     // =========== DASHBOARD ===========
     @GetMapping("/dashboard")
     @Operation(summary = "Get student dashboard data")
-    public ResponseEntity<?> getDashboard(@AuthenticationPrincipal User student) {
+    public ResponseEntity<?> getDashboard(@AuthenticationPrincipal User student, WebRequest webRequest) {
         try {
-            System.out.println("🚀 =========== START DASHBOARD DEBUG ===========");
             System.out.println("Getting dashboard for student ID: " + student.getId());
 
-            Map<String, Object> response = new HashMap<>();
-
-            // Get available exams (published exams that student hasn't taken)
-            List<Exam> allPublishedExams = examService.getPublishedExams();
-            System.out.println("📊 Total published exams: " + allPublishedExams.size());
-
-            List<Exam> availableExams = allPublishedExams.stream()
-                    .filter(exam -> !hasStudentTakenExam(exam, student))
-                    .collect(Collectors.toList());
-
-            System.out.println("📊 Filtered available exams: " + availableExams.size());
-
-            // Get exam results for this student
-            List<ExamResult> studentResults = examService.getExamResultsByStudent(student);
-            System.out.println("📊 Student results: " + studentResults.size());
-
-            // Format upcoming exams (available exams)
-            System.out.println("🔄 Building upcoming exams response...");
-            List<Map<String, Object>> upcomingExamsData = availableExams.stream()
-                    .map(exam -> {
-                        System.out.println("   📝 Processing exam: " + exam.getTitle());
-
-                        // Initialize lazy-loaded collections
-                        if (exam.getQuestions() != null) {
-                            exam.getQuestions().size();
-                        }
-
-                        Map<String, Object> examData = new HashMap<>();
-                        examData.put("id", exam.getId());
-                        examData.put("title", exam.getTitle());
-                        examData.put("description", exam.getDescription());
-                        examData.put("duration", exam.getDurationMinutes());
-                        examData.put("totalQuestions", exam.getQuestions() != null ? exam.getQuestions().size() : 0);
-                        examData.put("totalMarks", exam.getTotalMarks());
-                        examData.put("passingMarks", exam.getPassingMarks());
-
-                        // CRITICAL: Get values
-                        String statusValue = exam.getStatus() != null ? exam.getStatus().name() : "UNKNOWN";
-                        Boolean isPublishedValue = exam.getIsPublished();
-                        LocalDateTime startTimeValue = exam.getStartTime();
-                        LocalDateTime endTimeValue = exam.getEndTime();
-                        Boolean availableValue = exam.isAvailable();
-
-                        System.out.println("     Setting fields:");
-                        System.out.println("       status: " + statusValue);
-                        System.out.println("       isPublished: " + isPublishedValue);
-                        System.out.println("       startTime: " + startTimeValue);
-                        System.out.println("       endTime: " + endTimeValue);
-                        System.out.println("       available: " + availableValue);
-
-                        examData.put("status", statusValue);
-                        examData.put("isPublished", isPublishedValue);
-                        examData.put("startTime", startTimeValue);
-                        examData.put("endTime", endTimeValue);
-                        examData.put("available", availableValue);
-
-                        // FIXED: Use getTeacher() instead of getCreatedBy()
-                        examData.put("createdBy", exam.getTeacher() != null ? exam.getTeacher().getFullName() : "Unknown");
-                        examData.put("createdAt", exam.getCreatedAt());
-                        examData.put("publishedAt", exam.getPublishedAt());
-
-                        System.out.println("     Created map: " + examData);
-                        return examData;
-                    })
-                    .collect(Collectors.toList());
-
-            // Format completed exams (exam results)
-            List<Map<String, Object>> completedExamsData = studentResults.stream()
-                    .map(result -> {
-                        // Initialize lazy-loaded collections
-                        if (result.getExam() != null) {
-                            if (result.getExam().getQuestions() != null) {
-                                result.getExam().getQuestions().size();
-                            }
-                        }
-
-                        Map<String, Object> resultData = new HashMap<>();
-                        resultData.put("id", result.getId());
-                        resultData.put("examId", result.getExam().getId());
-                        resultData.put("examTitle", result.getExam().getTitle());
-                        resultData.put("score", result.getScore());
-                        resultData.put("totalMarks", result.getTotalMarks());
-                        resultData.put("percentage", result.getPercentage());
-                        resultData.put("status", result.getStatus().toString());
-                        resultData.put("dateTaken", result.getSubmittedAt());
-                        // FIXED: Use getTeacher() instead of getCreatedBy()
-                        resultData.put("createdBy", result.getExam().getTeacher() != null ?
-                                result.getExam().getTeacher().getFullName() : "Unknown");
-                        return resultData;
-                    })
-                    .collect(Collectors.toList());
-
-            // Calculate statistics
-            long totalExams = availableExams.size() + studentResults.size();
-            long completedExams = studentResults.size();
-            long upcomingExams = availableExams.size();
-            double averageScore = studentResults.stream()
-                    .mapToDouble(ExamResult::getPercentage)
-                    .average()
-                    .orElse(0.0);
-
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("totalExams", totalExams);
-            stats.put("completedExams", completedExams);
-            stats.put("averageScore", Math.round(averageScore * 100.0) / 100.0);
-            stats.put("upcomingExams", upcomingExams);
-
-            // FIX: ADD THE DATA TO THE RESPONSE!
-            response.put("upcomingExams", upcomingExamsData);
-            response.put("completedExams", completedExamsData);
-            response.put("stats", stats);
-
-            // Debug the final response
-            System.out.println("📤 FINAL RESPONSE:");
-            System.out.println("  Keys: " + response.keySet());
-            System.out.println("  Upcoming exams count: " + upcomingExamsData.size());
-            System.out.println("  Completed exams count: " + completedExamsData.size());
-            System.out.println("  Stats: " + stats);
-
-            // Test serialization
-            try {
-                ObjectMapper mapper = new ObjectMapper();
-                mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-                String json = mapper.writeValueAsString(response);
-                System.out.println("✅ JSON serialization successful");
-                System.out.println("📄 JSON length: " + json.length());
-            } catch (Exception e) {
-                System.out.println("❌ JSON serialization failed: " + e.getMessage());
+            // Served from the student's snapshot; its tag follows the exam and result versions behind it
+            StudentDashboardService.DashboardSnapshot dashboard = studentDashboardService.getDashboard(student);
+            if (webRequest.checkNotModified(dashboard.etag())) {
+                return notModified(dashboard.etag());
             }
-
-            System.out.println("✅ Dashboard response prepared successfully");
-            System.out.println("=========== END DASHBOARD DEBUG ===========\n");
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(dashboard.etag()).cacheControl(REVALIDATE).body(dashboard.body());
 
         } catch (Exception e) {
             System.out.println("❌ ERROR in getDashboard: " + e.getMessage());
@@ -191,13 +93,19 @@ public class StudentController {
     // =========== AVAILABLE EXAMS (Map Response) ===========
     @GetMapping("/exams/available")
     @Operation(summary = "Get available exams for student - Map Response")
-    public ResponseEntity<?> getAvailableExams(@AuthenticationPrincipal User student) {
+    public ResponseEntity<?> getAvailableExams(@AuthenticationPrincipal User student, WebRequest webRequest) {
         try {
             System.out.println("🔍 DEBUG getAvailableExams() START");
 
+            String etag = contentVersionService.studentCatalogTag(student.getId());
+            if (webRequest.checkNotModified(etag)) {
+                System.out.println("✅ Available exams not modified (" + etag + ")");
+                return notModified(etag);
+            }
+
             // Get ALL published exams
-            List<Exam> allPublishedExams = examService.getPublishedExams();
-            System.out.println("📊 Total exams from getPublishedExams(): " + allPublishedExams.size());
+            List<ExamSummary> allPublishedExams = examService.getPublishedExamSummaries();
+            System.out.println("📊 Total exams from getPublishedExamSummaries(): " + allPublishedExams.size());
 
             // Debug each exam
             allPublishedExams.forEach(exam -> {
@@ -209,8 +117,10 @@ public class StudentController {
             });
 
             // Filter exams student hasn't taken
-            List<Exam> availableExams = allPublishedExams.stream()
-                    .filter(exam -> !hasStudentTakenExam(exam, student))
+            // One bitmap for the student, then a probe per exam
+            RoaringBitmap takenExamIds = takenExamIndex.takenExamIds(student.getId());
+            List<ExamSummary> availableExams = allPublishedExams.stream()
+                    .filter(exam -> !TakenExamIndex.isTaken(takenExamIds, exam.getId()))
                     .collect(Collectors.toList());
 
             System.out.println("📊 Filtered available exams: " + availableExams.size());
@@ -227,7 +137,7 @@ public class StudentController {
                         examData.put("title", exam.getTitle());
                         examData.put("description", exam.getDescription());
                         examData.put("duration", exam.getDurationMinutes());
-                        examData.put("totalQuestions", exam.getQuestions() != null ? exam.getQuestions().size() : 0);
+                        examData.put("totalQuestions", exam.getQuestionCount());
                         examData.put("totalMarks", exam.getTotalMarks());
                         examData.put("passingMarks", exam.getPassingMarks());
 
@@ -237,10 +147,10 @@ public class StudentController {
                         examData.put("available", exam.isAvailable());
                         examData.put("startTime", exam.getStartTime());
                         examData.put("endTime", exam.getEndTime());
-                        examData.put("questionCount", exam.getQuestions() != null ? exam.getQuestions().size() : 0);
+                        examData.put("questionCount", exam.getQuestionCount());
 
                         // Creator and timestamps - FIXED: Use getTeacher() instead of getCreatedBy()
-                        examData.put("createdBy", exam.getTeacher() != null ? exam.getTeacher().getFullName() : "Unknown");
+                        examData.put("createdBy", exam.getTeacherName() != null ? exam.getTeacherName() : "Unknown");
                         examData.put("createdAt", exam.getCreatedAt());
                         examData.put("publishedAt", exam.getPublishedAt());
 
@@ -256,7 +166,7 @@ public class StudentController {
             System.out.println("🔍 First exam in response: " + (response.isEmpty() ? "empty" : response.get(0)));
             System.out.println("🔍 DEBUG getAvailableExams() END");
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(response);
 
         } catch (Exception e) {
             System.out.println("❌ ERROR in getAvailableExams: " + e.getMessage());
@@ -270,7 +180,7 @@ public class StudentController {
     @GetMapping("/exams/available-dto")
     @Operation(summary = "Get all available exams - DTO Response")
     public ResponseEntity<List<ExamResponse>> getAvailableExamsDTO() {
-        List<Exam> exams = examService.getPublishedExams();
+        List<ExamSummary> exams = examService.getPublishedExamSummaries();
         List<ExamResponse> response = exams.stream()
                 .map(this::toExamResponseDTO)
                 .collect(Collectors.toList());
@@ -281,12 +191,14 @@ public class StudentController {
     @GetMapping("/exams/{examId}")
     @Operation(summary = "Get exam details for student (without correct answers)")
     public ResponseEntity<?> getStudentExamById(@PathVariable Long examId,
-                                                @AuthenticationPrincipal User student) {
+                                                @AuthenticationPrincipal User student,
+                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                WebRequest webRequest) {
         try {
             System.out.println("Getting exam " + examId + " for student ID: " + student.getId());
 
-            // Get exam WITHOUT modifying it
-            Exam exam = examService.getExamById(examId);
+            // Only the exam row is needed for the checks; the paper itself is cached
+            Exam exam = examService.getExamHeader(examId);
 
             // Check if exam is published
             if (exam.getStatus() != ExamStatus.PUBLISHED) {
@@ -295,46 +207,12 @@ public class StudentController {
             }
 
             // Check if student has already taken this exam
-            if (hasStudentTakenExam(exam, student)) {
+            if (takenExamIndex.hasTaken(student.getId(), exam.getId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("error", "You have already taken this exam"));
             }
 
-            // Create response with questions but WITHOUT correct answers
-            // This creates a new DTO, doesn't modify the original entities
-            ExamResponse response = ExamResponse.builder()
-                    .id(exam.getId())
-                    .title(exam.getTitle())
-                    .description(exam.getDescription())
-                    .duration(exam.getDurationMinutes())
-                    .totalMarks(exam.getTotalMarks())
-                    .passingMarks(exam.getPassingMarks())
-                    .status(exam.getStatus())
-                    // FIXED: Use getTeacher() instead of getCreatedBy()
-                    .createdBy(exam.getTeacher() != null ? exam.getTeacher().getFullName() : "Unknown")
-                    .createdAt(exam.getCreatedAt())
-                    .publishedAt(exam.getPublishedAt())
-                    .questionCount(exam.getQuestions() != null ? exam.getQuestions().size() : 0)
-                    .questions(exam.getQuestions().stream()
-                            .map(q -> {
-                                // Create new QuestionResponse WITHOUT correct answer and explanation
-                                return QuestionResponse.builder()
-                                        .id(q.getId())
-                                        .text(q.getText())
-                                        .type(q.getType())
-                                        .option1(q.getOption1())
-                                        .option2(q.getOption2())
-                                        .option3(q.getOption3())
-                                        .option4(q.getOption4())
-                                        .correctAnswer(null) // Set to null in DTO, not in entity
-                                        .points(q.getPoints())
-                                        .explanation(null) // Set to null in DTO, not in entity
-                                        .build();
-                            })
-                            .collect(Collectors.toList()))
-                    .build();
-
-            return ResponseEntity.ok(response);
+            return toPaperResponse(exam, acceptEncoding, webRequest);
         } catch (RuntimeException e) {
             System.out.println("ERROR in getStudentExamById: " + e.getMessage());
             e.printStackTrace();
@@ -352,9 +230,11 @@ public class StudentController {
     @GetMapping("/exams/{id}/dto")
     @Operation(summary = "Get exam details for taking - DTO Response")
     public ResponseEntity<?> getExamDTO(@PathVariable Long id,
-                                        @AuthenticationPrincipal User student) {
+                                        @AuthenticationPrincipal User student,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                        WebRequest webRequest) {
         try {
-            Exam exam = examService.getExamById(id);
+            Exam exam = examService.getExamHeader(id);
 
             // Check if exam is published
             if (exam.getStatus() != ExamStatus.PUBLISHED) {
@@ -363,80 +243,88 @@ public class StudentController {
             }
 
             // Check if student has already taken the exam
-            boolean hasTaken = examService.getExamResultsByStudent(student).stream()
-                    .anyMatch(result -> result.getExam().getId().equals(id));
+            boolean hasTaken = takenExamIndex.hasTaken(student.getId(), id);
 
             if (hasTaken) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("error", "You have already taken this exam"));
             }
 
-            // Create response WITHOUT correct answers for students
-            ExamResponse response = ExamResponse.builder()
-                    .id(exam.getId())
-                    .title(exam.getTitle())
-                    .description(exam.getDescription())
-                    .duration(exam.getDurationMinutes())
-                    .totalMarks(exam.getTotalMarks())
-                    .passingMarks(exam.getPassingMarks())
-                    .status(exam.getStatus())
-                    // FIXED: Use getTeacher() instead of getCreatedBy()
-                    .createdBy(exam.getTeacher() != null ? exam.getTeacher().getFullName() : "Unknown")
-                    .createdAt(exam.getCreatedAt())
-                    .publishedAt(exam.getPublishedAt())
-                    .questionCount(exam.getQuestions().size())
-                    .questions(exam.getQuestions().stream()
-                            .map(q -> {
-                                // For students, don't include correct answers
-                                return QuestionResponse.builder()
-                                        .id(q.getId())
-                                        .text(q.getText())
-                                        .type(q.getType())
-                                        .option1(q.getOption1())
-                                        .option2(q.getOption2())
-                                        .option3(q.getOption3())
-                                        .option4(q.getOption4())
-                                        .points(q.getPoints())
-                                        .explanation(q.getExplanation())
-                                        .build();
-                            })
-                            .collect(Collectors.toList()))
-                    .build();
-
-            return ResponseEntity.ok(response);
+            // Same paper as above: no correct answers or explanations for students
+            return toPaperResponse(exam, acceptEncoding, webRequest);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
         }
     }
 
+    // Answers 304 from the exam version alone; otherwise writes the pre-rendered paper as is,
+    // compressed when the client accepts gzip
+    private ResponseEntity<byte[]> toPaperResponse(Exam exam, String acceptEncoding, WebRequest webRequest) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        String etag = contentVersionService.paperTag(exam, gzip);
+        long lastModified = exam.getUpdatedAt() != null
+                ? exam.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(REVALIDATE)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ExamPaperCache.Paper paper = examPaperCache.get(exam);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(REVALIDATE)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(paper.gzip());
+        }
+        return response.body(paper.json());
+    }
+
+    private ResponseEntity<?> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+    }
+
     // =========== SUBMIT EXAM ===========
     @PostMapping("/exams/{examId}/submit")
-    @Operation(summary = "Submit exam answers")
+    @Operation(summary = "Submit exam answers (pass async=true to queue the submission and get a ticket)")
+    // No surrounding transaction: a duplicate insert must roll back on its own before the stored result is fetched
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ResponseEntity<?> submitExam(@PathVariable Long examId,
                                         @RequestBody TakeExamRequest request,
+                                        @RequestParam(value = "async", defaultValue = "false") boolean async,
+                                        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                                         @AuthenticationPrincipal User student) {
         try {
             System.out.println("Submitting exam " + examId + " for student ID: " + student.getId());
             System.out.println("Request: " + request);
+            SubmissionService.checkIdempotencyKey(idempotencyKey);
+
+            // A started attempt is graded in place, which is cheap enough to do inline
+            if (async && submissionQueueService.isEnabled()
+                    && attemptService.activeAttemptId(examId, student.getId()) == null) {
+                SubmissionTicket ticket = submissionQueueService.enqueue(examId, request, student);
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .header("Location", "/student/submissions/" + ticket.getId())
+                        .body(toTicketResponse(ticket));
+            }
 
-            // Submit exam
-            ExamResult examResult = examService.submitExam(examId, request, student);
-
-            // Create response
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", examResult.getId());
-            response.put("examId", examResult.getExam().getId());
-            response.put("examTitle", examResult.getExam().getTitle());
-            response.put("score", examResult.getScore());
-            response.put("totalMarks", examResult.getTotalMarks());
-            response.put("percentage", examResult.getPercentage());
-            response.put("status", examResult.getStatus().toString());
-            response.put("timeTaken", examResult.getTimeTaken());
-            response.put("submittedAt", examResult.getSubmittedAt());
-            response.put("message", "Exam submitted successfully!");
+            // Submit exam (a retry with the same Idempotency-Key returns the stored result)
+            ExamResult examResult = submissionService.submit(examId, request, student, idempotencyKey);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(toSubmissionResponse(examResult));
+        } catch (SubmissionQueueService.QueueFullException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "5")
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
         } catch (RuntimeException e) {
             System.out.println("ERROR in submitExam: " + e.getMessage());
             e.printStackTrace();
@@ -450,28 +338,126 @@ public class StudentController {
         }
     }
 
+    // =========== IN-PROGRESS ATTEMPTS ===========
+    @PostMapping("/exams/{examId}/attempt")
+    @Operation(summary = "Start an attempt, or resume the running one with its saved answers")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<?> startAttempt(@PathVariable Long examId,
+                                          @AuthenticationPrincipal User student) {
+        try {
+            AttemptService.ActiveAttempt attempt = attemptService.startAttempt(examId, student);
+
+            List<Map<String, Object>> answers = attemptService.getAnswers(attempt).entrySet().stream()
+                    .map(entry -> {
+                        Map<String, Object> answer = new HashMap<>();
+                        answer.put("questionId", entry.getKey());
+                        answer.put("answer", entry.getValue());
+                        return answer;
+                    })
+                    .collect(Collectors.toList());
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("attemptId", attempt.getId());
+            response.put("examId", attempt.getExamId());
+            response.put("startedAt", attempt.getStartedAt());
+            response.put("deadlineAt", attempt.getDeadlineAt());
+            response.put("answers", answers);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            System.out.println("ERROR in startAttempt: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PatchMapping("/attempts/{attemptId}/answers")
+    @Operation(summary = "Autosave changed answers of a running attempt (buffered, written in periodic batches)")
+    // Only touches the in-memory buffer, so don't hold a connection for it
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<?> saveAttemptAnswers(@PathVariable Long attemptId,
+                                                @RequestBody TakeExamRequest request,
+                                                @AuthenticationPrincipal User student) {
+        try {
+            int pending = attemptService.saveAnswers(attemptId,
+                    request.getAnswers() != null ? request.getAnswers() : List.of(), student);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(Map.of("attemptId", attemptId, "pendingAnswers", pending));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/attempts/{attemptId}/submit")
+    @Operation(summary = "Submit a running attempt and grade its saved answers")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<?> submitAttempt(@PathVariable Long attemptId,
+                                           @RequestBody(required = false) TakeExamRequest request,
+                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                           @AuthenticationPrincipal User student) {
+        try {
+            SubmissionService.checkIdempotencyKey(idempotencyKey);
+            ExamResult examResult = attemptService.submitAttempt(attemptId, request, student, idempotencyKey);
+            return ResponseEntity.ok(toSubmissionResponse(examResult));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            System.out.println("ERROR in submitAttempt: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // =========== ASYNC SUBMISSION STATUS ===========
+    @GetMapping("/submissions/{ticketId}")
+    @Operation(summary = "Get the status of a queued submission (wait=N long-polls for up to N seconds)")
+    public DeferredResult<ResponseEntity<?>> getSubmissionStatus(@PathVariable Long ticketId,
+                                                                 @RequestParam(value = "wait", defaultValue = "0") int wait,
+                                                                 @AuthenticationPrincipal User student) {
+        int waitSeconds = Math.max(0, Math.min(wait, 30));
+        DeferredResult<ResponseEntity<?>> deferred = new DeferredResult<>(waitSeconds * 1000L + 1000L);
+
+        Optional<SubmissionTicket> ticket = submissionQueueService.getTicket(ticketId, student);
+        if (ticket.isEmpty()) {
+            deferred.setResult(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Submission not found")));
+            return deferred;
+        }
+
+        if (ticket.get().getStatus() != SubmissionStatus.QUEUED || waitSeconds == 0) {
+            deferred.setResult(toTicketStatusResponse(ticket.get()));
+            return deferred;
+        }
+
+        Consumer<SubmissionTicket> callback = completed -> deferred.setResult(toTicketStatusResponse(completed));
+        deferred.onTimeout(() -> {
+            submissionQueueService.cancelWaiter(ticketId, callback);
+            deferred.setResult(toTicketStatusResponse(ticket.get()));
+        });
+        submissionQueueService.onCompletion(ticket.get(), callback);
+        return deferred;
+    }
+
     // =========== GET STUDENT RESULTS (Map Response) ===========
     @GetMapping("/exams/results")
-    @Operation(summary = "Get student's exam results - Map Response")
-    public ResponseEntity<?> getStudentResults(@AuthenticationPrincipal User student) {
+    @Operation(summary = "Get student's exam results one page at a time, newest first - Map Response")
+    public ResponseEntity<?> getStudentResults(@AuthenticationPrincipal User student,
+                                               @RequestParam(required = false) ResultStatus status,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer size) {
         try {
             System.out.println("Getting results for student ID: " + student.getId());
 
-            List<ExamResult> results = examService.getExamResultsByStudent(student);
-
-            List<Map<String, Object>> response = results.stream()
+            // Exam and teacher come with the page; no lazy loading per row
+            CursorPage<Map<String, Object>> page = examService.getStudentResultsPage(student.getId(), status,
+                            from, to, cursor, paginationSettings.pageSize(size))
                     .map(result -> {
-                        // Initialize lazy-loaded collections
-                        if (result.getExam() != null) {
-                            if (result.getExam().getQuestions() != null) {
-                                result.getExam().getQuestions().size(); // Initialize questions
-                            }
-                            // FIXED: Use getTeacher() instead of getCreatedBy()
-                            if (result.getExam().getTeacher() != null) {
-                                result.getExam().getTeacher().getFullName(); // Initialize user
-                            }
-                        }
-
                         Map<String, Object> resultData = new HashMap<>();
                         resultData.put("id", result.getId());
                         resultData.put("examId", result.getExam().getId());
@@ -486,11 +472,14 @@ public class StudentController {
                         resultData.put("createdBy", result.getExam().getTeacher() != null ?
                                 result.getExam().getTeacher().getFullName() : "Unknown");
                         return resultData;
-                    })
-                    .collect(Collectors.toList());
+                    });
 
-            System.out.println("Returning " + response.size() + " results");
-            return ResponseEntity.ok(response);
+            System.out.println("Returning " + page.items().size() + " results");
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.items());
         } catch (Exception e) {
             System.out.println("ERROR in getStudentResults: " + e.getMessage());
             e.printStackTrace();
@@ -504,7 +493,7 @@ public class StudentController {
     @Operation(summary = "Get student's exam results - DTO Response")
     public ResponseEntity<List<ExamResultResponse>> getStudentResultsDTO(
             @AuthenticationPrincipal User student) {
-        List<ExamResult> results = examService.getExamResultsByStudent(student);
+        List<ExamResult> results = examService.getExamResultReviewsByStudent(student);
         List<ExamResultResponse> response = results.stream()
                 .map(this::toExamResultResponseDTO)
                 .collect(Collectors.toList());
@@ -519,7 +508,8 @@ public class StudentController {
         try {
             System.out.println("Getting detailed result " + resultId + " for student ID: " + student.getId());
 
-            ExamResult result = examService.getExamResult(resultId);
+            // Exam, teacher, answers and their questions come in one fetch
+            ExamResult result = examService.getExamResultForReview(resultId);
 
             // Check if result belongs to current student
             if (!result.getStudent().getId().equals(student.getId())) {
@@ -527,25 +517,6 @@ public class StudentController {
                         .body(Map.of("error", "You are not authorized to view this result"));
             }
 
-            // Initialize lazy-loaded collections
-            if (result.getExam() != null) {
-                if (result.getExam().getQuestions() != null) {
-                    result.getExam().getQuestions().size(); // Initialize questions
-                }
-                // FIXED: Use getTeacher() instead of getCreatedBy()
-                if (result.getExam().getTeacher() != null) {
-                    result.getExam().getTeacher().getFullName(); // Initialize user
-                }
-            }
-            if (result.getAnswers() != null) {
-                result.getAnswers().size(); // Initialize answers
-                result.getAnswers().forEach(answer -> {
-                    if (answer.getQuestion() != null) {
-                        // Initialize question if needed
-                    }
-                });
-            }
-
             Map<String, Object> response = new HashMap<>();
             response.put("id", result.getId());
             response.put("examId", result.getExam().getId());
@@ -560,6 +531,13 @@ public class StudentController {
             response.put("createdBy", result.getExam().getTeacher() != null ?
                     result.getExam().getTeacher().getFullName() : "Unknown");
 
+            ExamRankService.Standing standing = standingOf(result);
+            if (standing != null) {
+                response.put("rank", standing.rank());
+                response.put("rankedCount", standing.rankedCount());
+                response.put("percentile", Math.round(standing.percentile() * 100.0) / 100.0);
+            }
+
             // Include answers with correct/incorrect status
             if (result.getAnswers() != null) {
                 List<Map<String, Object>> answersData = result.getAnswers().stream()
@@ -598,7 +576,7 @@ public class StudentController {
     public ResponseEntity<?> getExamResultDTO(@PathVariable Long resultId,
                                               @AuthenticationPrincipal User student) {
         try {
-            ExamResult result = examService.getExamResult(resultId);
+            ExamResult result = examService.getExamResultForReview(resultId);
 
             // Check if result belongs to student
             if (!result.getStudent().getId().equals(student.getId())) {
@@ -606,7 +584,17 @@ public class StudentController {
                         .body(Map.of("error", "You are not authorized to view this result"));
             }
 
-            return ResponseEntity.ok(toExamResultResponseDTO(result));
+            ExamResultResponse response = toExamResultResponseDTO(result);
+            ExamRankService.Standing standing = standingOf(result);
+            if (standing != null) {
+                response.setRank(standing.rank());
+                response.setRankedCount(standing.rankedCount());
+                response.setPercentile(Math.round(standing.percentile() * 100.0) / 100.0);
+            }
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
@@ -615,23 +603,48 @@ public class StudentController {
 
     // =========== HELPER METHODS ===========
 
-    // Helper method to check if student has taken an exam
-    private boolean hasStudentTakenExam(Exam exam, User student) {
-        try {
-            // Get all exam results for this student
-            List<ExamResult> studentResults = examService.getExamResultsByStudent(student);
+    private Map<String, Object> toSubmissionResponse(ExamResult examResult) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", examResult.getId());
+        response.put("examId", examResult.getExam().getId());
+        response.put("examTitle", examResult.getExam().getTitle());
+        response.put("score", examResult.getScore());
+        response.put("totalMarks", examResult.getTotalMarks());
+        response.put("percentage", examResult.getPercentage());
+        response.put("status", examResult.getStatus().toString());
+        response.put("timeTaken", examResult.getTimeTaken());
+        response.put("submittedAt", examResult.getSubmittedAt());
+        response.put("message", "Exam submitted successfully!");
+        return response;
+    }
 
-            // Check if any result is for this specific exam
-            return studentResults.stream()
-                    .anyMatch(result -> result.getExam().getId().equals(exam.getId()));
-        } catch (Exception e) {
-            System.out.println("Error checking if student has taken exam: " + e.getMessage());
-            return false;
+    private Map<String, Object> toTicketResponse(SubmissionTicket ticket) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("ticketId", ticket.getId());
+        response.put("examId", ticket.getExamId());
+        response.put("submissionStatus", ticket.getStatus().name());
+        response.put("createdAt", ticket.getCreatedAt());
+        if (ticket.getError() != null) {
+            response.put("error", ticket.getError());
         }
+        return response;
+    }
+
+    private ResponseEntity<?> toTicketStatusResponse(SubmissionTicket ticket) {
+        if (ticket.getStatus() == SubmissionStatus.COMPLETED && ticket.getResultId() != null) {
+            Map<String, Object> response = toSubmissionResponse(examService.getExamResult(ticket.getResultId()));
+            response.put("ticketId", ticket.getId());
+            response.put("submissionStatus", ticket.getStatus().name());
+            return ResponseEntity.ok(response);
+        }
+        if (ticket.getStatus() == SubmissionStatus.QUEUED) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(toTicketResponse(ticket));
+        }
+        return ResponseEntity.ok(toTicketResponse(ticket));
     }
 
     // DTO Conversion Methods - FIXED: Use getTeacher() instead of getCreatedBy()
-    private ExamResponse toExamResponseDTO(Exam exam) {
+    private ExamResponse toExamResponseDTO(ExamSummary exam) {
         return ExamResponse.builder()
                 .id(exam.getId())
                 .title(exam.getTitle())
@@ -640,13 +653,21 @@ public class StudentController {
                 .totalMarks(exam.getTotalMarks())
                 .passingMarks(exam.getPassingMarks())
                 .status(exam.getStatus())
-                .createdBy(exam.getTeacher() != null ? exam.getTeacher().getFullName() : "Unknown")
+                .createdBy(exam.getTeacherName() != null ? exam.getTeacherName() : "Unknown")
                 .createdAt(exam.getCreatedAt())
                 .publishedAt(exam.getPublishedAt())
-                .questionCount(exam.getQuestions().size())
+                .questionCount(Math.toIntExact(exam.getQuestionCount()))
                 .build();
     }
 
+    // Null for an attempt still in progress, which is not ranked
+    private ExamRankService.Standing standingOf(ExamResult result) {
+        if (result.getStatus() == ResultStatus.IN_PROGRESS) {
+            return null;
+        }
+        return examRankService.getStanding(result.getExam().getId(), result.getScore());
+    }
+
     private ExamResultResponse toExamResultResponseDTO(ExamResult result) {
         List<AnswerResponse> answers = result.getAnswers().stream()
                 .map(answer -> AnswerResponse.builder()
@@ -1,17 +1,24 @@
 package com.examsystem.controller;
 
+import com.examsystem.config.PaginationSettings;
+import com.examsystem.dto.CursorPage;
 import com.examsystem.dto.exam.ExamResponse;
+import com.examsystem.dto.exam.ExamSummary;
 import com.examsystem.dto.exam.QuestionResponse;
 import com.examsystem.model.Exam;
 import com.examsystem.model.ExamResult;
+import com.examsystem.model.ResultStatus;
 import com.examsystem.model.User;
-import com.examsystem.repository.ExamRepository;
+import com.examsystem.model.ExamStats;
+import com.examsystem.service.ExamRankService;
 import com.examsystem.service.ExamService;
+import com.examsystem.service.ExamStatsService;
 import com.examsystem.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -32,8 +39,10 @@ import java.util.stream.Collectors;
 public class TeacherController {
 
     private final ExamService examService;
-    private final ExamRepository examRepository;
     private final UserService userService;
+    private final ExamStatsService examStatsService;
+    private final ExamRankService examRankService;
+    private final PaginationSettings paginationSettings;
 
     @GetMapping("/dashboard")
     @Operation(summary = "Get teacher dashboard data")
@@ -44,15 +53,12 @@ public class TeacherController {
             Map<String, Object> response = new HashMap<>();
 
             // Get teacher's exams
-            List<Exam> teacherExams = examService.getExamsByTeacher(user);
+            List<ExamSummary> teacherExams = examService.getExamSummariesByTeacher(user);
             System.out.println("🔵 Teacher has " + teacherExams.size() + " exams");
 
-            // Load questions for each exam
-            teacherExams.forEach(exam -> {
-                if (exam.getQuestions() != null) {
-                    exam.getQuestions().size();
-                }
-            });
+            // One read of the precomputed aggregates instead of loading every result per exam
+            Map<Long, ExamStats> examStats = examStatsService.getStats(
+                    teacherExams.stream().map(ExamSummary::getId).collect(Collectors.toList()));
 
             List<Map<String, Object>> examsData = teacherExams.stream()
                     .map(exam -> {
@@ -62,22 +68,20 @@ public class TeacherController {
                         examData.put("id", exam.getId());
                         examData.put("title", exam.getTitle());
                         examData.put("description", exam.getDescription());
-                        examData.put("totalQuestions", exam.getQuestions() != null ? exam.getQuestions().size() : 0);
+                        examData.put("totalQuestions", exam.getQuestionCount());
                         examData.put("totalMarks", exam.getTotalMarks());
                         examData.put("passingMarks", exam.getPassingMarks());
                         examData.put("status", exam.getStatus().toString().toLowerCase());
                         examData.put("createdAt", exam.getCreatedAt());
 
-                        // Get results for this exam to calculate statistics
-                        List<com.examsystem.model.ExamResult> results = examService.getExamResultsByExam(exam.getId());
-                        int studentsTakenExam = results.size(); // Students who have taken this exam
-                        double averageScore = results.stream()
-                                .mapToDouble(r -> r.getPercentage())
-                                .average()
-                                .orElse(0.0);
+                        ExamStats stats = examStats.get(exam.getId());
+                        long studentsTakenExam = stats.getAttemptCount(); // One result per student and exam
 
                         examData.put("studentsTaken", studentsTakenExam); // Rename for clarity
-                        examData.put("averageScore", Math.round(averageScore * 100.0) / 100.0);
+                        examData.put("averageScore", Math.round(stats.getAveragePercentage() * 100.0) / 100.0);
+                        examData.put("passRate", Math.round(stats.getPassRate() * 100.0) / 100.0);
+                        examData.put("scoreStdDev", Math.round(stats.getScoreStdDev() * 100.0) / 100.0);
+                        examData.put("scoreDistribution", stats.getHistogram());
 
                         System.out.println("🔵 Exam " + exam.getTitle() + " has " + studentsTakenExam + " students who have taken it");
 
@@ -90,28 +94,11 @@ public class TeacherController {
             // Calculate statistics
             long totalExams = teacherExams.size();
             long totalQuestions = teacherExams.stream()
-                    .mapToLong(exam -> exam.getQuestions() != null ? exam.getQuestions().size() : 0)
+                    .mapToLong(ExamSummary::getQuestionCount)
                     .sum();
 
-            // FIX: Count students who have taken exams
-            Set<Long> distinctStudentIds = new HashSet<>();
-            System.out.println("🔵 Calculating students who have taken exams...");
-
-            for (Exam exam : teacherExams) {
-                System.out.println("🔵 Checking exam: " + exam.getTitle() + " (ID: " + exam.getId() + ")");
-                List<ExamResult> results = examService.getExamResultsByExam(exam.getId());
-                System.out.println("🔵 Found " + results.size() + " results for this exam");
-
-                results.forEach(result -> {
-                    if (result.getStudent() != null) {
-                        Long studentId = result.getStudent().getId();
-                        distinctStudentIds.add(studentId);
-                        System.out.println("🔵 Added student ID: " + studentId);
-                    }
-                });
-            }
-
-            long totalStudentsTakenExams = distinctStudentIds.size();
+            // Students who have taken any of this teacher's exams, counted in the database
+            long totalStudentsTakenExams = examService.getTotalStudentsForTeacher(user.getId());
             System.out.println("🔵 Total students who have taken exams: " + totalStudentsTakenExams);
 
             // Get total number of student users in system (if you want to show enrolled students)
@@ -171,14 +158,7 @@ public class TeacherController {
         try {
             System.out.println("Fetching exams for teacher: " + user.getId());
 
-            List<Exam> exams = examService.getExamsByTeacher(user);
-
-            // Load questions for each exam to avoid lazy loading issues
-            exams.forEach(exam -> {
-                if (exam.getQuestions() != null) {
-                    exam.getQuestions().size();
-                }
-            });
+            List<ExamSummary> exams = examService.getExamSummariesByTeacher(user);
 
             System.out.println("Found " + exams.size() + " exams");
 
@@ -193,11 +173,10 @@ public class TeacherController {
                         examData.put("passingMarks", exam.getPassingMarks());
                         examData.put("status", exam.getStatus().toString());
 
-                        int questionCount = exam.getQuestions() != null ? exam.getQuestions().size() : 0;
-                        examData.put("questionCount", questionCount);
+                        examData.put("questionCount", exam.getQuestionCount());
 
                         // FIXED: Use teacher instead of createdBy
-                        String teacherName = exam.getTeacher() != null ? exam.getTeacher().getFullName() : "Unknown";
+                        String teacherName = exam.getTeacherName() != null ? exam.getTeacherName() : "Unknown";
                         examData.put("createdBy", teacherName); // Still called createdBy in response for frontend compatibility
 
                         examData.put("createdAt", exam.getCreatedAt());
@@ -228,10 +207,6 @@ public class TeacherController {
                         .body(Map.of("error", "You are not authorized to access this exam"));
             }
 
-            if (exam.getQuestions() != null) {
-                exam.getQuestions().size();
-            }
-
             ExamResponse response = ExamResponse.builder()
                     .id(exam.getId())
                     .title(exam.getTitle())
@@ -319,9 +294,16 @@ public class TeacherController {
     }
 
     @GetMapping("/exams/{examId}/results")
-    @Operation(summary = "Get results for a specific exam")
+    @Operation(summary = "Get results for a specific exam one page at a time, newest first")
     public ResponseEntity<?> getExamResults(@PathVariable Long examId,
-                                            @AuthenticationPrincipal User user) {
+                                            @AuthenticationPrincipal User user,
+                                            @RequestParam(required = false) ResultStatus status,
+                                            @RequestParam(required = false)
+                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                            @RequestParam(required = false)
+                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size) {
         try {
             // Verify teacher owns the exam
             Exam exam = examService.getExamById(examId);
@@ -332,9 +314,13 @@ public class TeacherController {
                         .body(Map.of("error", "You are not authorized to access these results"));
             }
 
-            List<com.examsystem.model.ExamResult> results = examService.getExamResultsByExam(examId);
+            CursorPage<ExamResult> results = examService.getExamResultsPage(examId, status, from, to,
+                    cursor, paginationSettings.pageSize(size));
+            // Ranks for the whole page from one index lookup
+            Map<Integer, ExamRankService.Standing> standings = examRankService.getStandings(examId,
+                    results.items().stream().map(ExamResult::getScore).toList());
 
-            List<Map<String, Object>> response = results.stream()
+            CursorPage<Map<String, Object>> page = results
                     .map(result -> {
                         Map<String, Object> resultData = new HashMap<>();
                         resultData.put("id", result.getId());
@@ -348,11 +334,18 @@ public class TeacherController {
                         resultData.put("status", result.getStatus().toString());
                         resultData.put("timeTaken", result.getTimeTaken());
                         resultData.put("submittedAt", result.getSubmittedAt());
+                        resultData.put("rank", standings.get(result.getScore()).rank());
                         return resultData;
-                    })
-                    .collect(Collectors.toList());
+                    });
 
-            return ResponseEntity.ok(response);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+            }
+            return response.body(page.items());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("error", e.getMessage()));
@@ -363,6 +356,43 @@ public class TeacherController {
         }
     }
 
+    @GetMapping("/exams/{examId}/leaderboard")
+    @Operation(summary = "Get the best results of a specific exam with their ranks")
+    public ResponseEntity<?> getExamLeaderboard(@PathVariable Long examId,
+                                                @AuthenticationPrincipal User user,
+                                                @RequestParam(defaultValue = "10") int limit) {
+        try {
+            Exam exam = examService.getExamById(examId);
+
+            if (exam.getTeacher() == null || !exam.getTeacher().getId().equals(user.getId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(Map.of("error", "You are not authorized to access these results"));
+            }
+
+            List<Map<String, Object>> leaderboard = examRankService.getTopResults(examId, limit).stream()
+                    .map(ranked -> {
+                        Map<String, Object> entry = new HashMap<>();
+                        entry.put("rank", ranked.rank());
+                        entry.put("resultId", ranked.result().getId());
+                        entry.put("studentId", ranked.result().getStudent().getId());
+                        entry.put("studentName", ranked.result().getStudent().getFullName());
+                        entry.put("score", ranked.result().getScore());
+                        entry.put("totalMarks", ranked.result().getTotalMarks());
+                        entry.put("percentage", ranked.result().getPercentage());
+                        entry.put("submittedAt", ranked.result().getSubmittedAt());
+                        return entry;
+                    })
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(leaderboard);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @PostMapping("/exams/{examId}/publish")
     @Operation(summary = "Publish an exam")
     public ResponseEntity<?> publishExam(@PathVariable Long examId,
@@ -382,12 +412,8 @@ public class TeacherController {
                         .body(Map.of("error", "Cannot publish exam without questions"));
             }
 
-            // Publish the exam
-            exam.setStatus(com.examsystem.model.ExamStatus.PUBLISHED);
-            exam.setIsPublished(true);
-            exam.setPublishedAt(LocalDateTime.now());
-
-            Exam savedExam = examRepository.save(exam);
+            // Publish the exam; its answer key is compiled on the first submission
+            Exam savedExam = examService.publishExam(exam);
 
             return ResponseEntity.ok(Map.of(
                     "message", "Exam published successfully",
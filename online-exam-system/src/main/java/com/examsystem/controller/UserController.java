@@ -1,6 +1,8 @@
 package com.examsystem.controller;
 
+import com.examsystem.dto.AdminStats;
 import com.examsystem.model.User;
+import com.examsystem.service.AdminStatsService;
 import com.examsystem.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -22,6 +24,7 @@ import java.util.Optional;
 public class UserController {
 
     private final UserService userService;
+    private final AdminStatsService adminStatsService;
 
     @GetMapping("/profile")
     @Operation(summary = "Get current user profile")
@@ -34,8 +37,9 @@ public class UserController {
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get system statistics (Admin only)")
     public ResponseEntity<?> getStats() {
-        long studentCount = userService.countStudents();
-        long teacherCount = userService.countTeachers();
+        AdminStats stats = adminStatsService.getStats();
+        long studentCount = stats.students();
+        long teacherCount = stats.teachers();
 
         return ResponseEntity.ok()
                 .body("{\"students\": " + studentCount + ", \"teachers\": " + teacherCount + "}");
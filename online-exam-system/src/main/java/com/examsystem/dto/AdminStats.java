@@ -0,0 +1,44 @@
+package com.examsystem.dto;
+
+import com.examsystem.model.ExamStatus;
+import com.examsystem.model.Role;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * System-wide figures for the admin dashboard, as of {@code computedAt}.
+ * Submission figures also include results recorded since then; everything
+ * else is at most {@code maxStalenessSeconds} old.
+ */
+public record AdminStats(
+        long totalUsers,
+        long students,
+        long teachers,
+        long admins,
+        Map<Role, Long> usersByRole,
+        long totalExams,
+        long completedExams,
+        Map<ExamStatus, Long> examsByStatus,
+        long totalSubmissions,
+        long passedSubmissions,
+        double passRate,
+        double averageScore,
+        List<DailySubmissions> submissionsPerDay,
+        LocalDateTime computedAt,
+        long maxStalenessSeconds
+) {
+
+    public record DailySubmissions(LocalDate date, long submissions, long passed) {
+    }
+
+    public AdminStats withSubmissions(long totalSubmissions, long passedSubmissions, double averageScore,
+                                      List<DailySubmissions> submissionsPerDay) {
+        double passRate = totalSubmissions > 0 ? passedSubmissions * 100.0 / totalSubmissions : 0.0;
+        return new AdminStats(totalUsers, students, teachers, admins, usersByRole, totalExams, completedExams,
+                examsByStatus, totalSubmissions, passedSubmissions, passRate, averageScore, submissionsPerDay,
+                computedAt, maxStalenessSeconds);
+    }
+}
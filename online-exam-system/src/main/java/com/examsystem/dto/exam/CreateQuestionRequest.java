@@ -14,6 +14,9 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class CreateQuestionRequest {
+    // Id of the stored question this edits; null for a new question
+    private Long id;
+
     @NotBlank
     private String text;
 
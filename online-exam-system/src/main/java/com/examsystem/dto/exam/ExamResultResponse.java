@@ -24,5 +24,9 @@ public class ExamResultResponse {
     private ResultStatus status;
     private Integer timeTaken;
     private LocalDateTime submittedAt;
+    // Standing among the exam's finished results; set on single-result responses
+    private Long rank;
+    private Long rankedCount;
+    private Double percentile;
     private List<AnswerResponse> answers;
 }
\ No newline at end of file
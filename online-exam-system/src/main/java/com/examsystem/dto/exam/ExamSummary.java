@@ -0,0 +1,46 @@
+package com.examsystem.dto.exam;
+
+import com.examsystem.model.ExamStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Scalar view of an exam for list endpoints: the exam's own columns, the
+ * teacher's name and the number of questions, read in one query without
+ * loading Question entities. Field order is the JPQL constructor order used
+ * in ExamRepository.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamSummary {
+    private Long id;
+    private String title;
+    private String description;
+    private Integer durationMinutes;
+    private Integer totalMarks;
+    private Integer passingMarks;
+    private ExamStatus status;
+    private Boolean isPublished;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private LocalDateTime createdAt;
+    private LocalDateTime publishedAt;
+    private String teacherName;
+    private Long questionCount;
+
+    // Same rules as Exam.isPublished() and Exam.isAvailable()
+    public boolean isPublished() {
+        return status == ExamStatus.PUBLISHED && Boolean.TRUE.equals(isPublished);
+    }
+
+    public boolean isAvailable() {
+        LocalDateTime now = LocalDateTime.now();
+        return isPublished()
+                && (startTime == null || !now.isBefore(startTime))
+                && (endTime == null || !now.isAfter(endTime));
+    }
+}
@@ -0,0 +1,40 @@
+package com.examsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cold copy of one result's answers: every student_answers row of the result
+ * packed into a single compressed blob (see AnswerArchiveCodec). Written when
+ * the exam is completed, after which the hot rows are deleted.
+ */
+@Entity
+@Table(name = "archived_answers", indexes = {
+        @Index(name = "idx_archived_answers_exam", columnList = "exam_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedAnswers {
+
+    @Id
+    @Column(name = "exam_result_id")
+    private Long resultId;
+
+    @Column(name = "exam_id", nullable = false)
+    private Long examId;
+
+    @Column(name = "answer_count", nullable = false)
+    private Integer answerCount;
+
+    // Sized past 64 KB so MySQL gets a MEDIUMBLOB
+    @Column(name = "payload", nullable = false, length = 16_777_215)
+    @ToString.Exclude
+    private byte[] payload;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
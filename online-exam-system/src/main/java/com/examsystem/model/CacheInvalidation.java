@@ -0,0 +1,41 @@
+package com.examsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row telling the other application nodes to drop what their
+ * in-process caches hold for one entity. Written in the transaction that
+ * changed the entity, read by every node in id order (see
+ * OutboxInvalidationTransport) and deleted after the retention period.
+ */
+@Entity
+@Table(name = "cache_invalidations", indexes = {
+        @Index(name = "idx_cache_invalidations_created", columnList = "created_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // A plain VARCHAR rather than a MySQL ENUM, so adding a kind needs no schema change
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, columnDefinition = "varchar(32)")
+    private InvalidationKind kind;
+
+    @Column(name = "entity_key", nullable = false)
+    private String entityKey;
+
+    // The node that made the change; it has already dropped its own entries
+    @Column(name = "origin_node", nullable = false, length = 36)
+    private String originNode;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -1,18 +1,31 @@
 package com.examsystem.model;
 
+import com.examsystem.config.HibernateCacheConfig;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLRestriction;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "exams")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.EXAM_REGION)
+// Fetch plan for the teacher's exam view, loaded up front instead of lazily
+@NamedEntityGraph(name = Exam.TEACHER_DETAIL_GRAPH, attributeNodes = {
+        @NamedAttributeNode("questions"),
+        @NamedAttributeNode("teacher")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Exam {
+
+    public static final String TEACHER_DETAIL_GRAPH = "Exam.teacherDetail";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -58,7 +71,15 @@ public class Exam {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Set by a delete; the exam is hidden at once and its rows are purged in the background
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     @OneToMany(mappedBy = "exam", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.EXAM_QUESTIONS_REGION)
+    // The exam's live paper: questions retired by an edit stay in the table for old answers only
+    @SQLRestriction("retired = false")
+    @OrderBy("id")
     @Builder.Default
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
@@ -83,6 +104,10 @@ public class Exam {
         return status == ExamStatus.COMPLETED;
     }
 
+    public boolean isDeleted() {
+        return deletedAt != null;
+    }
+
     public boolean isAvailable() {
         LocalDateTime now = LocalDateTime.now();
         return isPublished()
@@ -90,6 +115,18 @@ public class Exam {
                 && (endTime == null || !now.isAfter(endTime));
     }
 
+    // When an attempt started at the given time runs out: after the exam's duration,
+    // or at the end of the exam window if that comes first. Null if neither applies.
+    public LocalDateTime attemptDeadline(LocalDateTime startedAt) {
+        LocalDateTime deadline = durationMinutes != null && durationMinutes > 0
+                ? startedAt.plusMinutes(durationMinutes)
+                : null;
+        if (endTime != null && endTime.isAfter(startedAt) && (deadline == null || endTime.isBefore(deadline))) {
+            deadline = endTime;
+        }
+        return deadline;
+    }
+
     @Transient
     public Integer getQuestionCount() {
         return questions != null ? questions.size() : 0;
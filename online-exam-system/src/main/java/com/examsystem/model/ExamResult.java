@@ -2,19 +2,53 @@ package com.examsystem.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "exam_results")
+@Table(name = "exam_results", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_exam_results_exam_student", columnNames = {"exam_id", "student_id"})
+}, indexes = {
+        // Keyset pagination of results per exam and per student, newest first
+        @Index(name = "idx_exam_results_exam_submitted", columnList = "exam_id, submitted_at, id"),
+        @Index(name = "idx_exam_results_student_submitted", columnList = "student_id, submitted_at, id"),
+        // Score counts and best results per exam for the rank index
+        @Index(name = "idx_exam_results_exam_score", columnList = "exam_id, score"),
+        // Submissions-per-day rollup of the admin statistics
+        @Index(name = "idx_exam_results_submitted", columnList = "submitted_at")
+})
+// Fetch plans: a row in a result listing, and a single result reviewed answer by answer
+@NamedEntityGraph(name = ExamResult.LIST_GRAPH, attributeNodes = {
+        @NamedAttributeNode(value = "exam", subgraph = "exam"),
+        @NamedAttributeNode("student")
+}, subgraphs = {
+        @NamedSubgraph(name = "exam", attributeNodes = @NamedAttributeNode("teacher"))
+})
+@NamedEntityGraph(name = ExamResult.REVIEW_GRAPH, attributeNodes = {
+        @NamedAttributeNode(value = "exam", subgraph = "exam"),
+        @NamedAttributeNode("student"),
+        @NamedAttributeNode(value = "answers", subgraph = "answers")
+}, subgraphs = {
+        @NamedSubgraph(name = "exam", attributeNodes = @NamedAttributeNode("teacher")),
+        @NamedSubgraph(name = "answers", attributeNodes = @NamedAttributeNode("question"))
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class ExamResult {
+
+    public static final String LIST_GRAPH = "ExamResult.list";
+    public static final String REVIEW_GRAPH = "ExamResult.review";
+
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "exam_result_id_gen")
+    @TableGenerator(name = "exam_result_id_gen", table = "id_generators", pkColumnName = "gen_name",
+            valueColumnName = "next_val", pkColumnValue = "exam_results", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -44,6 +78,28 @@ public class ExamResult {
     @Column(nullable = false)
     private LocalDateTime submittedAt;
 
+    // Set when the attempt was started server-side; null for one-shot submissions
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    // When a started attempt is closed and graded as EXPIRED if not submitted
+    @Column(name = "deadline_at")
+    private LocalDateTime deadlineAt;
+
+    // Node whose AttemptService holds the running attempt; see NodeIdentity
+    @Column(length = 64)
+    private String owner;
+
+    // Client-supplied Idempotency-Key of the submit request that created this result
+    @Column(name = "idempotency_key", length = MAX_IDEMPOTENCY_KEY_LENGTH)
+    private String idempotencyKey;
+
+    // Answers moved to archived_answers once the exam is completed; see AnswerArchiveService
+    @Column(name = "answers_archived", nullable = false)
+    @ColumnDefault("false")
+    @Builder.Default
+    private Boolean answersArchived = false;
+
     @OneToMany(mappedBy = "examResult", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     @Builder.Default
     @ToString.Exclude
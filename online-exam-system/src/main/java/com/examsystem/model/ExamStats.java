@@ -0,0 +1,90 @@
+package com.examsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running aggregates over the finished results of one exam. The row is bumped
+ * with an atomic UPDATE in the transaction that stores each result, so
+ * dashboards read one row per exam instead of scanning exam_results.
+ * The histogram counts results per 10-percentage-point band (90-100 in the last).
+ */
+@Entity
+@Table(name = "exam_stats")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamStats {
+
+    public static final int HISTOGRAM_BUCKETS = 10;
+
+    @Id
+    @Column(name = "exam_id")
+    private Long examId;
+
+    @Column(name = "attempt_count", nullable = false)
+    @Builder.Default
+    private Long attemptCount = 0L;
+
+    @Column(name = "pass_count", nullable = false)
+    @Builder.Default
+    private Long passCount = 0L;
+
+    @Column(name = "score_sum", nullable = false)
+    @Builder.Default
+    private Long scoreSum = 0L;
+
+    @Column(name = "score_square_sum", nullable = false)
+    @Builder.Default
+    private Long scoreSquareSum = 0L;
+
+    @Column(name = "percentage_sum", nullable = false)
+    @Builder.Default
+    private Double percentageSum = 0.0;
+
+    @Column(name = "bucket_0", nullable = false) @Builder.Default private Long bucket0 = 0L;
+    @Column(name = "bucket_1", nullable = false) @Builder.Default private Long bucket1 = 0L;
+    @Column(name = "bucket_2", nullable = false) @Builder.Default private Long bucket2 = 0L;
+    @Column(name = "bucket_3", nullable = false) @Builder.Default private Long bucket3 = 0L;
+    @Column(name = "bucket_4", nullable = false) @Builder.Default private Long bucket4 = 0L;
+    @Column(name = "bucket_5", nullable = false) @Builder.Default private Long bucket5 = 0L;
+    @Column(name = "bucket_6", nullable = false) @Builder.Default private Long bucket6 = 0L;
+    @Column(name = "bucket_7", nullable = false) @Builder.Default private Long bucket7 = 0L;
+    @Column(name = "bucket_8", nullable = false) @Builder.Default private Long bucket8 = 0L;
+    @Column(name = "bucket_9", nullable = false) @Builder.Default private Long bucket9 = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public static int bucketOf(double percentage) {
+        int bucket = (int) (percentage / 10);
+        return Math.max(0, Math.min(HISTOGRAM_BUCKETS - 1, bucket));
+    }
+
+    public double getAveragePercentage() {
+        return attemptCount > 0 ? percentageSum / attemptCount : 0.0;
+    }
+
+    public double getAverageScore() {
+        return attemptCount > 0 ? (double) scoreSum / attemptCount : 0.0;
+    }
+
+    public double getScoreStdDev() {
+        if (attemptCount == 0) {
+            return 0.0;
+        }
+        double mean = getAverageScore();
+        return Math.sqrt(Math.max(0.0, (double) scoreSquareSum / attemptCount - mean * mean));
+    }
+
+    public double getPassRate() {
+        return attemptCount > 0 ? passCount * 100.0 / attemptCount : 0.0;
+    }
+
+    public long[] getHistogram() {
+        return new long[]{bucket0, bucket1, bucket2, bucket3, bucket4, bucket5, bucket6, bucket7, bucket8, bucket9};
+    }
+}
@@ -0,0 +1,14 @@
+package com.examsystem.model;
+
+public enum InvalidationKind {
+    // Key: exam id
+    EXAM,
+    // Key: username
+    USER,
+    // Key: student id
+    STUDENT_RESULTS,
+    // Key: a username that came into use
+    USERNAME_ADDED,
+    // Key: an email that came into use
+    EMAIL_ADDED
+}
@@ -0,0 +1,7 @@
+package com.examsystem.model;
+
+public enum SubmissionStatus {
+    QUEUED,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,65 @@
+package com.examsystem.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Durable record of an asynchronous exam submission. The raw answers are kept
+ * as JSON until a worker grades them and links the ticket to its ExamResult.
+ */
+@Entity
+@Table(name = "submission_tickets", indexes = {
+        @Index(name = "idx_submission_tickets_status", columnList = "status, id"),
+        @Index(name = "idx_submission_tickets_exam_student", columnList = "exam_id, student_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionTicket {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "exam_id", nullable = false)
+    private Long examId;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    @ToString.Exclude
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SubmissionStatus status;
+
+    @Column(name = "result_id")
+    private Long resultId;
+
+    @Column(length = 500)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    // Node grading the QUEUED ticket, and since when; see SubmissionBatchProcessor.claim
+    @Column(length = 64)
+    private String owner;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
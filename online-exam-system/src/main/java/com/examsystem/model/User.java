@@ -17,7 +17,10 @@ import java.util.Collection;
 import java.util.List;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        // Role-filtered keyset pagination of the admin user list
+        @Index(name = "idx_users_role_id", columnList = "role, user_id")
+})
 @Data
 @Builder
 @NoArgsConstructor
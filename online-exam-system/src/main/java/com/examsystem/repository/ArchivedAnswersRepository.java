@@ -0,0 +1,18 @@
+package com.examsystem.repository;
+
+import com.examsystem.model.ArchivedAnswers;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface ArchivedAnswersRepository extends JpaRepository<ArchivedAnswers, Long> {
+
+    @Modifying
+    @Query("DELETE FROM ArchivedAnswers a WHERE a.resultId IN :resultIds")
+    int deleteByResultIdIn(@Param("resultIds") Collection<Long> resultIds);
+}
@@ -0,0 +1,25 @@
+package com.examsystem.repository;
+
+import com.examsystem.model.CacheInvalidation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+
+    List<CacheInvalidation> findByIdGreaterThanOrderById(Long id, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(i.id), 0) FROM CacheInvalidation i")
+    long findMaxId();
+
+    @Modifying
+    @Query("DELETE FROM CacheInvalidation i WHERE i.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -1,36 +1,66 @@
 package com.examsystem.repository;
 
+import com.examsystem.dto.exam.ExamSummary;
 import com.examsystem.model.Exam;
 import com.examsystem.model.ExamStatus;
 import com.examsystem.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ExamRepository extends JpaRepository<Exam, Long> {
 
-    // FIXED: Changed from findByCreatedBy to findByTeacher
-    @Query("SELECT DISTINCT e FROM Exam e LEFT JOIN FETCH e.questions WHERE e.teacher = :teacher")
-    List<Exam> findByTeacher(@Param("teacher") User teacher);
-
-    @Query("SELECT DISTINCT e FROM Exam e LEFT JOIN FETCH e.questions WHERE e.status = :status")
-    List<Exam> findByStatus(@Param("status") ExamStatus status);
-
     // FIXED: Changed from findByCreatedByAndStatus to findByTeacherAndStatus
     @Query("SELECT DISTINCT e FROM Exam e LEFT JOIN FETCH e.questions WHERE e.teacher = :teacher AND e.status = :status")
     List<Exam> findByTeacherAndStatus(@Param("teacher") User teacher, @Param("status") ExamStatus status);
 
-    // FIXED: Changed LEFT JOIN FETCH e.createdBy to LEFT JOIN FETCH e.teacher
-    @Query("SELECT DISTINCT e FROM Exam e LEFT JOIN FETCH e.questions LEFT JOIN FETCH e.teacher WHERE e.id = :id")
-    Optional<Exam> findByIdWithQuestions(@Param("id") Long id);
+    @EntityGraph(Exam.TEACHER_DETAIL_GRAPH)
+    Optional<Exam> findTeacherDetailById(Long id);
+
+    // List views: scalar columns, teacher name and question count in one statement, no entities
+    String EXAM_SUMMARY_SELECT = "SELECT new com.examsystem.dto.exam.ExamSummary("
+            + "e.id, e.title, e.description, e.durationMinutes, e.totalMarks, e.passingMarks, "
+            + "e.status, e.isPublished, e.startTime, e.endTime, e.createdAt, e.publishedAt, t.fullName, "
+            + "(SELECT COUNT(q) FROM Question q WHERE q.exam = e AND q.retired = false)) "
+            + "FROM Exam e LEFT JOIN e.teacher t ";
+
+    @Query(EXAM_SUMMARY_SELECT + "WHERE e.status = :status AND e.deletedAt IS NULL ORDER BY e.id")
+    List<ExamSummary> findSummariesByStatus(@Param("status") ExamStatus status);
+
+    @Query(EXAM_SUMMARY_SELECT + "WHERE e.teacher.id = :teacherId AND e.deletedAt IS NULL ORDER BY e.id")
+    List<ExamSummary> findSummariesByTeacherId(@Param("teacherId") Long teacherId);
 
     // FIXED: Changed countByCreatedBy to countByTeacher
     long countByTeacher(User teacher);
 
     long countByStatus(ExamStatus status);
+
+    long countByTeacherIdAndStatusAndDeletedAtIsNull(Long teacherId, ExamStatus status);
+
+    // One row of [count, latest updatedAt, latest start time passed, latest end time passed] over
+    // non-deleted exams in the status: any change to what a listing of them shows moves one of these
+    @Query("SELECT COUNT(e), MAX(e.updatedAt), MAX(CASE WHEN e.startTime <= :now THEN e.startTime END), "
+            + "MAX(CASE WHEN e.endTime < :now THEN e.endTime END) "
+            + "FROM Exam e WHERE e.status = :status AND e.deletedAt IS NULL")
+    List<Object[]> findVersionByStatus(@Param("status") ExamStatus status, @Param("now") LocalDateTime now);
+
+    // Rows of [status, count] over exams that are not deleted
+    @Query("SELECT e.status, COUNT(e) FROM Exam e WHERE e.deletedAt IS NULL GROUP BY e.status")
+    List<Object[]> countGroupedByStatus();
+
+    // Deleted exams waiting for ExamPurgeService, oldest deletion first
+    @Query("SELECT e.id FROM Exam e WHERE e.deletedAt IS NOT NULL ORDER BY e.deletedAt, e.id")
+    List<Long> findDeletedIds();
+
+    @Modifying
+    @Query("DELETE FROM Exam e WHERE e.id = :id")
+    int purgeById(@Param("id") Long id);
 }
\ No newline at end of file
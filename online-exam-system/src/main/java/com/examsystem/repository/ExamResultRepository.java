@@ -3,22 +3,159 @@ package com.examsystem.repository;
 
 import com.examsystem.model.Exam;
 import com.examsystem.model.ExamResult;
+import com.examsystem.model.ExamStatus;
+import com.examsystem.model.ResultStatus;
 import com.examsystem.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ExamResultRepository extends JpaRepository<ExamResult, Long> {
+
+    // Keyset pages, newest first: optional filters, then rows strictly after the cursor (afterAt, afterId)
+    String PAGE_CONDITIONS = "AND r.status <> :excluded "
+            + "AND (:status IS NULL OR r.status = :status) "
+            + "AND (:from IS NULL OR r.submittedAt >= :from) "
+            + "AND (:to IS NULL OR r.submittedAt <= :to) "
+            + "AND (:afterId IS NULL OR r.submittedAt < :afterAt OR (r.submittedAt = :afterAt AND r.id < :afterId)) "
+            + "ORDER BY r.submittedAt DESC, r.id DESC";
+
     @Query("SELECT r FROM ExamResult r LEFT JOIN FETCH r.exam WHERE r.student = :student AND r.exam = :exam")
     Optional<ExamResult> findByStudentAndExam(@Param("student") User student, @Param("exam") Exam exam);
     List<ExamResult> findByStudent(User student);
     List<ExamResult> findByExam(Exam exam);
     Optional<ExamResult> findByExamAndStudent(Exam exam, User student);
     long countByExam(Exam exam);
+
+    @Query("SELECT r FROM ExamResult r JOIN FETCH r.exam WHERE r.exam.id = :examId AND r.student.id = :studentId")
+    Optional<ExamResult> findByExamIdAndStudentId(@Param("examId") Long examId, @Param("studentId") Long studentId);
     long countByStudent(User student);
-}
\ No newline at end of file
+
+    // Finished results only: IN_PROGRESS rows are attempts that have not been submitted yet
+    @EntityGraph(ExamResult.LIST_GRAPH)
+    List<ExamResult> findListByStudentIdAndStatusNot(Long studentId, ResultStatus status);
+
+    @EntityGraph(ExamResult.REVIEW_GRAPH)
+    List<ExamResult> findReviewByStudentIdAndStatusNot(Long studentId, ResultStatus status);
+
+    @EntityGraph(ExamResult.LIST_GRAPH)
+    List<ExamResult> findListByExamIdAndStatusNot(Long examId, ResultStatus status);
+
+    @EntityGraph(ExamResult.LIST_GRAPH)
+    Optional<ExamResult> findListById(Long id);
+
+    // Reviews show correct answers, so a running attempt is never returned
+    @EntityGraph(ExamResult.REVIEW_GRAPH)
+    Optional<ExamResult> findReviewByIdAndStatusNot(Long id, ResultStatus status);
+
+    @EntityGraph(ExamResult.LIST_GRAPH)
+    List<ExamResult> findListByIdIn(Collection<Long> ids);
+
+    // Rows of [score, finished results with that score] for one exam
+    @Query("SELECT r.score, COUNT(r) FROM ExamResult r WHERE r.exam.id = :examId AND r.status <> :excluded "
+            + "GROUP BY r.score")
+    List<Object[]> countByScore(@Param("examId") Long examId, @Param("excluded") ResultStatus excluded);
+
+    // Rows of [id, score, submittedAt] of the exam's best finished results, highest score and earliest first
+    @Query("SELECT r.id, r.score, r.submittedAt FROM ExamResult r WHERE r.exam.id = :examId AND r.status <> :excluded "
+            + "ORDER BY r.score DESC, r.submittedAt, r.id")
+    List<Object[]> findTopByExamId(@Param("examId") Long examId,
+                                   @Param("excluded") ResultStatus excluded,
+                                   Limit limit);
+
+    @Query("SELECT COUNT(DISTINCT r.student.id) FROM ExamResult r WHERE r.exam.teacher.id = :teacherId AND r.status <> :excluded "
+            + "AND r.exam.deletedAt IS NULL")
+    long countDistinctStudentsByTeacherIdAndStatusNot(@Param("teacherId") Long teacherId,
+                                                      @Param("excluded") ResultStatus excluded);
+
+    @Query("SELECT r.exam.id FROM ExamResult r WHERE r.student.id = :studentId AND r.status <> :excluded")
+    List<Long> findExamIdsByStudentIdAndStatusNot(@Param("studentId") Long studentId,
+                                                 @Param("excluded") ResultStatus excluded);
+
+    // Attempts this node started, plus ones started before attempts had an owner
+    @Query("SELECT r FROM ExamResult r JOIN FETCH r.exam e WHERE r.status = :status AND e.deletedAt IS NULL "
+            + "AND (r.owner = :owner OR r.owner IS NULL)")
+    List<ExamResult> findByStatusAndOwnerWithExam(@Param("status") ResultStatus status,
+                                                  @Param("owner") String owner);
+
+    // Attempts whose deadline passed long ago, e.g. because the node running them is gone
+    @Query("SELECT r.id FROM ExamResult r WHERE r.status = :status AND r.deadlineAt < :before ORDER BY r.id")
+    List<Long> findIdsByStatusAndDeadlineAtBefore(@Param("status") ResultStatus status,
+                                                  @Param("before") LocalDateTime before,
+                                                  Limit limit);
+
+    /**
+     * Locks the given results that are still in the given status, in id order.
+     * A node closing an attempt locks it first: another node closing the same
+     * attempt waits here and then no longer finds it IN_PROGRESS.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<ExamResult> findByIdInAndStatusOrderById(Collection<Long> ids, ResultStatus status);
+
+    // Rows of [day, finished results, passed results] since the given time, oldest day first
+    @Query("SELECT cast(r.submittedAt as LocalDate), COUNT(r), SUM(CASE WHEN r.status = :passed THEN 1 ELSE 0 END) "
+            + "FROM ExamResult r WHERE r.status <> :excluded AND r.submittedAt >= :since "
+            + "GROUP BY cast(r.submittedAt as LocalDate) ORDER BY cast(r.submittedAt as LocalDate)")
+    List<Object[]> countPerDaySince(@Param("since") LocalDateTime since,
+                                    @Param("passed") ResultStatus passed,
+                                    @Param("excluded") ResultStatus excluded);
+
+    // Finished results of exams in the given status whose answers are still in the hot table
+    @Query("SELECT r FROM ExamResult r WHERE r.exam.status = :examStatus AND r.exam.deletedAt IS NULL "
+            + "AND r.answersArchived = false AND r.status <> :excluded ORDER BY r.id")
+    List<ExamResult> findToArchive(@Param("examStatus") ExamStatus examStatus,
+                                   @Param("excluded") ResultStatus excluded,
+                                   Limit limit);
+
+    // Purge chunks: ids first, then bulk DELETEs of their answers and the results
+    @Query("SELECT r.id FROM ExamResult r WHERE r.exam.id = :examId ORDER BY r.id")
+    List<Long> findIdsByExamId(@Param("examId") Long examId, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM ExamResult r WHERE r.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT r FROM ExamResult r LEFT JOIN FETCH r.answers WHERE r.id = :id")
+    Optional<ExamResult> findByIdWithAnswers(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT r FROM ExamResult r LEFT JOIN FETCH r.answers WHERE r.id IN :ids")
+    List<ExamResult> findAllByIdWithAnswers(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT r FROM ExamResult r JOIN FETCH r.student JOIN FETCH r.exam WHERE r.exam.id = :examId " + PAGE_CONDITIONS)
+    List<ExamResult> findPageByExamId(@Param("examId") Long examId,
+                                      @Param("excluded") ResultStatus excluded,
+                                      @Param("status") ResultStatus status,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      @Param("afterAt") LocalDateTime afterAt,
+                                      @Param("afterId") Long afterId,
+                                      Limit limit);
+
+    @Query("SELECT r FROM ExamResult r JOIN FETCH r.exam e LEFT JOIN FETCH e.teacher WHERE r.student.id = :studentId "
+            + PAGE_CONDITIONS)
+    List<ExamResult> findPageByStudentId(@Param("studentId") Long studentId,
+                                         @Param("excluded") ResultStatus excluded,
+                                         @Param("status") ResultStatus status,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         @Param("afterAt") LocalDateTime afterAt,
+                                         @Param("afterId") Long afterId,
+                                         Limit limit);
+
+    // One row of [count, highest id, latest submittedAt, latest exam updatedAt] over the student's results
+    @Query("SELECT COUNT(r), MAX(r.id), MAX(r.submittedAt), MAX(e.updatedAt) FROM ExamResult r JOIN r.exam e "
+            + "WHERE r.student.id = :studentId")
+    List<Object[]> findVersionByStudentId(@Param("studentId") Long studentId);
+}
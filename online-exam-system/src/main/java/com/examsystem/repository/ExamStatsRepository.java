@@ -0,0 +1,17 @@
+package com.examsystem.repository;
+
+import com.examsystem.model.ExamStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ExamStatsRepository extends JpaRepository<ExamStats, Long> {
+
+    // One row of [attempts, passes, percentage sum] over all exams
+    @Query("SELECT COALESCE(SUM(s.attemptCount), 0), COALESCE(SUM(s.passCount), 0), COALESCE(SUM(s.percentageSum), 0) "
+            + "FROM ExamStats s")
+    List<Object[]> sumTotals();
+}
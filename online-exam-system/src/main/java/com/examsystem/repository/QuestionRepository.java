@@ -3,13 +3,29 @@ package com.examsystem.repository;
 
 import com.examsystem.model.Exam;
 import com.examsystem.model.Question;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface QuestionRepository extends JpaRepository<Question, Long> {
     List<Question> findByExam(Exam exam);
-    void deleteByExam(Exam exam);
+
+    @Query("SELECT COUNT(q) FROM Question q WHERE q.exam.teacher.id = :teacherId AND q.retired = false "
+            + "AND q.exam.deletedAt IS NULL")
+    long countByTeacherId(@Param("teacherId") Long teacherId);
+
+    // Purge chunks: ids first, then one bulk DELETE for them
+    @Query("SELECT q.id FROM Question q WHERE q.exam.id = :examId ORDER BY q.id")
+    List<Long> findIdsByExamId(@Param("examId") Long examId, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM Question q WHERE q.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
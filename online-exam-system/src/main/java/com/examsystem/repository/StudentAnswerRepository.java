@@ -4,12 +4,21 @@ package com.examsystem.repository;
 import com.examsystem.model.ExamResult;
 import com.examsystem.model.StudentAnswer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface StudentAnswerRepository extends JpaRepository<StudentAnswer, Long> {
     List<StudentAnswer> findByExamResult(ExamResult examResult);
     List<StudentAnswer> findByExamResultId(Long examResultId);
+    List<StudentAnswer> findByExamResultIdIn(Collection<Long> examResultIds);
+
+    @Modifying
+    @Query("DELETE FROM StudentAnswer a WHERE a.examResult.id IN :resultIds")
+    int deleteByExamResultIdIn(@Param("resultIds") Collection<Long> resultIds);
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.examsystem.repository;
+
+import com.examsystem.model.SubmissionStatus;
+import com.examsystem.model.SubmissionTicket;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SubmissionTicketRepository extends JpaRepository<SubmissionTicket, Long> {
+    Optional<SubmissionTicket> findByIdAndStudentId(Long id, Long studentId);
+
+    // Locked in id order until the grading transaction ends, so a ticket queued twice is graded once
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<SubmissionTicket> findByIdInOrderById(Collection<Long> ids);
+
+    boolean existsByExamIdAndStudentIdAndStatusIn(Long examId, Long studentId, Collection<SubmissionStatus> statuses);
+
+    // QUEUED tickets to queue again: unclaimed ones created before queuedBefore, the owner's own claims and stale claims
+    @Query("SELECT t.id FROM SubmissionTicket t WHERE t.status = :status AND ((t.owner IS NULL AND t.createdAt < :queuedBefore) "
+            + "OR t.owner = :owner OR t.claimedAt < :staleBefore) ORDER BY t.id")
+    List<Long> findIdsToRecover(@Param("status") SubmissionStatus status,
+                                @Param("owner") String owner,
+                                @Param("queuedBefore") LocalDateTime queuedBefore,
+                                @Param("staleBefore") LocalDateTime staleBefore);
+
+    // Takes unclaimed tickets, the owner's own and stale claims. A row claimed by a running transaction
+    // is waited for and then re-checked, so each ticket has a single owner at a time.
+    @Modifying
+    @Query("UPDATE SubmissionTicket t SET t.owner = :owner, t.claimedAt = :now WHERE t.id IN :ids AND t.status = :status "
+            + "AND (t.owner IS NULL OR t.owner = :owner OR t.claimedAt < :staleBefore)")
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("status") SubmissionStatus status,
+              @Param("owner") String owner,
+              @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Query("SELECT t.id FROM SubmissionTicket t WHERE t.id IN :ids AND t.status = :status AND t.owner = :owner ORDER BY t.id")
+    List<Long> findIdsByIdInAndStatusAndOwner(@Param("ids") Collection<Long> ids,
+                                              @Param("status") SubmissionStatus status,
+                                              @Param("owner") String owner);
+}
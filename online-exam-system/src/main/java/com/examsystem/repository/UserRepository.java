@@ -3,7 +3,10 @@ package com.examsystem.repository;
 
 import com.examsystem.model.Role;
 import com.examsystem.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,4 +20,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
     long countByRole(Role role);
     List<User> findByRole(Role role);
-}
\ No newline at end of file
+
+    // Rows of [role, count]
+    @Query("SELECT u.role, COUNT(u) FROM User u GROUP BY u.role")
+    List<Object[]> countGroupedByRole();
+
+    // Rows of [id, username, email] in id order after afterId, for rebuilding UserIdentifierIndex
+    @Query("SELECT u.id, u.username, u.email FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Object[]> findIdentifiersAfter(@Param("afterId") Long afterId, Limit limit);
+
+    // Keyset page in id order, starting after afterId (null for the first page)
+    @Query("SELECT u FROM User u WHERE (:role IS NULL OR u.role = :role) "
+            + "AND (:enabled IS NULL OR u.enabled = :enabled) "
+            + "AND (:afterId IS NULL OR u.id > :afterId) ORDER BY u.id")
+    List<User> findPage(@Param("role") Role role,
+                        @Param("enabled") Boolean enabled,
+                        @Param("afterId") Long afterId,
+                        Limit limit);
+}
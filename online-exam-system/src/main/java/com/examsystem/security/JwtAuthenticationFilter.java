@@ -1,7 +1,6 @@
 package com.examsystem.security;
 
 import com.examsystem.service.JwtService;
-import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,7 +18,6 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -56,7 +54,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String jwt = authHeader.substring(7);
 
         try {
-            String username = jwtService.extractUsername(jwt);
+            // Signature and expiry are checked here, once; everything below reads the verified claims
+            JwtService.VerifiedToken token = jwtService.verify(jwt);
+            String username = token.username();
             System.out.println("Extracted username: " + username);
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
@@ -64,11 +64,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 System.out.println("UserDetails loaded: " + userDetails.getUsername());
                 System.out.println("UserDetails authorities: " + userDetails.getAuthorities());
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (username.equals(userDetails.getUsername()) && !token.isExpired()) {
                     System.out.println("Token is valid");
 
                     // FIXED: Extract authorities from token
-                    List<GrantedAuthority> authorities = extractAuthoritiesFromToken(jwt);
+                    List<GrantedAuthority> authorities = extractAuthoritiesFromToken(token, userDetails);
                     System.out.println("Authorities from token: " + authorities);
 
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
@@ -92,28 +92,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
     // NEW METHOD: Extract authorities from token
-    private List<GrantedAuthority> extractAuthoritiesFromToken(String token) {
-        try {
-            Claims claims = jwtService.extractAllClaims(token);
-            List<String> authorities = claims.get("authorities", List.class);
-
-            if (authorities != null) {
-                return authorities.stream()
-                        .map(SimpleGrantedAuthority::new)
-                        .collect(Collectors.toList());
-            }
-        } catch (Exception e) {
-            System.out.println("Could not extract authorities from token: " + e.getMessage());
+    private List<GrantedAuthority> extractAuthoritiesFromToken(JwtService.VerifiedToken token, UserDetails userDetails) {
+        if (token.authorities() != null) {
+            return token.authorities().stream()
+                    .map(SimpleGrantedAuthority::new)
+                    .collect(Collectors.toList());
         }
 
-        // Fallback: Load from database
-        try {
-            String username = jwtService.extractUsername(token);
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            return new ArrayList<>(userDetails.getAuthorities());
-        } catch (Exception e) {
-            return Collections.emptyList();
-        }
+        // Fallback: the user already loaded for this request
+        return new ArrayList<>(userDetails.getAuthorities());
     }
 
     private boolean shouldSkipAuthentication(String requestURI) {
@@ -0,0 +1,175 @@
+package com.examsystem.service;
+
+import com.examsystem.dto.AdminStats;
+import com.examsystem.dto.AdminStats.DailySubmissions;
+import com.examsystem.model.ExamResult;
+import com.examsystem.model.ExamStatus;
+import com.examsystem.model.ResultStatus;
+import com.examsystem.model.Role;
+import com.examsystem.repository.ExamRepository;
+import com.examsystem.repository.ExamResultRepository;
+import com.examsystem.repository.ExamStatsRepository;
+import com.examsystem.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Precomputed admin statistics. A snapshot is rebuilt from a handful of
+ * GROUP BY queries on a schedule; between rebuilds, committed results are
+ * added to it directly, so submission figures are current. Reads return the
+ * snapshot as is, unless it is older than the staleness bound (a stalled
+ * scheduler), in which case the reader rebuilds it first.
+ *
+ * <p>Rebuilds run their queries without blocking recorded results; results
+ * recorded meanwhile are applied to the rebuilt snapshot before it replaces
+ * the current one. One that commits just before a query it shows up in is
+ * then counted twice, until the next rebuild.
+ */
+@Service
+@RequiredArgsConstructor
+public class AdminStatsService {
+
+    private final UserRepository userRepository;
+    private final ExamRepository examRepository;
+    private final ExamResultRepository examResultRepository;
+    private final ExamStatsRepository examStatsRepository;
+
+    @Value("${app.admin-stats.max-staleness-ms:60000}")
+    private long maxStalenessMs;
+
+    @Value("${app.admin-stats.days:30}")
+    private int days;
+
+    private volatile AdminStats snapshot;
+
+    // Serializes rebuilds; recorded results only take snapshotLock
+    private final Object rebuildLock = new Object();
+    private final Object snapshotLock = new Object();
+
+    // Results recorded since the running rebuild started, null when none runs; guarded by snapshotLock
+    private List<ExamResult> recordedDuringRebuild;
+
+    public AdminStats getStats() {
+        AdminStats current = snapshot;
+        if (current == null || current.computedAt().isBefore(LocalDateTime.now().minus(Duration.ofMillis(maxStalenessMs)))) {
+            return refresh();
+        }
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${app.admin-stats.refresh-interval-ms:30000}")
+    public AdminStats refresh() {
+        synchronized (rebuildLock) {
+            synchronized (snapshotLock) {
+                recordedDuringRebuild = new ArrayList<>();
+            }
+            AdminStats built = null;
+            try {
+                built = build();
+            } finally {
+                synchronized (snapshotLock) {
+                    if (built != null) {
+                        built = withResults(built, recordedDuringRebuild);
+                        snapshot = built;
+                    }
+                    recordedDuringRebuild = null;
+                }
+            }
+            return built;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResultsRecorded(ExamResultsRecordedEvent event) {
+        synchronized (snapshotLock) {
+            if (recordedDuringRebuild != null) {
+                recordedDuringRebuild.addAll(event.results());
+            }
+            AdminStats current = snapshot;
+            if (current != null) {
+                snapshot = withResults(current, event.results());
+            }
+        }
+    }
+
+    private AdminStats build() {
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<Role, Long> usersByRole = new EnumMap<>(Role.class);
+        for (Role role : Role.values()) {
+            usersByRole.put(role, 0L);
+        }
+        for (Object[] row : userRepository.countGroupedByRole()) {
+            usersByRole.put((Role) row[0], (Long) row[1]);
+        }
+
+        Map<ExamStatus, Long> examsByStatus = new EnumMap<>(ExamStatus.class);
+        for (ExamStatus status : ExamStatus.values()) {
+            examsByStatus.put(status, 0L);
+        }
+        for (Object[] row : examRepository.countGroupedByStatus()) {
+            examsByStatus.put((ExamStatus) row[0], (Long) row[1]);
+        }
+
+        // Attempts and passes come from the per-exam aggregates, one row per exam
+        Object[] totals = examStatsRepository.sumTotals().get(0);
+        long submissions = ((Number) totals[0]).longValue();
+        long passed = ((Number) totals[1]).longValue();
+        double percentageSum = ((Number) totals[2]).doubleValue();
+
+        List<DailySubmissions> perDay = new ArrayList<>();
+        LocalDate firstDay = now.toLocalDate().minusDays(days - 1);
+        for (Object[] row : examResultRepository.countPerDaySince(firstDay.atStartOfDay(), ResultStatus.PASSED,
+                ResultStatus.IN_PROGRESS)) {
+            perDay.add(new DailySubmissions((LocalDate) row[0], ((Number) row[1]).longValue(),
+                    ((Number) row[2]).longValue()));
+        }
+
+        long totalUsers = usersByRole.values().stream().mapToLong(Long::longValue).sum();
+        long totalExams = examsByStatus.values().stream().mapToLong(Long::longValue).sum();
+        return new AdminStats(totalUsers, usersByRole.get(Role.STUDENT), usersByRole.get(Role.TEACHER),
+                usersByRole.get(Role.ADMIN), Collections.unmodifiableMap(usersByRole), totalExams,
+                examsByStatus.get(ExamStatus.COMPLETED), Collections.unmodifiableMap(examsByStatus),
+                submissions, passed, submissions > 0 ? passed * 100.0 / submissions : 0.0,
+                submissions > 0 ? percentageSum / submissions : 0.0, List.copyOf(perDay), now, maxStalenessMs / 1000);
+    }
+
+    // The snapshot with the given results added to its submission figures
+    private AdminStats withResults(AdminStats current, List<ExamResult> results) {
+        if (results.isEmpty()) {
+            return current;
+        }
+
+        long submissions = current.totalSubmissions();
+        long passed = current.passedSubmissions();
+        double percentageSum = current.averageScore() * submissions;
+        Map<LocalDate, DailySubmissions> perDay = new TreeMap<>();
+        current.submissionsPerDay().forEach(day -> perDay.put(day.date(), day));
+
+        for (ExamResult result : results) {
+            boolean pass = result.getStatus() == ResultStatus.PASSED;
+            submissions++;
+            passed += pass ? 1 : 0;
+            percentageSum += result.getPercentage() != null ? result.getPercentage() : 0.0;
+
+            LocalDate date = (result.getSubmittedAt() != null ? result.getSubmittedAt() : LocalDateTime.now()).toLocalDate();
+            DailySubmissions day = perDay.getOrDefault(date, new DailySubmissions(date, 0, 0));
+            perDay.put(date, new DailySubmissions(date, day.submissions() + 1, day.passed() + (pass ? 1 : 0)));
+        }
+
+        // Keep the window at the configured number of days
+        LocalDate firstDay = LocalDate.now().minusDays(days - 1);
+        perDay.keySet().removeIf(date -> date.isBefore(firstDay));
+
+        return current.withSubmissions(submissions, passed, percentageSum / submissions,
+                List.copyOf(perDay.values()));
+    }
+}
@@ -0,0 +1,54 @@
+package com.examsystem.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Hot/cold split of student answers. Answers of COMPLETED exams are rarely
+ * read again, so they are periodically moved out of student_answers into
+ * compressed per-result blobs (see {@link AnswerArchiver}). Result review
+ * reads them back transparently through ExamService.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnswerArchiveService {
+
+    private final AnswerArchiver answerArchiver;
+
+    @Value("${app.answers.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.answers.archive.results-per-chunk:200}")
+    private int resultsPerChunk;
+
+    @Value("${app.answers.archive.max-chunks-per-run:50}")
+    private int maxChunksPerRun;
+
+    @Scheduled(fixedDelayString = "${app.answers.archive.interval-ms:3600000}",
+            initialDelayString = "${app.answers.archive.initial-delay-ms:60000}")
+    public void archiveCompletedExams() {
+        if (!enabled) {
+            return;
+        }
+
+        int archived = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            int count;
+            try {
+                count = answerArchiver.archiveChunk(resultsPerChunk);
+            } catch (RuntimeException e) {
+                System.out.println("❌ Answer archival failed, retrying next run: " + e.getMessage());
+                break;
+            }
+            archived += count;
+            if (count < resultsPerChunk) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            System.out.println("🧊 Archived answers of " + archived + " results of completed exams");
+        }
+    }
+}
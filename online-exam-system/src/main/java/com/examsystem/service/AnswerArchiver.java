@@ -0,0 +1,106 @@
+package com.examsystem.service;
+
+import com.examsystem.model.*;
+import com.examsystem.repository.ArchivedAnswersRepository;
+import com.examsystem.repository.ExamResultRepository;
+import com.examsystem.repository.QuestionRepository;
+import com.examsystem.repository.StudentAnswerRepository;
+import com.examsystem.util.AnswerArchiveCodec;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves answers of completed exams from student_answers into one compressed
+ * archived_answers row per result, and reads them back for result review.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnswerArchiver {
+
+    private final ExamResultRepository examResultRepository;
+    private final StudentAnswerRepository studentAnswerRepository;
+    private final ArchivedAnswersRepository archivedAnswersRepository;
+    private final QuestionRepository questionRepository;
+    private final EntityManager entityManager;
+
+    /**
+     * Archives up to {@code limit} results in one transaction: their answers
+     * are packed and stored, then deleted from the hot table with one bulk
+     * DELETE. Returns the number of results archived (0 when none are left).
+     */
+    @Transactional
+    public int archiveChunk(int limit) {
+        List<ExamResult> results = examResultRepository.findToArchive(ExamStatus.COMPLETED, ResultStatus.IN_PROGRESS,
+                Limit.of(limit));
+        if (results.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> resultIds = results.stream().map(ExamResult::getId).toList();
+        Map<Long, List<StudentAnswer>> answersByResult = studentAnswerRepository.findByExamResultIdIn(resultIds).stream()
+                .sorted(Comparator.comparing(StudentAnswer::getId))
+                .collect(Collectors.groupingBy(answer -> answer.getExamResult().getId()));
+
+        LocalDateTime now = LocalDateTime.now();
+        for (ExamResult result : results) {
+            List<StudentAnswer> answers = answersByResult.getOrDefault(result.getId(), List.of());
+            entityManager.persist(ArchivedAnswers.builder()
+                    .resultId(result.getId())
+                    .examId(result.getExam().getId())
+                    .answerCount(answers.size())
+                    .payload(AnswerArchiveCodec.encode(answers))
+                    .archivedAt(now)
+                    .build());
+            result.setAnswersArchived(true);
+        }
+
+        studentAnswerRepository.deleteByExamResultIdIn(resultIds);
+        return results.size();
+    }
+
+    /**
+     * Fills in the answers of archived results from the cold store. Such
+     * results are detached first, so the rebuilt answers are never written
+     * back to student_answers.
+     */
+    @Transactional(readOnly = true)
+    public void restoreAnswers(Collection<ExamResult> results) {
+        Map<Long, ExamResult> archived = results.stream()
+                .filter(result -> Boolean.TRUE.equals(result.getAnswersArchived()))
+                .collect(Collectors.toMap(ExamResult::getId, Function.identity()));
+        if (archived.isEmpty()) {
+            return;
+        }
+
+        List<ArchivedAnswers> rows = archivedAnswersRepository.findAllById(archived.keySet());
+        Map<Long, List<StudentAnswer>> decoded = new HashMap<>();
+        Set<Long> questionIds = new HashSet<>();
+        for (ArchivedAnswers row : rows) {
+            // Questions are resolved in one query below, placeholders until then
+            List<StudentAnswer> answers = AnswerArchiveCodec.decode(row.getPayload(),
+                    id -> Question.builder().id(id).build());
+            answers.forEach(answer -> questionIds.add(answer.getQuestion().getId()));
+            decoded.put(row.getResultId(), answers);
+        }
+
+        Map<Long, Question> questions = questionRepository.findAllById(questionIds).stream()
+                .collect(Collectors.toMap(Question::getId, Function.identity()));
+        archived.forEach((resultId, result) -> {
+            List<StudentAnswer> answers = decoded.getOrDefault(resultId, List.of());
+            answers.forEach(answer -> {
+                answer.setQuestion(questions.get(answer.getQuestion().getId()));
+                answer.setExamResult(result);
+            });
+            entityManager.detach(result);
+            result.setAnswers(new ArrayList<>(answers));
+        });
+    }
+}
@@ -0,0 +1,205 @@
+package com.examsystem.service;
+
+import com.examsystem.model.Exam;
+import com.examsystem.model.Question;
+import com.examsystem.model.QuestionType;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable, precompiled grading key for one version of an exam.
+ * Correct answers and option texts are normalized once when the key is built,
+ * so grading a submission is a single pass of map lookups and region compares.
+ */
+public final class AnswerKey {
+
+    private final Long examId;
+    private final LocalDateTime version;
+    private final int totalMarks;
+    private final int passingMarks;
+    private final Map<Long, Matcher> matchers;
+
+    private AnswerKey(Exam exam, Map<Long, Matcher> matchers) {
+        this.examId = exam.getId();
+        this.version = exam.getUpdatedAt();
+        this.totalMarks = exam.getTotalMarks() != null ? exam.getTotalMarks() : 0;
+        this.passingMarks = exam.getPassingMarks() != null ? exam.getPassingMarks() : 0;
+        this.matchers = Collections.unmodifiableMap(matchers);
+    }
+
+    public static AnswerKey compile(Exam exam) {
+        Map<Long, Matcher> matchers = new HashMap<>();
+        for (Question question : exam.getQuestions()) {
+            matchers.put(question.getId(), new Matcher(question));
+        }
+        return new AnswerKey(exam, matchers);
+    }
+
+    public Long getExamId() {
+        return examId;
+    }
+
+    public int getTotalMarks() {
+        return totalMarks;
+    }
+
+    public int getPassingMarks() {
+        return passingMarks;
+    }
+
+    public int size() {
+        return matchers.size();
+    }
+
+    public boolean isVersion(LocalDateTime updatedAt) {
+        return Objects.equals(version, updatedAt);
+    }
+
+    public Matcher matcherFor(Long questionId) {
+        return matchers.get(questionId);
+    }
+
+    /**
+     * Pre-normalized matcher for a single question. Mirrors the rules the
+     * grading code has always applied: answers are compared trimmed and
+     * case-insensitively, MCQ answers may be an option number (1-4) or the
+     * option text, and TRUE_FALSE also accepts t/f and 1/0.
+     */
+    public static final class Matcher {
+
+        private static final int NOT_NUMERIC = -1;
+
+        private final Long questionId;
+        private final int points;
+        private final QuestionType type;
+        private final String correct;
+        private final int correctOptionMask;
+        private final boolean correctIsTrue;
+        private final boolean correctIsFalse;
+
+        private Matcher(Question question) {
+            this.questionId = question.getId();
+            this.points = question.getPoints() != null ? question.getPoints() : 0;
+            this.type = question.getType();
+
+            String correctAnswer = question.getCorrectAnswer();
+            this.correct = correctAnswer == null || correctAnswer.trim().isEmpty() ? null : correctAnswer.trim();
+
+            int mask = 0;
+            if (correct != null && type == QuestionType.MULTIPLE_CHOICE) {
+                String[] options = {question.getOption1(), question.getOption2(),
+                        question.getOption3(), question.getOption4()};
+                for (int i = 0; i < options.length; i++) {
+                    if (options[i] != null && options[i].trim().equalsIgnoreCase(correct)) {
+                        mask |= 1 << (i + 1);
+                    }
+                }
+            }
+            this.correctOptionMask = mask;
+            this.correctIsTrue = "true".equalsIgnoreCase(correct);
+            this.correctIsFalse = "false".equalsIgnoreCase(correct);
+        }
+
+        public Long getQuestionId() {
+            return questionId;
+        }
+
+        public int getPoints() {
+            return points;
+        }
+
+        public boolean matches(String studentAnswer) {
+            if (studentAnswer == null || correct == null || type == null) {
+                return false;
+            }
+
+            int start = 0;
+            int end = studentAnswer.length();
+            while (start < end && studentAnswer.charAt(start) <= ' ') {
+                start++;
+            }
+            while (end > start && studentAnswer.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            if (start == end) {
+                return false;
+            }
+
+            switch (type) {
+                case MULTIPLE_CHOICE:
+                    int optionIndex = parseOptionIndex(studentAnswer, start, end);
+                    if (optionIndex != NOT_NUMERIC) {
+                        return (correctOptionMask & (1 << optionIndex)) != 0;
+                    }
+                    return equalsCorrect(studentAnswer, start, end);
+
+                case TRUE_FALSE:
+                    int length = end - start;
+                    if (regionEquals(studentAnswer, start, end, "true")
+                            || regionEquals(studentAnswer, start, end, "false")) {
+                        return equalsCorrect(studentAnswer, start, end);
+                    }
+                    if (length != 1) {
+                        return false;
+                    }
+                    char c = studentAnswer.charAt(start);
+                    if (c == 't' || c == 'T' || c == '1') {
+                        return correctIsTrue;
+                    }
+                    if (c == 'f' || c == 'F' || c == '0') {
+                        return correctIsFalse;
+                    }
+                    return false;
+
+                case SHORT_ANSWER:
+                    return equalsCorrect(studentAnswer, start, end);
+
+                default:
+                    return false;
+            }
+        }
+
+        private boolean equalsCorrect(String value, int start, int end) {
+            return regionEquals(value, start, end, correct);
+        }
+
+        private static boolean regionEquals(String value, int start, int end, String expected) {
+            return end - start == expected.length()
+                    && value.regionMatches(true, start, expected, 0, expected.length());
+        }
+
+        // Accepts what Integer.parseInt accepts, without allocating. Any valid
+        // number outside 1-4 is reported as 0 since only the option index matters.
+        private static int parseOptionIndex(String value, int start, int end) {
+            int i = start;
+            boolean negative = false;
+            char first = value.charAt(i);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                i++;
+                if (i == end) {
+                    return NOT_NUMERIC;
+                }
+            }
+            long result = 0;
+            for (; i < end; i++) {
+                int digit = Character.digit(value.charAt(i), 10);
+                if (digit < 0) {
+                    return NOT_NUMERIC;
+                }
+                result = result * 10 + digit;
+                if (result > (long) Integer.MAX_VALUE + 1) {
+                    return NOT_NUMERIC;
+                }
+            }
+            if (!negative && result > Integer.MAX_VALUE) {
+                return NOT_NUMERIC;
+            }
+            return !negative && result >= 1 && result <= 4 ? (int) result : 0;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.examsystem.service;
+
+import com.examsystem.model.Exam;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Holds one compiled {@link AnswerKey} per exam in a bounded cache. Keys are
+ * compiled on first use and rebuilt whenever the exam's updatedAt no longer
+ * matches; a changed exam's key is dropped once the change has committed.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnswerKeyCache {
+
+    private final ObjectProvider<CacheMetrics> cacheMetrics;
+
+    @Value("${app.cache.answer-keys.max-size:1000}")
+    private long maxSize;
+
+    private Cache<Long, AnswerKey> keys;
+
+    @PostConstruct
+    void init() {
+        keys = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        cacheMetrics.ifAvailable(metrics -> metrics.register("answer-keys", keys));
+    }
+
+    public AnswerKey forExam(Exam exam) {
+        AnswerKey key = keys.getIfPresent(exam.getId());
+        if (key != null && key.isVersion(exam.getUpdatedAt())) {
+            return key;
+        }
+        // Checked again under the entry's lock, so concurrent first submissions compile once
+        return keys.asMap().compute(exam.getId(), (examId, current) ->
+                current != null && current.isVersion(exam.getUpdatedAt()) ? current : compile(exam));
+    }
+
+    /**
+     * Returns the compiled key without checking it against the exam version, or
+     * null if none is cached. Only for callers that have no Exam loaded.
+     */
+    public AnswerKey get(Long examId) {
+        return keys.getIfPresent(examId);
+    }
+
+    // After commit, so a rolled-back change never leaves its key behind
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        keys.invalidate(event.examId());
+    }
+
+    private static AnswerKey compile(Exam exam) {
+        AnswerKey key = AnswerKey.compile(exam);
+        System.out.println("🔑 Compiled answer key for exam " + exam.getId() + " (" + key.size() + " questions)");
+        return key;
+    }
+}
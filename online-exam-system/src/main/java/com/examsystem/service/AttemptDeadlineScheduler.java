@@ -0,0 +1,59 @@
+package com.examsystem.service;
+
+import com.examsystem.util.HierarchicalTimingWheel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory deadlines of running attempts. With 1 second ticks and 64 slots
+ * over 4 levels the wheel spans about 194 days, far beyond any exam.
+ */
+@Component
+public class AttemptDeadlineScheduler {
+
+    private static final int SLOT_BITS = 6;
+    private static final int LEVELS = 4;
+
+    private final HierarchicalTimingWheel<Long> wheel;
+    private final Map<Long, HierarchicalTimingWheel.Timeout<Long>> timeouts = new ConcurrentHashMap<>();
+
+    public AttemptDeadlineScheduler(@Value("${app.attempt.deadline.tick-ms:1000}") long tickMillis) {
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, SLOT_BITS, LEVELS, System.currentTimeMillis());
+    }
+
+    public void schedule(Long attemptId, LocalDateTime deadlineAt) {
+        long deadlineMillis = deadlineAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        HierarchicalTimingWheel.Timeout<Long> previous = timeouts.put(attemptId, wheel.schedule(deadlineMillis, attemptId));
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    public void cancel(Long attemptId) {
+        HierarchicalTimingWheel.Timeout<Long> timeout = timeouts.remove(attemptId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Advances the wheel to now and returns the attempts whose deadline passed.
+     */
+    public List<Long> pollExpired() {
+        List<Long> expired = wheel.advance(System.currentTimeMillis());
+        // Leave entries alone that were rescheduled in the meantime
+        expired.forEach(attemptId -> timeouts.computeIfPresent(attemptId,
+                (id, timeout) -> timeout.isPending() ? timeout : null));
+        return expired;
+    }
+
+    public int size() {
+        return wheel.size();
+    }
+}
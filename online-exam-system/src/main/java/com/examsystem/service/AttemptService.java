@@ -0,0 +1,469 @@
+package com.examsystem.service;
+
+import com.examsystem.config.NodeIdentity;
+import com.examsystem.dto.exam.AnswerRequest;
+import com.examsystem.dto.exam.TakeExamRequest;
+import com.examsystem.model.ExamResult;
+import com.examsystem.model.ResultStatus;
+import com.examsystem.model.StudentAnswer;
+import com.examsystem.model.User;
+import com.examsystem.repository.ExamResultRepository;
+import com.examsystem.repository.StudentAnswerRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Server-side exam attempts. Starting an attempt stores an IN_PROGRESS result;
+ * autosaved answer changes only touch an in-memory buffer per attempt and are
+ * written by a periodic flush, so repeated edits of the same question between
+ * flushes cost one row write. Submitting grades the answers already stored.
+ * Attempts still running at their deadline are graded and closed as EXPIRED.
+ *
+ * <p>Each attempt is held by the node that started it (its owner). Closing or
+ * writing to an attempt locks its row first, so a submit that reaches another
+ * node, or a sweep of attempts whose owner is gone, never grades it twice.
+ */
+@Service
+@RequiredArgsConstructor
+public class AttemptService {
+
+    // Matches the student_answers.answer column
+    private static final int MAX_ANSWER_LENGTH = 1000;
+
+    private static final int EXPIRY_RETRY_SECONDS = 30;
+
+    private static final int ORPHAN_BATCH_SIZE = 500;
+
+    private final ExamService examService;
+    private final AnswerKeyCache answerKeyCache;
+    private final ExamResultRepository examResultRepository;
+    private final StudentAnswerRepository studentAnswerRepository;
+    private final AttemptDeadlineScheduler deadlineScheduler;
+    private final NodeIdentity nodeIdentity;
+
+    @Value("${app.attempt.orphan-grace-seconds:300}")
+    private long orphanGraceSeconds;
+
+    private final Map<Long, ActiveAttempt> attempts = new ConcurrentHashMap<>();
+    private final Map<String, Long> attemptIdsByExamAndStudent = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyAttempts = ConcurrentHashMap.newKeySet();
+
+    // Submits hold the read side, the flush holds the write side, so an attempt
+    // is never graded while its answers sit in a flush that has not committed
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    public ActiveAttempt startAttempt(Long examId, User student) {
+        Long existingId = activeAttemptId(examId, student.getId());
+        if (existingId != null) {
+            return attempts.get(existingId);
+        }
+
+        ExamResult attempt;
+        try {
+            attempt = examService.startAttempt(examId, student, nodeIdentity.id());
+        } catch (DataIntegrityViolationException e) {
+            attempt = examService.findSubmittedResult(examId, student)
+                    .filter(existing -> existing.getStatus() == ResultStatus.IN_PROGRESS)
+                    .orElseThrow(() -> new RuntimeException("You have already taken this exam"));
+        }
+        return register(attempt.getId(), examId, student.getId(), attempt.getStartedAt(), attempt.getDeadlineAt());
+    }
+
+    public Long activeAttemptId(Long examId, Long studentId) {
+        return attemptIdsByExamAndStudent.get(examId + ":" + studentId);
+    }
+
+    /**
+     * Stored answers overlaid with the ones still waiting for a flush, keyed by
+     * question id. Used to restore an attempt after a reload or crash.
+     */
+    public Map<Long, String> getAnswers(ActiveAttempt attempt) {
+        Map<Long, String> answers = new LinkedHashMap<>();
+        for (StudentAnswer answer : studentAnswerRepository.findByExamResultId(attempt.getId())) {
+            answers.put(answer.getQuestion().getId(), answer.getAnswer());
+        }
+        synchronized (attempt) {
+            answers.putAll(attempt.pendingAnswers);
+        }
+        return answers;
+    }
+
+    /**
+     * Buffers answer changes for a running attempt. Nothing is written here;
+     * returns the number of answers now waiting for the next flush. Changes
+     * to an attempt held by another node are written straight away instead.
+     */
+    public int saveAnswers(Long attemptId, List<AnswerRequest> changes, User student) {
+        ActiveAttempt attempt = attempts.get(attemptId);
+        if (attempt == null || !attempt.getStudentId().equals(student.getId())) {
+            saveUnregistered(attemptId, changes, student);
+            return 0;
+        }
+
+        validate(attempt.getExamId(), changes);
+
+        if (isOverdue(attempt.getDeadlineAt())) {
+            throw new RuntimeException("Time is up for this attempt");
+        }
+
+        int pending;
+        synchronized (attempt) {
+            if (attempt.closed) {
+                throw new RuntimeException("Attempt not found or already submitted");
+            }
+            for (AnswerRequest change : changes) {
+                attempt.pendingAnswers.put(change.getQuestionId(), change.getAnswer() != null ? change.getAnswer() : "");
+            }
+            pending = attempt.pendingAnswers.size();
+        }
+        dirtyAttempts.add(attemptId);
+        return pending;
+    }
+
+    /**
+     * Submits a running attempt. Answers in the request are applied on top of
+     * what was autosaved. Submitting an attempt that already finished returns
+     * its result, so retries are harmless. An attempt held by another node is
+     * graded here from its stored answers and the ones in the request.
+     */
+    public ExamResult submitAttempt(Long attemptId, TakeExamRequest request, User student, String idempotencyKey) {
+        ActiveAttempt attempt = attempts.get(attemptId);
+        if (attempt == null || !attempt.getStudentId().equals(student.getId())) {
+            return submitUnregistered(attemptId, request, student, idempotencyKey);
+        }
+
+        // Answers sent after the deadline are not counted; the attempt is closed as EXPIRED
+        if (request != null && request.getAnswers() != null && !request.getAnswers().isEmpty()
+                && !isOverdue(attempt.getDeadlineAt())) {
+            saveAnswers(attemptId, request.getAnswers(), student);
+        }
+
+        Map<Long, String> pendingAnswers;
+        synchronized (attempt) {
+            if (attempt.closed) {
+                return finishedResult(attemptId, student);
+            }
+            attempt.closed = true;
+            pendingAnswers = new HashMap<>(attempt.pendingAnswers);
+            attempt.pendingAnswers.clear();
+        }
+
+        flushLock.readLock().lock();
+        try {
+            ExamResult result = examService.completeAttempt(attemptId, pendingAnswers,
+                    request != null ? request.getTimeTaken() : null, idempotencyKey);
+            unregister(attempt);
+            return result;
+        } catch (RuntimeException e) {
+            reopen(attempt, pendingAnswers);
+            throw e;
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.attempt.autosave.flush-interval-ms:2000}")
+    public void flush() {
+        if (dirtyAttempts.isEmpty()) {
+            return;
+        }
+
+        flushLock.writeLock().lock();
+        try {
+            Map<Long, Map<Long, String>> changes = drainDirtyAttempts();
+            if (changes.isEmpty()) {
+                return;
+            }
+
+            try {
+                int written = examService.writeAttemptAnswers(changes);
+                System.out.println("💾 Autosave flushed " + written + " answers for " + changes.size() + " attempts");
+            } catch (Exception e) {
+                System.out.println("❌ Autosave flush failed, keeping answers buffered: " + e.getMessage());
+                restore(changes);
+            }
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Closes every attempt whose deadline fired since the last tick. Attempts
+     * expiring in the same tick are graded and written in one transaction.
+     */
+    @Scheduled(fixedDelayString = "${app.attempt.deadline.poll-interval-ms:1000}")
+    public void expireOverdueAttempts() {
+        List<Long> overdue = deadlineScheduler.pollExpired();
+        if (overdue.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Map<Long, String>> pendingAnswers = new HashMap<>();
+        List<ActiveAttempt> closing = new ArrayList<>();
+        for (Long attemptId : overdue) {
+            ActiveAttempt attempt = attempts.get(attemptId);
+            if (attempt == null) {
+                continue;
+            }
+            synchronized (attempt) {
+                if (attempt.closed) {
+                    continue;
+                }
+                attempt.closed = true;
+                pendingAnswers.put(attemptId, new HashMap<>(attempt.pendingAnswers));
+                attempt.pendingAnswers.clear();
+            }
+            closing.add(attempt);
+        }
+        if (closing.isEmpty()) {
+            return;
+        }
+
+        flushLock.readLock().lock();
+        try {
+            int expired = examService.expireAttempts(pendingAnswers);
+            closing.forEach(this::unregister);
+            System.out.println("⏰ Expired " + expired + " overdue attempts");
+        } catch (RuntimeException batchError) {
+            // One broken attempt must not keep the others open: retry one by one
+            System.out.println("⚠️ Expiring " + closing.size() + " attempts failed, retrying individually: " + batchError.getMessage());
+            for (ActiveAttempt attempt : closing) {
+                Map<Long, String> answers = pendingAnswers.get(attempt.getId());
+                try {
+                    examService.expireAttempts(Map.of(attempt.getId(), answers));
+                    unregister(attempt);
+                } catch (RuntimeException e) {
+                    System.out.println("❌ Could not expire attempt " + attempt.getId() + ": " + e.getMessage());
+                    reopen(attempt, answers);
+                    deadlineScheduler.schedule(attempt.getId(), LocalDateTime.now().plusSeconds(EXPIRY_RETRY_SECONDS));
+                }
+            }
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Closes attempts still running well past their deadline, which no node's
+     * deadline wheel holds any more, e.g. because their owner was shut down
+     * for good. Answers buffered on a lost node are gone; stored ones are graded.
+     */
+    @Scheduled(fixedDelayString = "${app.attempt.orphan-sweep-interval-ms:60000}")
+    public void expireOrphanedAttempts() {
+        List<Long> orphaned = examResultRepository.findIdsByStatusAndDeadlineAtBefore(ResultStatus.IN_PROGRESS,
+                LocalDateTime.now().minusSeconds(orphanGraceSeconds), Limit.of(ORPHAN_BATCH_SIZE));
+        if (orphaned.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Map<Long, String>> noAnswers = new HashMap<>();
+        orphaned.forEach(attemptId -> noAnswers.put(attemptId, Map.of()));
+        try {
+            int expired = examService.expireAttempts(noAnswers);
+            System.out.println("⏰ Expired " + expired + " orphaned attempts");
+        } catch (RuntimeException e) {
+            System.out.println("❌ Could not expire orphaned attempts: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Re-registers this node's running attempts and their deadlines after a
+     * restart. Deadlines that passed while the application was down fire on
+     * the first tick.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ExamResult> inProgress = examResultRepository.findByStatusAndOwnerWithExam(ResultStatus.IN_PROGRESS,
+                nodeIdentity.id());
+        for (ExamResult attempt : inProgress) {
+            LocalDateTime deadlineAt = attempt.getDeadlineAt() != null
+                    ? attempt.getDeadlineAt()
+                    : attempt.getExam().attemptDeadline(attempt.getStartedAt());
+            register(attempt.getId(), attempt.getExam().getId(), attempt.getStudent().getId(),
+                    attempt.getStartedAt(), deadlineAt);
+        }
+        if (!inProgress.isEmpty()) {
+            System.out.println("📥 Restored " + inProgress.size() + " in-progress attempts ("
+                    + deadlineScheduler.size() + " deadlines)");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private Map<Long, Map<Long, String>> drainDirtyAttempts() {
+        Map<Long, Map<Long, String>> changes = new HashMap<>();
+        for (Iterator<Long> it = dirtyAttempts.iterator(); it.hasNext(); ) {
+            Long attemptId = it.next();
+            it.remove();
+
+            ActiveAttempt attempt = attempts.get(attemptId);
+            if (attempt == null) {
+                continue;
+            }
+            synchronized (attempt) {
+                if (!attempt.closed && !attempt.pendingAnswers.isEmpty()) {
+                    changes.put(attemptId, new HashMap<>(attempt.pendingAnswers));
+                    attempt.pendingAnswers.clear();
+                }
+            }
+        }
+        return changes;
+    }
+
+    private void restore(Map<Long, Map<Long, String>> changes) {
+        changes.forEach((attemptId, answers) -> {
+            ActiveAttempt attempt = attempts.get(attemptId);
+            if (attempt == null) {
+                return;
+            }
+            synchronized (attempt) {
+                // Anything typed since the drain is newer and wins
+                answers.forEach(attempt.pendingAnswers::putIfAbsent);
+            }
+            dirtyAttempts.add(attemptId);
+        });
+    }
+
+    // Puts an attempt back into service after a failed submit or expiry, keeping its answers
+    private void reopen(ActiveAttempt attempt, Map<Long, String> pendingAnswers) {
+        synchronized (attempt) {
+            pendingAnswers.forEach(attempt.pendingAnswers::putIfAbsent);
+            attempt.closed = false;
+        }
+        dirtyAttempts.add(attempt.getId());
+    }
+
+    // Answers for an attempt this node does not hold, written under the attempt's row lock
+    private void saveUnregistered(Long attemptId, List<AnswerRequest> changes, User student) {
+        ExamResult stored = examService.getExamResult(attemptId);
+        if (!stored.getStudent().getId().equals(student.getId()) || stored.getStatus() != ResultStatus.IN_PROGRESS) {
+            throw new RuntimeException("Attempt not found or already submitted");
+        }
+
+        validate(stored.getExam().getId(), changes);
+
+        if (isOverdue(stored.getDeadlineAt())) {
+            throw new RuntimeException("Time is up for this attempt");
+        }
+
+        Map<Long, String> answers = new HashMap<>();
+        for (AnswerRequest change : changes) {
+            answers.put(change.getQuestionId(), change.getAnswer() != null ? change.getAnswer() : "");
+        }
+        examService.writeRunningAttemptAnswers(attemptId, answers);
+    }
+
+    // A submit for an attempt this node does not hold, e.g. one started on another node
+    private ExamResult submitUnregistered(Long attemptId, TakeExamRequest request, User student, String idempotencyKey) {
+        ExamResult stored = examService.getExamResult(attemptId);
+        if (!stored.getStudent().getId().equals(student.getId())) {
+            throw new RuntimeException("Attempt not found or already submitted");
+        }
+        if (stored.getStatus() != ResultStatus.IN_PROGRESS) {
+            return stored;
+        }
+
+        Map<Long, String> answers = new HashMap<>();
+        if (request != null && request.getAnswers() != null && !isOverdue(stored.getDeadlineAt())) {
+            validate(stored.getExam().getId(), request.getAnswers());
+            for (AnswerRequest answer : request.getAnswers()) {
+                answers.put(answer.getQuestionId(), answer.getAnswer() != null ? answer.getAnswer() : "");
+            }
+        }
+        try {
+            return examService.completeAttempt(attemptId, answers,
+                    request != null ? request.getTimeTaken() : null, idempotencyKey);
+        } catch (RuntimeException e) {
+            // Closed by its owner in the meantime
+            return finishedResult(attemptId, student);
+        }
+    }
+
+    private ExamResult finishedResult(Long attemptId, User student) {
+        ExamResult result = examService.getExamResult(attemptId);
+        if (!result.getStudent().getId().equals(student.getId())) {
+            throw new RuntimeException("Attempt not found or already submitted");
+        }
+        if (result.getStatus() == ResultStatus.IN_PROGRESS) {
+            throw new RuntimeException("Your submission for this exam is already being processed");
+        }
+        return result;
+    }
+
+    private static boolean isOverdue(LocalDateTime deadlineAt) {
+        return deadlineAt != null && LocalDateTime.now().isAfter(deadlineAt);
+    }
+
+    private void validate(Long examId, List<AnswerRequest> changes) {
+        AnswerKey answerKey = answerKeyFor(examId);
+        for (AnswerRequest change : changes) {
+            if (answerKey.matcherFor(change.getQuestionId()) == null) {
+                throw new RuntimeException("Question not found: " + change.getQuestionId());
+            }
+            if (change.getAnswer() != null && change.getAnswer().length() > MAX_ANSWER_LENGTH) {
+                throw new RuntimeException("Answer is too long for question " + change.getQuestionId());
+            }
+        }
+    }
+
+    private AnswerKey answerKeyFor(Long examId) {
+        AnswerKey answerKey = answerKeyCache.get(examId);
+        return answerKey != null ? answerKey : answerKeyCache.forExam(examService.getExamById(examId));
+    }
+
+    private ActiveAttempt register(Long attemptId, Long examId, Long studentId,
+                                   LocalDateTime startedAt, LocalDateTime deadlineAt) {
+        ActiveAttempt attempt = attempts.computeIfAbsent(attemptId, id -> {
+            if (deadlineAt != null) {
+                deadlineScheduler.schedule(id, deadlineAt);
+            }
+            return new ActiveAttempt(id, examId, studentId, startedAt, deadlineAt);
+        });
+        attemptIdsByExamAndStudent.put(examId + ":" + studentId, attemptId);
+        return attempt;
+    }
+
+    private void unregister(ActiveAttempt attempt) {
+        attempts.remove(attempt.getId());
+        attemptIdsByExamAndStudent.remove(attempt.getExamId() + ":" + attempt.getStudentId());
+        dirtyAttempts.remove(attempt.getId());
+        deadlineScheduler.cancel(attempt.getId());
+    }
+
+    public static class ActiveAttempt {
+        @Getter private final Long id;
+        @Getter private final Long examId;
+        @Getter private final Long studentId;
+        @Getter private final LocalDateTime startedAt;
+        @Getter private final LocalDateTime deadlineAt;
+
+        // Guarded by the attempt's monitor
+        private final Map<Long, String> pendingAnswers = new HashMap<>();
+        private boolean closed;
+
+        ActiveAttempt(Long id, Long examId, Long studentId, LocalDateTime startedAt, LocalDateTime deadlineAt) {
+            this.id = id;
+            this.examId = examId;
+            this.studentId = studentId;
+            this.startedAt = startedAt;
+            this.deadlineAt = deadlineAt;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.examsystem.service;
+
+import com.examsystem.model.InvalidationKind;
+import com.examsystem.service.InvalidationTransport.Invalidation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Keeps the in-process caches of every application node in step. Local
+ * changes (exam changed, user changed, results recorded, usernames and emails
+ * taken) are sent through the {@link InvalidationTransport}; changes received
+ * from other nodes are applied here: exams are re-published as remote
+ * ExamChangedEvents, so every exam cache drops them exactly as for a local
+ * change, principals, taken-exam bitmaps and dashboards are evicted directly,
+ * and new names are added to the username/email filter.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationBus {
+
+    private final InvalidationTransport transport;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserService userService;
+    private final TakenExamIndex takenExamIndex;
+    private final StudentDashboardService studentDashboardService;
+    private final UserIdentifierIndex userIdentifierIndex;
+
+    @Value("${app.cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    // Inside the writing transaction, so the outbox row commits or rolls back with the change
+    @EventListener
+    public void onExamChanged(ExamChangedEvent event) {
+        if (enabled && !event.remote()) {
+            transport.send(new Invalidation(InvalidationKind.EXAM, event.examId().toString()));
+        }
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (enabled) {
+            transport.send(new Invalidation(InvalidationKind.USER, event.username()));
+        }
+    }
+
+    // Until this arrives, another node would answer the name as free and registration hits the unique key
+    @EventListener
+    public void onIdentifiersAdded(UserIdentifiersAddedEvent event) {
+        if (enabled) {
+            transport.send(new Invalidation(InvalidationKind.USERNAME_ADDED, event.username()));
+            transport.send(new Invalidation(InvalidationKind.EMAIL_ADDED, event.email()));
+        }
+    }
+
+    @EventListener
+    public void onResultsRecorded(ExamResultsRecordedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        event.results().stream()
+                .map(result -> result.getStudent().getId())
+                .distinct()
+                .forEach(studentId -> transport.send(
+                        new Invalidation(InvalidationKind.STUDENT_RESULTS, studentId.toString())));
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.poll-interval-ms:1000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Invalidation> received;
+        try {
+            received = transport.receive();
+        } catch (RuntimeException e) {
+            System.out.println("❌ Cache invalidation poll failed, retrying next run: " + e.getMessage());
+            return;
+        }
+        received.forEach(this::apply);
+    }
+
+    void apply(Invalidation invalidation) {
+        switch (invalidation.kind()) {
+            case EXAM -> eventPublisher.publishEvent(new ExamChangedEvent(Long.valueOf(invalidation.key()), true));
+            case USER -> userService.evictPrincipal(invalidation.key());
+            case STUDENT_RESULTS -> {
+                Long studentId = Long.valueOf(invalidation.key());
+                takenExamIndex.evict(studentId);
+                studentDashboardService.evict(studentId);
+            }
+            case USERNAME_ADDED -> userIdentifierIndex.addUsername(invalidation.key());
+            case EMAIL_ADDED -> userIdentifierIndex.addEmail(invalidation.key());
+        }
+    }
+}
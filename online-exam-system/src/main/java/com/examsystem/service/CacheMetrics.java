@@ -0,0 +1,50 @@
+package com.examsystem.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hit, miss and eviction counters of the in-process caches: the Hibernate
+ * second-level cache regions, plus any Caffeine cache registered here.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheMetrics {
+
+    private final CacheManager hibernateCacheManager;
+
+    private final Map<String, Cache<?, ?>> registered = new ConcurrentHashMap<>();
+
+    public void register(String name, Cache<?, ?> cache) {
+        registered.put(name, cache);
+    }
+
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> snapshot = new TreeMap<>();
+        for (String region : hibernateCacheManager.getCacheNames()) {
+            javax.cache.Cache<Object, Object> cache = hibernateCacheManager.getCache(region);
+            snapshot.put("hibernate." + region, describe(cache.unwrap(Cache.class)));
+        }
+        registered.forEach((name, cache) -> snapshot.put(name, describe(cache)));
+        return snapshot;
+    }
+
+    private static Map<String, Object> describe(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("size", cache.estimatedSize());
+        description.put("hits", stats.hitCount());
+        description.put("misses", stats.missCount());
+        description.put("hitRate", Math.round(stats.hitRate() * 10000.0) / 10000.0);
+        description.put("evictions", stats.evictionCount());
+        return description;
+    }
+}
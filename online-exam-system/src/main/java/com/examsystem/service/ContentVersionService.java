@@ -0,0 +1,70 @@
+package com.examsystem.service;
+
+import com.examsystem.model.Exam;
+import com.examsystem.model.ExamStatus;
+import com.examsystem.repository.ExamRepository;
+import com.examsystem.repository.ExamResultRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.StringJoiner;
+
+/**
+ * Entity tags for student reads, derived from the version columns the data
+ * already has (exam updatedAt, result submittedAt) instead of from the
+ * rendered response. A tag is checked before any response is built, so an
+ * unchanged page is answered with 304 for the cost of one or two aggregate
+ * queries.
+ */
+@Service
+@RequiredArgsConstructor
+public class ContentVersionService {
+
+    private final ExamRepository examRepository;
+    private final ExamResultRepository examResultRepository;
+
+    // The student paper of one exam version; gzip and plain bytes are different representations
+    public String paperTag(Exam exam, boolean gzip) {
+        return "paper-" + exam.getId() + "-" + stamp(exam.getUpdatedAt()) + (gzip ? "-gz" : "");
+    }
+
+    /**
+     * Published exams as one student sees them: which exams are published,
+     * their edits and start/end boundaries already passed, plus the
+     * student's own results, which decide what is taken and what is done.
+     */
+    @Transactional(readOnly = true)
+    public String studentCatalogTag(Long studentId) {
+        return studentTag("catalog-", studentId);
+    }
+
+    // The dashboard is built from the same exams and results as the catalog
+    @Transactional(readOnly = true)
+    public String studentDashboardTag(Long studentId) {
+        return studentTag("dashboard-", studentId);
+    }
+
+    private String studentTag(String prefix, Long studentId) {
+        StringJoiner tag = new StringJoiner("-", prefix, "");
+        for (Object value : examRepository.findVersionByStatus(ExamStatus.PUBLISHED, LocalDateTime.now()).get(0)) {
+            tag.add(stamp(value));
+        }
+        for (Object value : examResultRepository.findVersionByStudentId(studentId).get(0)) {
+            tag.add(stamp(value));
+        }
+        return tag.toString();
+    }
+
+    private static String stamp(Object value) {
+        if (value == null) {
+            return "0";
+        }
+        if (value instanceof LocalDateTime time) {
+            return Long.toString(time.toEpochSecond(ZoneOffset.UTC), 36) + "." + Integer.toString(time.getNano(), 36);
+        }
+        return Long.toString(((Number) value).longValue(), 36);
+    }
+}
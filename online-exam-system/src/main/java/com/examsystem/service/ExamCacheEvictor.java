@@ -0,0 +1,32 @@
+package com.examsystem.service;
+
+import com.examsystem.model.Exam;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Drops a changed exam and its question list from the Hibernate second-level
+ * cache. Question rows written through the session are kept current by
+ * Hibernate itself, but the cached {@code Exam.questions} id list is not when
+ * questions are inserted or deleted on their own side of the association.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExamCacheEvictor {
+
+    private static final String QUESTIONS_ROLE = Exam.class.getName() + ".questions";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    // After commit, so a concurrent reader cannot cache the old state again behind the eviction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Exam.class, event.examId());
+        cache.evictCollectionData(QUESTIONS_ROLE, event.examId());
+    }
+}
@@ -0,0 +1,14 @@
+package com.examsystem.service;
+
+/**
+ * Published inside the writing transaction when an exam or its questions are
+ * updated, published or deleted. Caches of exam data listen for it after
+ * commit and drop what they hold for the exam. {@code remote} events are
+ * re-published by CacheInvalidationBus for changes made on another node.
+ */
+public record ExamChangedEvent(Long examId, boolean remote) {
+
+    public ExamChangedEvent(Long examId) {
+        this(examId, false);
+    }
+}
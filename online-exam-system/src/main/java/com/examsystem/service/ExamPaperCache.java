@@ -0,0 +1,107 @@
+package com.examsystem.service;
+
+import com.examsystem.dto.exam.ExamResponse;
+import com.examsystem.dto.exam.QuestionResponse;
+import com.examsystem.model.Exam;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The exam paper students see, without correct answers or explanations,
+ * serialized to JSON once per exam version and kept as plain and gzip bytes.
+ * Entries are keyed by exam id and updatedAt, so an edited exam is rendered
+ * again on its next request; concurrent first requests share one render.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExamPaperCache {
+
+    private final ExamService examService;
+    private final ObjectMapper objectMapper;
+    private final CacheMetrics cacheMetrics;
+
+    @Value("${app.cache.exam-papers.max-size:500}")
+    private long maxSize;
+
+    private Cache<PaperKey, Paper> papers;
+
+    public record Paper(byte[] json, byte[] gzip) {
+    }
+
+    private record PaperKey(Long examId, LocalDateTime version) {
+    }
+
+    @PostConstruct
+    void init() {
+        papers = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        cacheMetrics.register("exam-papers", papers);
+    }
+
+    public Paper get(Exam exam) {
+        return papers.get(new PaperKey(exam.getId(), exam.getUpdatedAt()), key -> render(key.examId()));
+    }
+
+    // Older versions would only age out by size; drop them as soon as the exam changes
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        papers.asMap().keySet().removeIf(key -> key.examId().equals(event.examId()));
+    }
+
+    private Paper render(Long examId) {
+        Exam exam = examService.getExamForStudent(examId);
+        ExamResponse paper = ExamResponse.builder()
+                .id(exam.getId())
+                .title(exam.getTitle())
+                .description(exam.getDescription())
+                .duration(exam.getDurationMinutes())
+                .totalMarks(exam.getTotalMarks())
+                .passingMarks(exam.getPassingMarks())
+                .status(exam.getStatus())
+                .createdBy(exam.getTeacher() != null ? exam.getTeacher().getFullName() : "Unknown")
+                .createdAt(exam.getCreatedAt())
+                .publishedAt(exam.getPublishedAt())
+                .startTime(exam.getStartTime())
+                .endTime(exam.getEndTime())
+                .questionCount(exam.getQuestions().size())
+                // Correct answers and explanations never leave the server with the paper
+                .questions(exam.getQuestions().stream()
+                        .map(q -> QuestionResponse.builder()
+                                .id(q.getId())
+                                .text(q.getText())
+                                .type(q.getType())
+                                .option1(q.getOption1())
+                                .option2(q.getOption2())
+                                .option3(q.getOption3())
+                                .option4(q.getOption4())
+                                .points(q.getPoints())
+                                .build())
+                        .toList())
+                .build();
+
+        byte[] json = objectMapper.writeValueAsBytes(paper);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.println("📄 Rendered paper for exam " + examId + " (" + json.length + " bytes, "
+                + compressed.size() + " gzipped)");
+        return new Paper(json, compressed.toByteArray());
+    }
+}
@@ -0,0 +1,117 @@
+package com.examsystem.service;
+
+import com.examsystem.repository.ExamRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Background removal of deleted exams. Each run purges a limited number of
+ * chunks, each in its own short transaction (see {@link ExamPurger}), so a
+ * popular exam with many thousands of answers never holds locks for long or
+ * keeps the shared scheduler thread busy. Pending exams are found from their
+ * deleted_at column, so a purge interrupted by a restart simply continues.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExamPurgeService {
+
+    // Finished purges kept for the progress listing
+    private static final int FINISHED_HISTORY = 50;
+
+    private final ExamRepository examRepository;
+    private final ExamPurger examPurger;
+
+    @Value("${app.exam.purge.results-per-chunk:100}")
+    private int resultsPerChunk;
+
+    @Value("${app.exam.purge.questions-per-chunk:500}")
+    private int questionsPerChunk;
+
+    @Value("${app.exam.purge.max-chunks-per-run:20}")
+    private int maxChunksPerRun;
+
+    // Insertion ordered; only the scheduler thread writes, readers take a snapshot
+    private final Map<Long, Progress> progress = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    @Scheduled(fixedDelayString = "${app.exam.purge.interval-ms:5000}")
+    public void purgeDeletedExams() {
+        List<Long> pending = examRepository.findDeletedIds();
+        int chunks = 0;
+        for (Long examId : pending) {
+            Progress current = progress.computeIfAbsent(examId, Progress::new);
+            while (chunks < maxChunksPerRun) {
+                ExamPurger.Chunk chunk;
+                try {
+                    chunk = examPurger.purgeChunk(examId, resultsPerChunk, questionsPerChunk);
+                } catch (RuntimeException e) {
+                    System.out.println("❌ Purge of exam " + examId + " failed, retrying next run: " + e.getMessage());
+                    break;
+                }
+                chunks++;
+                current.add(chunk);
+                if (chunk.finished()) {
+                    System.out.println("🗑️ Purged exam " + examId + ": " + current.answersDeleted + " answers, "
+                            + current.resultsDeleted + " results, " + current.questionsDeleted + " questions");
+                    trimHistory();
+                    break;
+                }
+            }
+            if (chunks >= maxChunksPerRun) {
+                return;
+            }
+        }
+    }
+
+    // Exams being purged and the most recently finished ones, oldest first
+    public List<Progress> getProgress() {
+        synchronized (progress) {
+            return new ArrayList<>(progress.values());
+        }
+    }
+
+    private void trimHistory() {
+        synchronized (progress) {
+            long finished = progress.values().stream().filter(Progress::isFinished).count();
+            Iterator<Progress> iterator = progress.values().iterator();
+            while (finished > FINISHED_HISTORY && iterator.hasNext()) {
+                if (iterator.next().isFinished()) {
+                    iterator.remove();
+                    finished--;
+                }
+            }
+        }
+    }
+
+    @Getter
+    public static class Progress {
+        private final Long examId;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private volatile long answersDeleted;
+        private volatile long resultsDeleted;
+        private volatile long questionsDeleted;
+        private volatile LocalDateTime finishedAt;
+
+        Progress(Long examId) {
+            this.examId = examId;
+        }
+
+        public boolean isFinished() {
+            return finishedAt != null;
+        }
+
+        void add(ExamPurger.Chunk chunk) {
+            answersDeleted += chunk.answers();
+            resultsDeleted += chunk.results();
+            questionsDeleted += chunk.questions();
+            if (chunk.finished()) {
+                finishedAt = LocalDateTime.now();
+            }
+        }
+    }
+}
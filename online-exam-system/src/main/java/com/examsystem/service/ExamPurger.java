@@ -0,0 +1,58 @@
+package com.examsystem.service;
+
+import com.examsystem.repository.ArchivedAnswersRepository;
+import com.examsystem.repository.ExamRepository;
+import com.examsystem.repository.ExamResultRepository;
+import com.examsystem.repository.ExamStatsRepository;
+import com.examsystem.repository.QuestionRepository;
+import com.examsystem.repository.StudentAnswerRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Removes one bounded chunk of a deleted exam's rows per transaction, with
+ * bulk DELETEs and without loading entities. Results go first (with their
+ * answers), then questions, then the exam row itself, so no step ever
+ * violates a foreign key.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExamPurger {
+
+    private final ExamRepository examRepository;
+    private final ExamResultRepository examResultRepository;
+    private final StudentAnswerRepository studentAnswerRepository;
+    private final ArchivedAnswersRepository archivedAnswersRepository;
+    private final QuestionRepository questionRepository;
+    private final ExamStatsRepository examStatsRepository;
+
+    public record Chunk(int answers, int results, int questions, boolean finished) {
+    }
+
+    @Transactional
+    public Chunk purgeChunk(Long examId, int resultsPerChunk, int questionsPerChunk) {
+        List<Long> resultIds = examResultRepository.findIdsByExamId(examId, Limit.of(resultsPerChunk));
+        if (!resultIds.isEmpty()) {
+            int answers = studentAnswerRepository.deleteByExamResultIdIn(resultIds);
+            archivedAnswersRepository.deleteByResultIdIn(resultIds);
+            int results = examResultRepository.deleteByIdIn(resultIds);
+            return new Chunk(answers, results, 0, false);
+        }
+
+        // Bulk deletes of cached entities invalidate their cache regions; that
+        // happens once or twice per purged exam, and the regions refill on demand
+        List<Long> questionIds = questionRepository.findIdsByExamId(examId, Limit.of(questionsPerChunk));
+        if (!questionIds.isEmpty()) {
+            return new Chunk(0, 0, questionRepository.deleteByIdIn(questionIds), false);
+        }
+
+        // A restart mid-purge may have backfilled the stats row again
+        examStatsRepository.deleteById(examId);
+        examRepository.purgeById(examId);
+        return new Chunk(0, 0, 0, true);
+    }
+}
@@ -0,0 +1,297 @@
+package com.examsystem.service;
+
+import com.examsystem.model.ExamResult;
+import com.examsystem.model.ResultStatus;
+import com.examsystem.repository.ExamResultRepository;
+import com.examsystem.util.FenwickTree;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Rank, percentile and top results per exam, answered from an in-memory
+ * index instead of sorting the exam's results. Each index is a Fenwick tree
+ * of finished results per integer score, for rank and percentile in
+ * O(log max score), plus the best few results in order for top-N lists.
+ *
+ * <p>Built on first use from one grouped query, updated in place as results
+ * are recorded on this node, dropped when the exam changes and rebuilt after
+ * a maximum age, which also picks up results recorded on other nodes.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExamRankService {
+
+    // Highest score first; the earlier submission wins a tie
+    private static final Comparator<TopEntry> TOP_ORDER = Comparator.comparingInt(TopEntry::score).reversed()
+            .thenComparing(TopEntry::submittedAt)
+            .thenComparingLong(TopEntry::resultId);
+
+    private final ExamResultRepository examResultRepository;
+    private final CacheMetrics cacheMetrics;
+
+    @Value("${app.cache.exam-ranks.max-size:1000}")
+    private long maxSize;
+
+    @Value("${app.cache.exam-ranks.max-age-seconds:60}")
+    private long maxAgeSeconds;
+
+    @Value("${app.cache.exam-ranks.top-size:100}")
+    private int topSize;
+
+    // Per exam, guarded by lock: bumped whenever results are recorded or the exam changes, and the
+    // number of transactions that recorded results and have not completed yet. An index built while
+    // either moves may have missed, or would count twice, a result, so it is not cached.
+    private final Object lock = new Object();
+    private final Map<Long, Long> generations = new HashMap<>();
+    private final Map<Long, Integer> pending = new HashMap<>();
+
+    private Cache<Long, ScoreIndex> indexes;
+
+    /**
+     * Standing of a score among the exam's finished results: competition rank
+     * (1 + results scoring higher), and the percentage of results scoring the
+     * same or lower.
+     */
+    public record Standing(long rank, long rankedCount, double percentile) {
+    }
+
+    public record RankedResult(ExamResult result, long rank) {
+    }
+
+    private record TopEntry(long resultId, int score, LocalDateTime submittedAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        indexes = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(maxAgeSeconds))
+                .recordStats()
+                .build();
+        cacheMetrics.register("exam-ranks", indexes);
+    }
+
+    @Transactional(readOnly = true)
+    public Standing getStanding(Long examId, int score) {
+        return index(examId).standing(score);
+    }
+
+    /**
+     * Standings of several scores of one exam, e.g. the rows of a result page,
+     * keyed by score. The index is looked up (or built) once and read under
+     * one lock, so the standings are consistent with each other.
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, Standing> getStandings(Long examId, Collection<Integer> scores) {
+        if (scores.isEmpty()) {
+            return Map.of();
+        }
+        return index(examId).standings(scores);
+    }
+
+    /**
+     * The exam's best results with their ranks, at most {@code app.cache.exam-ranks.top-size}.
+     */
+    @Transactional(readOnly = true)
+    public List<RankedResult> getTopResults(Long examId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        Map<Long, Long> ranks = index(examId).top(Math.min(limit, topSize));
+
+        Map<Long, ExamResult> results = examResultRepository.findListByIdIn(ranks.keySet()).stream()
+                .collect(Collectors.toMap(ExamResult::getId, Function.identity()));
+        // A result purged since the index was built is skipped
+        return ranks.entrySet().stream()
+                .filter(entry -> results.containsKey(entry.getKey()))
+                .map(entry -> new RankedResult(results.get(entry.getKey()), entry.getValue()))
+                .toList();
+    }
+
+    // In the recording transaction, so that no index is built and cached between its commit and its update
+    @EventListener
+    public void onResultsRecorded(ExamResultsRecordedEvent event) {
+        List<ExamResult> finished = event.results().stream()
+                .filter(result -> result.getStatus() != ResultStatus.IN_PROGRESS)
+                .toList();
+        if (finished.isEmpty()) {
+            return;
+        }
+        Set<Long> examIds = finished.stream()
+                .map(result -> result.getExam().getId())
+                .collect(Collectors.toSet());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (lock) {
+                examIds.forEach(this::bump);
+                apply(finished);
+            }
+            return;
+        }
+
+        synchronized (lock) {
+            for (Long examId : examIds) {
+                bump(examId);
+                pending.merge(examId, 1, Integer::sum);
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (lock) {
+                    for (Long examId : examIds) {
+                        bump(examId);
+                        pending.computeIfPresent(examId, (id, count) -> count > 1 ? count - 1 : null);
+                    }
+                    if (status == STATUS_COMMITTED) {
+                        apply(finished);
+                    }
+                }
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        synchronized (lock) {
+            bump(event.examId());
+            indexes.invalidate(event.examId());
+        }
+    }
+
+    private ScoreIndex index(Long examId) {
+        ScoreIndex cached = indexes.getIfPresent(examId);
+        if (cached != null) {
+            return cached;
+        }
+
+        boolean cacheable;
+        long generationBeforeBuild;
+        synchronized (lock) {
+            cacheable = !pending.containsKey(examId);
+            generationBeforeBuild = generations.getOrDefault(examId, 0L);
+        }
+
+        ScoreIndex built = build(examId);
+
+        synchronized (lock) {
+            if (!cacheable || generations.getOrDefault(examId, 0L) != generationBeforeBuild) {
+                return built;
+            }
+            ScoreIndex existing = indexes.asMap().putIfAbsent(examId, built);
+            return existing != null ? existing : built;
+        }
+    }
+
+    private ScoreIndex build(Long examId) {
+        List<Object[]> rows = examResultRepository.countByScore(examId, ResultStatus.IN_PROGRESS);
+        int maxScore = rows.stream().mapToInt(row -> (Integer) row[0]).max().orElse(0);
+        long[] counts = new long[Math.max(maxScore, 0) + 1];
+        for (Object[] row : rows) {
+            counts[Math.max((Integer) row[0], 0)] += (Long) row[1];
+        }
+
+        List<TopEntry> top = examResultRepository.findTopByExamId(examId, ResultStatus.IN_PROGRESS, Limit.of(topSize))
+                .stream()
+                .map(row -> new TopEntry((Long) row[0], (Integer) row[1], (LocalDateTime) row[2]))
+                .toList();
+
+        ScoreIndex index = new ScoreIndex(FenwickTree.of(counts), top, topSize);
+        System.out.println("🏆 Built rank index for exam " + examId + ": " + index.scores.total() + " results");
+        return index;
+    }
+
+    // Caller holds lock
+    private void bump(Long examId) {
+        generations.merge(examId, 1L, Long::sum);
+    }
+
+    // Caller holds lock
+    private void apply(List<ExamResult> results) {
+        for (ExamResult result : results) {
+            ScoreIndex index = indexes.getIfPresent(result.getExam().getId());
+            if (index != null) {
+                index.add(new TopEntry(result.getId(), result.getScore(), result.getSubmittedAt()));
+            }
+        }
+    }
+
+    private static class ScoreIndex {
+
+        private final int topSize;
+        private final TreeSet<TopEntry> top = new TreeSet<>(TOP_ORDER);
+        private FenwickTree scores;
+
+        ScoreIndex(FenwickTree scores, List<TopEntry> top, int topSize) {
+            this.scores = scores;
+            this.top.addAll(top);
+            this.topSize = topSize;
+        }
+
+        synchronized void add(TopEntry entry) {
+            int bucket = Math.max(entry.score(), 0);
+            if (bucket >= scores.size()) {
+                grow(bucket + 1);
+            }
+            scores.add(bucket, 1);
+
+            // The set holds the best min(topSize, total) results, so only a better result can join it
+            top.add(entry);
+            if (top.size() > topSize) {
+                top.pollLast();
+            }
+        }
+
+        synchronized Standing standing(int score) {
+            long total = scores.total();
+            long atOrBelow = scores.prefixSum(score);
+            double percentile = total == 0 ? 0.0 : atOrBelow * 100.0 / total;
+            return new Standing(total - atOrBelow + 1, total, percentile);
+        }
+
+        synchronized Map<Integer, Standing> standings(Collection<Integer> scores) {
+            Map<Integer, Standing> standings = new HashMap<>();
+            for (Integer score : scores) {
+                standings.computeIfAbsent(score, this::standing);
+            }
+            return standings;
+        }
+
+        // Result id to rank, best first
+        synchronized Map<Long, Long> top(int limit) {
+            Map<Long, Long> ranks = new LinkedHashMap<>();
+            for (TopEntry entry : top) {
+                if (ranks.size() == limit) {
+                    break;
+                }
+                ranks.put(entry.resultId(), scores.total() - scores.prefixSum(entry.score()) + 1);
+            }
+            return ranks;
+        }
+
+        // A score above every score seen so far, e.g. after the exam's marks were raised
+        private void grow(int minSize) {
+            long[] counts = new long[Math.max(minSize, scores.size() * 2)];
+            for (int i = 0; i < scores.size(); i++) {
+                counts[i] = scores.get(i);
+            }
+            scores = FenwickTree.of(counts);
+        }
+    }
+}
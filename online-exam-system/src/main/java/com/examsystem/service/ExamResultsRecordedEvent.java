@@ -0,0 +1,14 @@
+package com.examsystem.service;
+
+import com.examsystem.model.ExamResult;
+
+import java.util.List;
+
+/**
+ * Published, inside the writing transaction, whenever results become final:
+ * graded submissions, submitted attempts and expired attempts. Listeners that
+ * must stay consistent with exam_results use a plain {@code @EventListener}
+ * so their writes commit or roll back together with the results.
+ */
+public record ExamResultsRecordedEvent(List<ExamResult> results) {
+}
@@ -1,22 +1,36 @@
 package com.examsystem.service;
 
+import com.examsystem.dto.CursorPage;
 import com.examsystem.dto.exam.AnswerRequest;
 import com.examsystem.dto.exam.CreateExamRequest;
 import com.examsystem.dto.exam.CreateQuestionRequest;
+import com.examsystem.dto.exam.ExamSummary;
 import com.examsystem.dto.exam.TakeExamRequest;
 import com.examsystem.model.*;
 import com.examsystem.repository.ExamRepository;
 import com.examsystem.repository.QuestionRepository;
 import com.examsystem.repository.ExamResultRepository;
+import com.examsystem.repository.ExamStatsRepository;
 import com.examsystem.repository.StudentAnswerRepository;
+import com.examsystem.util.KeysetCursor;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,6 +43,10 @@ public class ExamService {
     private final StudentAnswerRepository studentAnswerRepository;
     private final UserService userService;
     private final EntityManager entityManager;
+    private final AnswerKeyCache answerKeyCache;
+    private final ExamStatsRepository examStatsRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AnswerArchiver answerArchiver;
 
     @Transactional
     public Exam createExam(CreateExamRequest request, User teacher) {
@@ -139,108 +157,54 @@ public class ExamService {
     }
 
     @Transactional(readOnly = true)
-    public List<Exam> getExamsByTeacher(User teacher) {
-        try {
-            System.out.println("Getting exams for teacher ID: " + teacher.getId());
-
-            // FIXED: Use findByTeacher instead of findByCreatedBy
-            List<Exam> exams = examRepository.findByTeacher(teacher);
-            System.out.println("Found " + exams.size() + " exams in repository");
-
-            // Eagerly load ALL relationships within the transaction
-            exams.forEach(exam -> {
-                // Load questions
-                if (exam.getQuestions() != null) {
-                    exam.getQuestions().size(); // This triggers loading
-                }
-
-                // Load teacher (if needed)
-                if (exam.getTeacher() != null) {
-                    exam.getTeacher().getFullName(); // Trigger loading
-                }
-            });
-
-            return exams;
-        } catch (Exception e) {
-            System.out.println("ERROR in getExamsByTeacher: " + e.getMessage());
-            e.printStackTrace();
-            throw e;
-        }
+    public List<ExamSummary> getExamSummariesByTeacher(User teacher) {
+        System.out.println("Getting exam summaries for teacher ID: " + teacher.getId());
+        List<ExamSummary> exams = examRepository.findSummariesByTeacherId(teacher.getId());
+        System.out.println("Found " + exams.size() + " exams in repository");
+        return exams;
     }
 
     @Transactional(readOnly = true)
-    public List<Exam> getPublishedExams() {
-        List<Exam> exams = examRepository.findByStatus(ExamStatus.PUBLISHED);
-
-        // Eagerly load questions for each exam within the transaction
-        exams.forEach(exam -> {
-            if (exam.getQuestions() != null) {
-                exam.getQuestions().size(); // This triggers loading
-            }
-
-            // Load teacher
-            if (exam.getTeacher() != null) {
-                exam.getTeacher().getFullName(); // Trigger loading
-            }
-        });
-
-        return exams;
+    public List<ExamSummary> getPublishedExamSummaries() {
+        return examRepository.findSummariesByStatus(ExamStatus.PUBLISHED);
     }
 
+    // Teacher detail fetch plan: the exam with its questions and teacher
     @Transactional(readOnly = true)
     public Exam getExamById(Long id) {
-        Exam exam = examRepository.findById(id)
+        return examRepository.findTeacherDetailById(id)
+                .filter(exam -> !exam.isDeleted())
                 .orElseThrow(() -> new RuntimeException("Exam not found with id: " + id));
-
-        // Eagerly load questions within the transaction
-        if (exam.getQuestions() != null) {
-            exam.getQuestions().size(); // This triggers loading
-        }
-
-        // Eagerly load teacher
-        if (exam.getTeacher() != null) {
-            exam.getTeacher().getFullName(); // Trigger loading
-        }
-
-        return exam;
-    }
-
-    @Transactional(readOnly = true)
-    public Exam getExamByIdWithQuestions(Long id) {
-        // Use JPQL with JOIN FETCH to load everything in one query
-        try {
-            return entityManager.createQuery(
-                            "SELECT DISTINCT e FROM Exam e " +
-                                    "LEFT JOIN FETCH e.questions " +
-                                    "LEFT JOIN FETCH e.teacher " +  // FIXED: Use teacher, not createdBy
-                                    "WHERE e.id = :id", Exam.class)
-                    .setParameter("id", id)
-                    .getSingleResult();
-        } catch (Exception e) {
-            // Fallback to regular findById if JOIN FETCH fails
-            return getExamById(id);
-        }
     }
 
+    /**
+     * Student paper fetch plan: the exam with its questions and teacher, for
+     * taking or submitting it. Not an entity graph on purpose: a graph load is
+     * a join query that skips the second-level cache, while the exam and its
+     * question collection are cached and only the teacher row costs SQL here.
+     */
     @Transactional(readOnly = true)
     public Exam getExamForStudent(Long id) {
-        // For students, we don't need to load the correct answers
         Exam exam = examRepository.findById(id)
+                .filter(candidate -> !candidate.isDeleted())
                 .orElseThrow(() -> new RuntimeException("Exam not found with id: " + id));
-
-        // Eagerly load questions (without modifying the entity)
-        if (exam.getQuestions() != null) {
-            exam.getQuestions().size(); // Just trigger loading, don't modify
-        }
-
-        // Load teacher
-        if (exam.getTeacher() != null) {
-            exam.getTeacher().getFullName();
-        }
-
+        Hibernate.initialize(exam.getQuestions());
+        Hibernate.initialize(exam.getTeacher());
         return exam;
     }
 
+    /**
+     * The exam row alone, for status and version checks in front of the
+     * cached paper; served from the second-level cache without touching
+     * questions or teacher.
+     */
+    @Transactional(readOnly = true)
+    public Exam getExamHeader(Long id) {
+        return examRepository.findById(id)
+                .filter(exam -> !exam.isDeleted())
+                .orElseThrow(() -> new RuntimeException("Exam not found with id: " + id));
+    }
+
     @Transactional
     public Exam updateExam(Long id, CreateExamRequest request, User teacher) {
         Exam exam = getExamById(id);
@@ -285,57 +249,96 @@ public class ExamService {
             exam.setIsPublished(newStatus == ExamStatus.PUBLISHED);
         }
 
-        // Delete old questions
-        questionRepository.deleteByExam(exam);
+        // Diff the paper by question id: dirty checking updates only edited rows,
+        // new questions are inserted and dropped ones retired, all in this transaction
+        Map<Long, Question> stored = exam.getQuestions().stream()
+                .collect(Collectors.toMap(Question::getId, q -> q));
+        List<Question> questions = new ArrayList<>();
+        for (CreateQuestionRequest q : request.getQuestions()) {
+            Question question;
+            if (q.getId() != null) {
+                question = stored.remove(q.getId());
+                if (question == null) {
+                    throw new RuntimeException("Question " + q.getId() + " does not belong to this exam");
+                }
+            } else {
+                question = Question.builder().exam(exam).build();
+            }
+            applyQuestionRequest(question, q);
+            questions.add(question);
+        }
+
+        // Retired rather than deleted: answers from earlier attempts still reference them
+        stored.values().forEach(question -> question.setRetired(true));
+
+        questionRepository.saveAll(questions.stream().filter(question -> question.getId() == null).toList());
         exam.getQuestions().clear();
+        exam.getQuestions().addAll(questions);
+        System.out.println("✏️ Exam " + exam.getId() + " questions: " + questions.size() + " kept or added, "
+                + stored.size() + " retired");
 
-        // Create new questions
-        List<Question> questions = request.getQuestions().stream()
-                .map(q -> {
-                    // Convert string type to enum
-                    QuestionType questionType = QuestionType.MULTIPLE_CHOICE; // Default
-                    if (q.getType() != null && !q.getType().isEmpty()) {
-                        try {
-                            questionType = QuestionType.valueOf(q.getType().toUpperCase());
-                        } catch (IllegalArgumentException e) {
-                            questionType = QuestionType.MULTIPLE_CHOICE;
-                        }
-                    }
+        Exam savedExam = examRepository.save(exam);
 
-                    Question.QuestionBuilder questionBuilder = Question.builder()
-                            .text(q.getText())
-                            .type(questionType)
-                            .correctAnswer(q.getCorrectAnswer())
-                            .points(q.getPoints())
-                            .exam(exam);
-
-                    // Set options based on question type
-                    if (questionType == QuestionType.MULTIPLE_CHOICE) {
-                        questionBuilder
-                                .option1(q.getOption1())
-                                .option2(q.getOption2())
-                                .option3(q.getOption3())
-                                .option4(q.getOption4());
-                    } else if (questionType == QuestionType.TRUE_FALSE) {
-                        questionBuilder
-                                .option1("True")
-                                .option2("False");
-                    }
+        // Questions changed, so any compiled answer key is stale; dropped after commit
+        eventPublisher.publishEvent(new ExamChangedEvent(savedExam.getId()));
 
-                    if (q.getExplanation() != null && !q.getExplanation().isEmpty()) {
-                        questionBuilder.explanation(q.getExplanation());
-                    }
+        return savedExam;
+    }
 
-                    return questionBuilder.build();
-                })
-                .collect(Collectors.toList());
+    private void applyQuestionRequest(Question question, CreateQuestionRequest q) {
+        // Convert string type to enum
+        QuestionType questionType = QuestionType.MULTIPLE_CHOICE; // Default
+        if (q.getType() != null && !q.getType().isEmpty()) {
+            try {
+                questionType = QuestionType.valueOf(q.getType().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                questionType = QuestionType.MULTIPLE_CHOICE;
+            }
+        }
 
-        questionRepository.saveAll(questions);
-        exam.setQuestions(questions);
+        question.setText(q.getText());
+        question.setType(questionType);
+        question.setCorrectAnswer(q.getCorrectAnswer());
+        question.setPoints(q.getPoints());
+
+        // Set options based on question type
+        if (questionType == QuestionType.MULTIPLE_CHOICE) {
+            question.setOption1(q.getOption1());
+            question.setOption2(q.getOption2());
+            question.setOption3(q.getOption3());
+            question.setOption4(q.getOption4());
+        } else if (questionType == QuestionType.TRUE_FALSE) {
+            question.setOption1("True");
+            question.setOption2("False");
+            question.setOption3(null);
+            question.setOption4(null);
+        } else {
+            question.setOption1(null);
+            question.setOption2(null);
+            question.setOption3(null);
+            question.setOption4(null);
+        }
+
+        question.setExplanation(q.getExplanation() != null && !q.getExplanation().isEmpty() ? q.getExplanation() : null);
+    }
+
+    @Transactional
+    public Exam publishExam(Exam exam) {
+        exam.setStatus(ExamStatus.PUBLISHED);
+        exam.setIsPublished(true);
+        exam.setPublishedAt(LocalDateTime.now());
+        exam.setUpdatedAt(LocalDateTime.now());
 
-        return examRepository.save(exam);
+        Exam savedExam = examRepository.save(exam);
+        eventPublisher.publishEvent(new ExamChangedEvent(savedExam.getId()));
+        return savedExam;
     }
 
+    /**
+     * Marks the exam deleted and returns. Lookups, lists and counters stop
+     * seeing it immediately; its answers, results and questions are removed
+     * afterwards in small chunks by {@link ExamPurgeService}.
+     */
     @Transactional
     public void deleteExam(Long id, User teacher) {
         Exam exam = getExamById(id);
@@ -345,128 +348,49 @@ public class ExamService {
             throw new RuntimeException("You are not authorized to delete this exam");
         }
 
-        examRepository.delete(exam);
+        exam.setDeletedAt(LocalDateTime.now());
+        exam.setIsPublished(false);
+        examStatsRepository.deleteById(id);
+        eventPublisher.publishEvent(new ExamChangedEvent(id));
     }
 
     @Transactional
     public ExamResult submitExam(Long examId, TakeExamRequest request, User student) {
+        return submitExam(examId, request, student, null);
+    }
+
+    /**
+     * Grades and inserts a submission. A second submission for the same exam and
+     * student fails the insert with a DataIntegrityViolationException; see
+     * {@link SubmissionService} for the insert-or-fetch handling around it.
+     */
+    @Transactional
+    public ExamResult submitExam(Long examId, TakeExamRequest request, User student, String idempotencyKey) {
         System.out.println("🚀 ExamService.submitExam() START");
         System.out.println("📥 Exam ID from path: " + examId);
         System.out.println("📥 Time taken: " + request.getTimeTaken());
         System.out.println("📥 Number of answers: " + request.getAnswers().size());
 
         try {
-            Exam exam = getExamById(examId);
+            Exam exam = validateSubmission(examId, student);
             System.out.println("📥 Exam found: " + exam.getTitle());
-            System.out.println("📥 Exam has " + exam.getQuestions().size() + " questions");
-
-            // Log all questions with their details
-            System.out.println("📥 Questions in exam:");
-            for (Question question : exam.getQuestions()) {
-                System.out.println("   Question ID: " + question.getId() +
-                        ", Text: " + question.getText() +
-                        ", Type: " + question.getType() +
-                        ", Correct Answer: '" + question.getCorrectAnswer() + "'" +
-                        ", Points: " + question.getPoints());
-                if (question.getType() == QuestionType.MULTIPLE_CHOICE) {
-                    System.out.println("   Options: 1='" + question.getOption1() +
-                            "', 2='" + question.getOption2() +
-                            "', 3='" + question.getOption3() +
-                            "', 4='" + question.getOption4() + "'");
-                }
-            }
-
-            // Check if exam is published
-            if (exam.getStatus() != ExamStatus.PUBLISHED) {
-                throw new RuntimeException("Exam is not published");
-            }
-
-            // Check if student has already taken the exam
-            if (examResultRepository.findByExamAndStudent(exam, student).isPresent()) {
-                throw new RuntimeException("You have already taken this exam");
-            }
-
-            // Calculate score and create answers
-            int score = 0;
-            List<StudentAnswer> answers = new ArrayList<>();
-
-            System.out.println("📥 Processing answers:");
-            for (AnswerRequest answerReq : request.getAnswers()) {
-                System.out.println("📥 AnswerRequest: questionId=" + answerReq.getQuestionId() +
-                        ", answer='" + answerReq.getAnswer() + "'");
-
-                Question question = exam.getQuestions().stream()
-                        .filter(q -> q.getId().equals(answerReq.getQuestionId()))
-                        .findFirst()
-                        .orElseThrow(() -> {
-                            System.out.println("❌ Question not found: " + answerReq.getQuestionId());
-                            return new RuntimeException("Question not found: " + answerReq.getQuestionId());
-                        });
-
-                boolean isCorrect = isAnswerCorrect(question, answerReq.getAnswer());
-                int pointsAwarded = isCorrect ? question.getPoints() : 0;
-
-                System.out.println("   Question found: ID=" + question.getId() +
-                        ", Text: " + question.getText());
-                System.out.println("   Correct answer in DB: '" + question.getCorrectAnswer() + "'");
-                System.out.println("   Student answer: '" + answerReq.getAnswer() + "'");
-                System.out.println("   Is correct: " + isCorrect);
-                System.out.println("   Points awarded: " + pointsAwarded);
-
-                StudentAnswer studentAnswer = StudentAnswer.builder()
-                        .question(question)
-                        .answer(answerReq.getAnswer())
-                        .isCorrect(isCorrect)
-                        .pointsAwarded(pointsAwarded)
-                        .build();
-
-                answers.add(studentAnswer);
-                score += pointsAwarded;
-
-                System.out.println("---");
-            }
 
-            // Calculate percentage
-            double percentage = (score * 100.0) / exam.getTotalMarks();
-
-            // Determine result status
-            ResultStatus status = percentage >= exam.getPassingMarks() ? ResultStatus.PASSED : ResultStatus.FAILED;
-
-            // Create exam result
-            ExamResult examResult = ExamResult.builder()
-                    .exam(exam)
-                    .student(student)
-                    .score(score)
-                    .totalMarks(exam.getTotalMarks())
-                    .percentage(percentage)
-                    .status(status)
-                    .timeTaken(request.getTimeTaken())
-                    .submittedAt(LocalDateTime.now())
-                    .build();
-
-            // Save exam result first
-            ExamResult savedResult = examResultRepository.save(examResult);
-
-            // Set exam result reference in answers and save them
-            for (StudentAnswer answer : answers) {
-                answer.setExamResult(savedResult);
-            }
-
-            // Save all answers using StudentAnswerRepository
-            studentAnswerRepository.saveAll(answers);
-
-            // Set answers in exam result (for bidirectional relationship)
-            savedResult.setAnswers(answers);
+            ExamResult examResult = gradeSubmission(exam, request, student);
+            examResult.setIdempotencyKey(idempotencyKey);
+            ExamResult savedResult = persistResults(List.of(examResult)).get(0);
 
             System.out.println("✅ Exam submitted successfully!");
-            System.out.println("📊 Final score: " + score + "/" + exam.getTotalMarks());
-            System.out.println("📊 Percentage: " + String.format("%.2f", percentage) + "%");
-            System.out.println("📊 Status: " + status);
-            System.out.println("📊 Passing marks required: " + exam.getPassingMarks() + "%");
+            System.out.println("📊 Final score: " + savedResult.getScore() + "/" + savedResult.getTotalMarks());
+            System.out.println("📊 Percentage: " + String.format("%.2f", savedResult.getPercentage()) + "%");
+            System.out.println("📊 Status: " + savedResult.getStatus());
             System.out.println("🚀 ExamService.submitExam() END");
 
             return savedResult;
 
+        } catch (DataIntegrityViolationException e) {
+            // A duplicate submission, expected on retries: SubmissionService resolves it
+            System.out.println("🔁 Submission for exam " + examId + " already stored");
+            throw e;
         } catch (Exception e) {
             System.out.println("❌ ERROR in submitExam: " + e.getMessage());
             e.printStackTrace();
@@ -474,232 +398,400 @@ public class ExamService {
         }
     }
 
-    private boolean isAnswerCorrect(Question question, String studentAnswer) {
-        System.out.println("🔍 === isAnswerCorrect() START ===");
-        System.out.println("   Question ID: " + question.getId());
-        System.out.println("   Question text: " + question.getText());
-        System.out.println("   Student answer: '" + studentAnswer + "'");
-        System.out.println("   Correct answer from DB: '" + question.getCorrectAnswer() + "'");
-        System.out.println("   Question type: " + question.getType());
+    @Transactional(readOnly = true)
+    public Exam validateSubmission(Long examId, User student) {
+        Exam exam = getExamForStudent(examId);
 
-        if (studentAnswer == null || studentAnswer.trim().isEmpty()) {
-            System.out.println("   ❌ Student answer is null or empty");
-            return false;
+        // Check if exam is published
+        if (exam.getStatus() != ExamStatus.PUBLISHED) {
+            throw new RuntimeException("Exam is not published");
         }
 
-        String correctAnswer = question.getCorrectAnswer();
-        if (correctAnswer == null || correctAnswer.trim().isEmpty()) {
-            System.out.println("   ⚠️ WARNING: Correct answer is null or empty");
-            return false;
+        // Duplicate submissions are rejected by the (exam_id, student_id) unique key on insert
+        return exam;
+    }
+
+    /**
+     * Grades a submission against the exam's compiled answer key and returns an
+     * unsaved result with its answers attached. Must run inside a transaction.
+     */
+    public ExamResult gradeSubmission(Exam exam, TakeExamRequest request, User student) {
+        // Grade against the precompiled answer key: one lookup per answer
+        AnswerKey answerKey = answerKeyCache.forExam(exam);
+        int score = 0;
+        List<StudentAnswer> answers = new ArrayList<>(request.getAnswers().size());
+
+        for (AnswerRequest answerReq : request.getAnswers()) {
+            AnswerKey.Matcher matcher = answerKey.matcherFor(answerReq.getQuestionId());
+            if (matcher == null) {
+                System.out.println("❌ Question not found: " + answerReq.getQuestionId());
+                throw new RuntimeException("Question not found: " + answerReq.getQuestionId());
+            }
+
+            boolean isCorrect = matcher.matches(answerReq.getAnswer());
+            int pointsAwarded = isCorrect ? matcher.getPoints() : 0;
+
+            StudentAnswer studentAnswer = StudentAnswer.builder()
+                    .question(entityManager.getReference(Question.class, matcher.getQuestionId()))
+                    .answer(answerReq.getAnswer())
+                    .isCorrect(isCorrect)
+                    .pointsAwarded(pointsAwarded)
+                    .build();
+
+            answers.add(studentAnswer);
+            score += pointsAwarded;
         }
 
-        String studentAnswerTrimmed = studentAnswer.trim();
-        String correctAnswerTrimmed = correctAnswer.trim();
-
-        System.out.println("   Student answer (trimmed): '" + studentAnswerTrimmed + "'");
-        System.out.println("   Correct answer (trimmed): '" + correctAnswerTrimmed + "'");
-
-        boolean isCorrect = false;
-
-        switch (question.getType()) {
-            case MULTIPLE_CHOICE:
-                System.out.println("   🔵 MULTIPLE_CHOICE question");
-                System.out.println("   Options available:");
-                System.out.println("     1. '" + question.getOption1() + "'");
-                System.out.println("     2. '" + question.getOption2() + "'");
-                System.out.println("     3. '" + question.getOption3() + "'");
-                System.out.println("     4. '" + question.getOption4() + "'");
-
-                // Try to parse student answer as option index (1, 2, 3, 4)
-                try {
-                    int optionIndex = Integer.parseInt(studentAnswerTrimmed);
-                    System.out.println("   Student selected option index: " + optionIndex);
-
-                    // Get the option text for this index
-                    String selectedOptionText = null;
-                    switch (optionIndex) {
-                        case 1: selectedOptionText = question.getOption1(); break;
-                        case 2: selectedOptionText = question.getOption2(); break;
-                        case 3: selectedOptionText = question.getOption3(); break;
-                        case 4: selectedOptionText = question.getOption4(); break;
-                    }
+        // Calculate percentage
+        double percentage = (score * 100.0) / answerKey.getTotalMarks();
+
+        // Determine result status
+        ResultStatus status = percentage >= answerKey.getPassingMarks() ? ResultStatus.PASSED : ResultStatus.FAILED;
+
+        // Create exam result
+        ExamResult examResult = ExamResult.builder()
+                .exam(exam)
+                .student(student)
+                .score(score)
+                .totalMarks(answerKey.getTotalMarks())
+                .percentage(percentage)
+                .status(status)
+                .timeTaken(request.getTimeTaken())
+                .submittedAt(LocalDateTime.now())
+                .build();
 
-                    if (selectedOptionText != null) {
-                        System.out.println("   Selected option text: '" + selectedOptionText + "'");
-                        // Now compare the selected option text with the correct answer
-                        isCorrect = selectedOptionText.trim().equalsIgnoreCase(correctAnswerTrimmed);
-                        System.out.println("   Comparing '" + selectedOptionText.trim() + "' with '" + correctAnswerTrimmed + "'");
-                    } else {
-                        System.out.println("   ❌ Invalid option index: " + optionIndex);
-                        isCorrect = false;
-                    }
-                } catch (NumberFormatException e) {
-                    // Student answer is not a number (maybe they sent option text directly)
-                    System.out.println("   Student answer is not numeric, comparing directly");
-                    isCorrect = correctAnswerTrimmed.equalsIgnoreCase(studentAnswerTrimmed);
-                }
-                break;
-
-            case TRUE_FALSE:
-                System.out.println("   🔵 TRUE_FALSE question");
-                // Handle different formats for true/false
-                if (studentAnswerTrimmed.equalsIgnoreCase("true") ||
-                        studentAnswerTrimmed.equalsIgnoreCase("false")) {
-                    isCorrect = correctAnswerTrimmed.equalsIgnoreCase(studentAnswerTrimmed);
-                } else if (studentAnswerTrimmed.equalsIgnoreCase("t")) {
-                    isCorrect = correctAnswerTrimmed.equalsIgnoreCase("true");
-                } else if (studentAnswerTrimmed.equalsIgnoreCase("f")) {
-                    isCorrect = correctAnswerTrimmed.equalsIgnoreCase("false");
-                } else if (studentAnswerTrimmed.equals("1")) {
-                    // Some systems use 1 for true, 0 for false
-                    isCorrect = correctAnswerTrimmed.equalsIgnoreCase("true");
-                } else if (studentAnswerTrimmed.equals("0")) {
-                    isCorrect = correctAnswerTrimmed.equalsIgnoreCase("false");
-                }
-                break;
+        for (StudentAnswer answer : answers) {
+            answer.setExamResult(examResult);
+        }
+        examResult.setAnswers(answers);
 
-            case SHORT_ANSWER:
-                System.out.println("   🔵 SHORT_ANSWER question");
-                // For short answer, do case-insensitive comparison
-                isCorrect = correctAnswerTrimmed.equalsIgnoreCase(studentAnswerTrimmed);
-                break;
+        return examResult;
+    }
 
-            default:
-                System.out.println("   ❌ Unknown question type");
-                isCorrect = false;
+    /**
+     * Saves graded results and then all of their answers in one go, so that
+     * several submissions can share the same JDBC insert batches.
+     */
+    @Transactional
+    public List<ExamResult> persistResults(List<ExamResult> results) {
+        List<ExamResult> savedResults = examResultRepository.saveAll(results);
+
+        List<StudentAnswer> answers = new ArrayList<>();
+        for (ExamResult savedResult : savedResults) {
+            for (StudentAnswer answer : savedResult.getAnswers()) {
+                answer.setExamResult(savedResult);
+                answers.add(answer);
+            }
         }
+        studentAnswerRepository.saveAll(answers);
+
+        // Flush here so a duplicate (exam_id, student_id) surfaces as a translated
+        // DataIntegrityViolationException rather than at commit
+        examResultRepository.flush();
 
-        System.out.println("   Result: " + (isCorrect ? "✅ CORRECT" : "❌ INCORRECT"));
-        System.out.println("🔍 === isAnswerCorrect() END ===\n");
-        return isCorrect;
+        eventPublisher.publishEvent(new ExamResultsRecordedEvent(savedResults));
+        return savedResults;
     }
 
     @Transactional(readOnly = true)
-    public List<ExamResult> getExamResultsByStudent(User student) {
-        System.out.println("🔵 Getting exam results for student ID: " + student.getId());
+    public Optional<ExamResult> findSubmittedResult(Long examId, User student) {
+        return examResultRepository.findByExamIdAndStudentId(examId, student.getId());
+    }
 
-        List<ExamResult> results = examResultRepository.findByStudent(student);
-        System.out.println("🔵 Found " + results.size() + " results for student: " + student.getFullName());
+    /**
+     * Inserts the IN_PROGRESS result that autosaved answers are attached to until
+     * the attempt is submitted. Starting twice fails the insert on the
+     * (exam_id, student_id) unique key, like a duplicate submission does.
+     */
+    @Transactional
+    public ExamResult startAttempt(Long examId, User student, String owner) {
+        Exam exam = validateSubmission(examId, student);
+
+        LocalDateTime now = LocalDateTime.now();
+        ExamResult attempt = ExamResult.builder()
+                .exam(exam)
+                .student(student)
+                .score(0)
+                .totalMarks(exam.getTotalMarks())
+                .percentage(0.0)
+                .status(ResultStatus.IN_PROGRESS)
+                .startedAt(now)
+                .deadlineAt(exam.attemptDeadline(now))
+                .owner(owner)
+                .submittedAt(now)
+                .build();
 
-        // Eagerly load all necessary relationships within the transaction
-        results.forEach(result -> {
-            // Load exam
-            if (result.getExam() != null) {
-                // Initialize exam's basic fields
-                result.getExam().getTitle();
+        ExamResult savedAttempt = examResultRepository.save(attempt);
+        examResultRepository.flush();
+        return savedAttempt;
+    }
 
-                // Load exam's teacher (not createdBy)
-                if (result.getExam().getTeacher() != null) {
-                    result.getExam().getTeacher().getFullName();
-                }
+    /**
+     * Writes buffered answer changes for any number of attempts (attempt id ->
+     * question id -> answer). Existing rows are loaded with one query and
+     * updated in place; new ones are inserted, so both go out as JDBC batches.
+     */
+    @Transactional
+    public int writeAttemptAnswers(Map<Long, Map<Long, String>> changes) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        // An attempt another node closed meanwhile keeps the answers it was graded on
+        Set<Long> running = lockRunningAttempts(changes.keySet());
+        Map<Long, Map<Long, String>> writable = new HashMap<>(changes);
+        writable.keySet().retainAll(running);
+        return writeAnswers(writable);
+    }
 
-                // Load exam's questions count
-                if (result.getExam().getQuestions() != null) {
-                    result.getExam().getQuestions().size();
+    /**
+     * Writes answer changes of a single attempt right away, e.g. one held by
+     * another node, and fails if the attempt is no longer running.
+     */
+    @Transactional
+    public int writeRunningAttemptAnswers(Long attemptId, Map<Long, String> answers) {
+        if (lockRunningAttempts(List.of(attemptId)).isEmpty()) {
+            throw new RuntimeException("Attempt not found or already submitted");
+        }
+        return writeAnswers(Map.of(attemptId, answers));
+    }
+
+    // Caller holds the locks of the attempts, see lockRunningAttempts
+    private int writeAnswers(Map<Long, Map<Long, String>> changes) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Map<Long, StudentAnswer>> stored = new HashMap<>();
+        for (StudentAnswer answer : studentAnswerRepository.findByExamResultIdIn(changes.keySet())) {
+            stored.computeIfAbsent(answer.getExamResult().getId(), id -> new HashMap<>())
+                    .put(answer.getQuestion().getId(), answer);
+        }
+
+        List<StudentAnswer> inserts = new ArrayList<>();
+        int written = 0;
+        for (Map.Entry<Long, Map<Long, String>> attempt : changes.entrySet()) {
+            Map<Long, StudentAnswer> storedAnswers = stored.getOrDefault(attempt.getKey(), Map.of());
+
+            for (Map.Entry<Long, String> change : attempt.getValue().entrySet()) {
+                StudentAnswer answer = storedAnswers.get(change.getKey());
+                if (answer == null) {
+                    inserts.add(StudentAnswer.builder()
+                            .examResult(entityManager.getReference(ExamResult.class, attempt.getKey()))
+                            .question(entityManager.getReference(Question.class, change.getKey()))
+                            .answer(change.getValue())
+                            .isCorrect(false)
+                            .pointsAwarded(0)
+                            .build());
+                    written++;
+                } else if (!change.getValue().equals(answer.getAnswer())) {
+                    // Dirty checking turns this into a batched UPDATE at flush
+                    answer.setAnswer(change.getValue());
+                    written++;
                 }
             }
+        }
 
-            // Load student
-            if (result.getStudent() != null) {
-                result.getStudent().getFullName();
-            }
+        studentAnswerRepository.saveAll(inserts);
+        return written;
+    }
 
-            // Load answers
-            if (result.getAnswers() != null) {
-                result.getAnswers().size();
+    /**
+     * Writes the attempt's last buffered answers, then grades what is stored
+     * and turns the IN_PROGRESS row into the final result. An attempt submitted
+     * after its deadline is closed as EXPIRED, as if its deadline had fired.
+     */
+    @Transactional
+    public ExamResult completeAttempt(Long attemptId, Map<Long, String> pendingAnswers,
+                                      Integer timeTaken, String idempotencyKey) {
+        if (lockRunningAttempts(List.of(attemptId)).isEmpty()) {
+            throw new RuntimeException("This attempt has already been submitted");
+        }
+        if (!pendingAnswers.isEmpty()) {
+            writeAnswers(Map.of(attemptId, pendingAnswers));
+        }
+
+        ExamResult attempt = examResultRepository.findByIdWithAnswers(attemptId)
+                .orElseThrow(() -> new RuntimeException("Attempt not found with id: " + attemptId));
+
+        AnswerKey answerKey = gradeStoredAnswers(attempt);
+        LocalDateTime now = LocalDateTime.now();
+
+        if (attempt.getDeadlineAt() != null && now.isAfter(attempt.getDeadlineAt())) {
+            closeAsExpired(attempt, now);
+            attempt.setIdempotencyKey(idempotencyKey);
+            eventPublisher.publishEvent(new ExamResultsRecordedEvent(List.of(attempt)));
+            System.out.println("⏰ Attempt " + attemptId + " submitted after its deadline, closed as expired");
+            return attempt;
+        }
+
+        attempt.setStatus(attempt.getPercentage() >= answerKey.getPassingMarks() ? ResultStatus.PASSED : ResultStatus.FAILED);
+        attempt.setTimeTaken(timeTaken != null
+                ? timeTaken
+                : (int) Duration.between(attempt.getStartedAt(), now).toMinutes());
+        attempt.setSubmittedAt(now);
+        attempt.setIdempotencyKey(idempotencyKey);
+        eventPublisher.publishEvent(new ExamResultsRecordedEvent(List.of(attempt)));
+
+        System.out.println("✅ Attempt " + attemptId + " graded: " + attempt.getScore() + "/" + answerKey.getTotalMarks());
+        return attempt;
+    }
+
+    /**
+     * Closes attempts whose time ran out: writes their last buffered answers,
+     * grades what is stored and marks them EXPIRED, all in one transaction.
+     * Attempts that were submitted in the meantime are left alone.
+     */
+    @Transactional
+    public int expireAttempts(Map<Long, Map<Long, String>> pendingAnswers) {
+        Set<Long> running = lockRunningAttempts(pendingAnswers.keySet());
+        if (running.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Map<Long, String>> changes = new HashMap<>();
+        pendingAnswers.forEach((attemptId, answers) -> {
+            if (!answers.isEmpty() && running.contains(attemptId)) {
+                changes.put(attemptId, answers);
             }
         });
+        writeAnswers(changes);
+
+        List<ExamResult> expired = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (ExamResult attempt : examResultRepository.findAllByIdWithAnswers(running)) {
+            gradeStoredAnswers(attempt);
+            closeAsExpired(attempt, now);
+            expired.add(attempt);
+        }
+
+        if (!expired.isEmpty()) {
+            eventPublisher.publishEvent(new ExamResultsRecordedEvent(expired));
+        }
+        return expired.size();
+    }
+
+    // Time taken runs up to the deadline, however late the attempt is closed
+    private void closeAsExpired(ExamResult attempt, LocalDateTime now) {
+        LocalDateTime closedAt = attempt.getDeadlineAt() != null ? attempt.getDeadlineAt() : now;
+        attempt.setStatus(ResultStatus.EXPIRED);
+        attempt.setTimeTaken((int) Duration.between(attempt.getStartedAt(), closedAt).toMinutes());
+        attempt.setSubmittedAt(now);
+    }
+
+    /**
+     * Locks the attempts that are still IN_PROGRESS and returns their ids.
+     * Every write to a running attempt goes through here first, so two nodes
+     * never grade, expire or add answers to the same attempt concurrently.
+     */
+    private Set<Long> lockRunningAttempts(Collection<Long> attemptIds) {
+        return examResultRepository.findByIdInAndStatusOrderById(attemptIds, ResultStatus.IN_PROGRESS).stream()
+                .map(ExamResult::getId)
+                .collect(Collectors.toSet());
+    }
+
+    // Scores the answers stored on an attempt and sets score, total and percentage
+    private AnswerKey gradeStoredAnswers(ExamResult attempt) {
+        AnswerKey answerKey = answerKeyCache.forExam(attempt.getExam());
+        int score = 0;
+        for (StudentAnswer answer : attempt.getAnswers()) {
+            // Answers to questions removed since they were saved simply score nothing
+            AnswerKey.Matcher matcher = answerKey.matcherFor(answer.getQuestion().getId());
+            boolean isCorrect = matcher != null && matcher.matches(answer.getAnswer());
+            int pointsAwarded = isCorrect ? matcher.getPoints() : 0;
+
+            answer.setIsCorrect(isCorrect);
+            answer.setPointsAwarded(pointsAwarded);
+            score += pointsAwarded;
+        }
+
+        attempt.setScore(score);
+        attempt.setTotalMarks(answerKey.getTotalMarks());
+        attempt.setPercentage(answerKey.getTotalMarks() > 0 ? (score * 100.0) / answerKey.getTotalMarks() : 0.0);
+        return answerKey;
+    }
 
+    // Result list fetch plan: each finished result with its exam, the exam's teacher and the student
+    @Transactional(readOnly = true)
+    public List<ExamResult> getExamResultsByStudent(User student) {
+        System.out.println("🔵 Getting exam results for student ID: " + student.getId());
+
+        List<ExamResult> results = examResultRepository.findListByStudentIdAndStatusNot(student.getId(), ResultStatus.IN_PROGRESS);
+        System.out.println("🔵 Found " + results.size() + " results for student: " + student.getFullName());
         return results;
     }
 
+    // Result review fetch plan, for every finished result of the student
     @Transactional(readOnly = true)
-    public List<ExamResult> getExamResultsByExam(Long examId) {
-        System.out.println("🔵 Getting exam results for exam ID: " + examId);
+    public List<ExamResult> getExamResultReviewsByStudent(User student) {
+        List<ExamResult> results = examResultRepository.findReviewByStudentIdAndStatusNot(student.getId(), ResultStatus.IN_PROGRESS);
+        answerArchiver.restoreAnswers(results);
+        return results;
+    }
 
-        Exam exam = getExamById(examId);
-        System.out.println("🔵 Exam found: " + exam.getTitle());
+    /**
+     * One page of an exam's finished results, newest first, with the student
+     * loaded. Status and submission-date filters are optional (null).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ExamResult> getExamResultsPage(Long examId, ResultStatus status, LocalDateTime from,
+                                                     LocalDateTime to, String cursor, int limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<ExamResult> rows = examResultRepository.findPageByExamId(examId, ResultStatus.IN_PROGRESS, status,
+                from, to, KeysetCursor.atOf(after), KeysetCursor.idOf(after), Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, result -> KeysetCursor.encode(result.getSubmittedAt(), result.getId()));
+    }
 
-        List<ExamResult> results = examResultRepository.findByExam(exam);
-        System.out.println("🔵 Found " + results.size() + " results for exam: " + exam.getTitle());
+    /**
+     * One page of a student's finished results, newest first, with the exam
+     * and its teacher loaded.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ExamResult> getStudentResultsPage(Long studentId, ResultStatus status, LocalDateTime from,
+                                                        LocalDateTime to, String cursor, int limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<ExamResult> rows = examResultRepository.findPageByStudentId(studentId, ResultStatus.IN_PROGRESS, status,
+                from, to, KeysetCursor.atOf(after), KeysetCursor.idOf(after), Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, result -> KeysetCursor.encode(result.getSubmittedAt(), result.getId()));
+    }
 
-        // Eagerly load student details for each result
-        results.forEach(result -> {
-            if (result.getStudent() != null) {
-                String studentName = result.getStudent().getFullName();
-                System.out.println("🔵 Result for student: " + studentName +
-                        " - Score: " + result.getScore() +
-                        "/" + result.getTotalMarks());
-            } else {
-                System.out.println("⚠️ Result has no student associated!");
-            }
-        });
+    @Transactional(readOnly = true)
+    public List<ExamResult> getExamResultsByExam(Long examId) {
+        System.out.println("🔵 Getting exam results for exam ID: " + examId);
 
+        List<ExamResult> results = examResultRepository.findListByExamIdAndStatusNot(examId, ResultStatus.IN_PROGRESS);
+        System.out.println("🔵 Found " + results.size() + " results for exam ID: " + examId);
         return results;
     }
 
+    // Result list fetch plan: the result with its exam, the exam's teacher and the student
     @Transactional(readOnly = true)
     public ExamResult getExamResult(Long resultId) {
-        ExamResult result = examResultRepository.findById(resultId)
+        return examResultRepository.findListById(resultId)
                 .orElseThrow(() -> new RuntimeException("Exam result not found with id: " + resultId));
+    }
 
-        // Eagerly load exam and questions
-        if (result.getExam() != null && result.getExam().getQuestions() != null) {
-            result.getExam().getQuestions().size();
-        }
-
-        // Eagerly load student
-        if (result.getStudent() != null) {
-            result.getStudent().getFullName();
-        }
-
+    // Result review fetch plan: additionally every answer with its question
+    @Transactional(readOnly = true)
+    public ExamResult getExamResultForReview(Long resultId) {
+        ExamResult result = examResultRepository.findReviewByIdAndStatusNot(resultId, ResultStatus.IN_PROGRESS)
+                .orElseThrow(() -> new RuntimeException("Exam result not found with id: " + resultId));
+        answerArchiver.restoreAnswers(List.of(result));
         return result;
     }
 
+    // Teacher counters: one aggregate query each, independent of how many exams the teacher has
     @Transactional(readOnly = true)
     public long getTotalQuestionsForTeacher(Long teacherId) {
-        try {
-            User teacher = userService.getUserById(teacherId);
-            // FIXED: Use findByTeacher instead of findByCreatedBy
-            return examRepository.findByTeacher(teacher)
-                    .stream()
-                    .flatMap(exam -> exam.getQuestions().stream())
-                    .count();
-        } catch (Exception e) {
-            System.out.println("Error calculating total questions: " + e.getMessage());
-            return 0;
-        }
+        return questionRepository.countByTeacherId(teacherId);
     }
 
     @Transactional(readOnly = true)
     public long getTotalStudentsForTeacher(Long teacherId) {
-        try {
-            User teacher = userService.getUserById(teacherId);
-            // FIXED: Use findByTeacher instead of findByCreatedBy
-            return examRepository.findByTeacher(teacher)
-                    .stream()
-                    .flatMap(exam -> examResultRepository.findByExam(exam).stream())
-                    .map(result -> result.getStudent().getId())
-                    .distinct()
-                    .count();
-        } catch (Exception e) {
-            System.out.println("Error calculating total students: " + e.getMessage());
-            return 0;
-        }
+        return examResultRepository.countDistinctStudentsByTeacherIdAndStatusNot(teacherId, ResultStatus.IN_PROGRESS);
     }
 
     @Transactional(readOnly = true)
     public long getActiveExamsForTeacher(Long teacherId) {
-        try {
-            User teacher = userService.getUserById(teacherId);
-            // FIXED: Use findByTeacher instead of findByCreatedBy
-            return examRepository.findByTeacher(teacher)
-                    .stream()
-                    .filter(exam -> exam.getStatus() == ExamStatus.PUBLISHED)
-                    .count();
-        } catch (Exception e) {
-            System.out.println("Error calculating active exams: " + e.getMessage());
-            return 0;
-        }
+        return examRepository.countByTeacherIdAndStatusAndDeletedAtIsNull(teacherId, ExamStatus.PUBLISHED);
     }
 }
\ No newline at end of file
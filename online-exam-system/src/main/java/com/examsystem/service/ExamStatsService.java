@@ -0,0 +1,122 @@
+package com.examsystem.service;
+
+import com.examsystem.model.ExamResult;
+import com.examsystem.model.ExamStats;
+import com.examsystem.model.ResultStatus;
+import com.examsystem.repository.ExamStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@link ExamStats} in step with exam_results. Each batch of recorded
+ * results becomes one relative UPDATE per exam, executed in the transaction
+ * that stores the results, so concurrent submissions never lose increments.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExamStatsService {
+
+    private static final String BUCKET_COLUMNS = bucketColumns(column -> column);
+
+    private static final String UPDATE_SQL = "UPDATE exam_stats SET "
+            + "attempt_count = attempt_count + ?, pass_count = pass_count + ?, "
+            + "score_sum = score_sum + ?, score_square_sum = score_square_sum + ?, "
+            + "percentage_sum = percentage_sum + ?, "
+            + bucketColumns(column -> column + " = " + column + " + ?") + ", "
+            + "updated_at = ? WHERE exam_id = ?";
+
+    private static final String INSERT_SQL = "INSERT INTO exam_stats "
+            + "(attempt_count, pass_count, score_sum, score_square_sum, percentage_sum, "
+            + BUCKET_COLUMNS + ", updated_at, exam_id) VALUES ("
+            + "?, ?, ?, ?, ?, " + bucketColumns(column -> "?") + ", ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExamStatsRepository examStatsRepository;
+
+    @EventListener
+    public void onResultsRecorded(ExamResultsRecordedEvent event) {
+        // Rows are updated in exam id order, so two batches touching the same exams lock them
+        // in the same order and cannot deadlock
+        Map<Long, Delta> deltas = new TreeMap<>();
+        for (ExamResult result : event.results()) {
+            deltas.computeIfAbsent(result.getExam().getId(), examId -> new Delta()).add(result);
+        }
+        deltas.forEach(this::apply);
+    }
+
+    /**
+     * Stats for the given exams; exams without any result get an empty record.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ExamStats> getStats(Collection<Long> examIds) {
+        Map<Long, ExamStats> stats = examStatsRepository.findAllById(examIds).stream()
+                .collect(Collectors.toMap(ExamStats::getExamId, Function.identity()));
+        for (Long examId : examIds) {
+            stats.computeIfAbsent(examId, id -> ExamStats.builder().examId(id).build());
+        }
+        return stats;
+    }
+
+    private void apply(Long examId, Delta delta) {
+        Object[] args = delta.toArgs(examId);
+        if (jdbcTemplate.update(UPDATE_SQL, args) > 0) {
+            return;
+        }
+
+        // First result for this exam
+        try {
+            jdbcTemplate.update(INSERT_SQL, args);
+        } catch (DuplicateKeyException e) {
+            // A concurrent first result created the row in the meantime
+            jdbcTemplate.update(UPDATE_SQL, args);
+        }
+    }
+
+    private static String bucketColumns(Function<String, String> template) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (int i = 0; i < ExamStats.HISTOGRAM_BUCKETS; i++) {
+            joiner.add(template.apply("bucket_" + i));
+        }
+        return joiner.toString();
+    }
+
+    private static class Delta {
+        private long attempts;
+        private long passes;
+        private long scoreSum;
+        private long scoreSquareSum;
+        private double percentageSum;
+        private final long[] buckets = new long[ExamStats.HISTOGRAM_BUCKETS];
+
+        void add(ExamResult result) {
+            long score = result.getScore();
+            attempts++;
+            passes += result.getStatus() == ResultStatus.PASSED ? 1 : 0;
+            scoreSum += score;
+            scoreSquareSum += score * score;
+            percentageSum += result.getPercentage();
+            buckets[ExamStats.bucketOf(result.getPercentage())]++;
+        }
+
+        // Same parameter order for UPDATE_SQL and INSERT_SQL
+        Object[] toArgs(Long examId) {
+            List<Object> args = new ArrayList<>(List.of(attempts, passes, scoreSum, scoreSquareSum, percentageSum));
+            for (long bucket : buckets) {
+                args.add(bucket);
+            }
+            args.add(Timestamp.valueOf(LocalDateTime.now()));
+            args.add(examId);
+            return args.toArray();
+        }
+    }
+}
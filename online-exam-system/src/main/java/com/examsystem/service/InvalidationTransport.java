@@ -0,0 +1,23 @@
+package com.examsystem.service;
+
+import com.examsystem.model.InvalidationKind;
+
+import java.util.List;
+
+/**
+ * Carries cache invalidations between application nodes for
+ * CacheInvalidationBus. The default is the database outbox
+ * ({@link OutboxInvalidationTransport}); a broker-backed transport would
+ * buffer what it is pushed and hand it out from {@link #receive()}.
+ */
+public interface InvalidationTransport {
+
+    record Invalidation(InvalidationKind kind, String key) {
+    }
+
+    // Called inside the transaction that made the change, where there is one
+    void send(Invalidation invalidation);
+
+    // Invalidations from other nodes since the last call, oldest first
+    List<Invalidation> receive();
+}
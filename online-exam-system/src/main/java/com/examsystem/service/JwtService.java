@@ -1,31 +1,107 @@
 package com.examsystem.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
+    private final ObjectProvider<CacheMetrics> cacheMetrics;
+
     @Value("${app.jwt.secret}")
     private String secretKey;
 
     @Value("${app.jwt.expiration}")
     private long jwtExpiration;
 
+    @Value("${app.jwt.verified-cache.enabled:true}")
+    private boolean verifiedCacheEnabled;
+
+    @Value("${app.jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    // Built once: decoding the secret and the parser setup are the same for every token
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // SHA-256 of recently verified tokens; each entry lives until its token expires
+    private Cache<String, VerifiedToken> verified;
+
+    /**
+     * The parts of a verified token the application uses. Immutable, so one
+     * instance can be shared by every request presenting the same token.
+     */
+    public record VerifiedToken(String username, List<String> authorities, Instant expiresAt) {
+
+        public boolean isExpired() {
+            return !expiresAt.isAfter(Instant.now());
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        if (verifiedCacheEnabled) {
+            verified = Caffeine.newBuilder()
+                    .maximumSize(verifiedCacheMaxSize)
+                    .expireAfter(Expiry.creating((String digest, VerifiedToken token) ->
+                            Duration.between(Instant.now(), token.expiresAt())))
+                    .recordStats()
+                    .build();
+            cacheMetrics.ifAvailable(metrics -> metrics.register("verified-tokens", verified));
+        }
+    }
+
+    /**
+     * Checks the signature and expiry of the token once and returns its
+     * claims. A token seen recently is answered from the cache without
+     * running the HMAC again.
+     */
+    public VerifiedToken verify(String token) {
+        if (verified == null) {
+            return parse(token);
+        }
+        String digest = digest(token);
+        VerifiedToken cached = verified.getIfPresent(digest);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+        VerifiedToken parsed = parse(token);
+        verified.put(digest, parsed);
+        return parsed;
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).username();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -43,33 +119,37 @@ public class JwtService {
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        try {
+            VerifiedToken verifiedToken = verify(token);
+            return verifiedToken.username().equals(userDetails.getUsername()) && !verifiedToken.isExpired();
+        } catch (ExpiredJwtException e) {
+            return false;
+        }
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public Claims extractAllClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
-    public Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private VerifiedToken parse(String token) {
+        Claims claims = extractAllClaims(token);
+        List<?> authorities = claims.get("authorities", List.class);
+        return new VerifiedToken(claims.getSubject(),
+                authorities != null ? authorities.stream().map(String::valueOf).toList() : null,
+                claims.getExpiration().toInstant());
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.examsystem.service;
+
+import com.examsystem.model.CacheInvalidation;
+import com.examsystem.repository.CacheInvalidationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Invalidation transport over the cache_invalidations table, for deployments
+ * without a message broker. Every node inserts rows in the transaction of the
+ * change and polls for rows above its high-water mark.
+ *
+ * <p>Identity values are handed out at insert but become visible at commit,
+ * so a row may appear after higher ids were already read. Ids skipped over
+ * are remembered as gaps and looked up again on later polls until they show
+ * up or the gap timeout passes (a rolled-back insert never shows up).
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxInvalidationTransport implements InvalidationTransport {
+
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+
+    @Value("${app.cache.invalidation.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.cache.invalidation.gap-timeout-ms:30000}")
+    private long gapTimeoutMs;
+
+    @Value("${app.cache.invalidation.retention-ms:3600000}")
+    private long retentionMs;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Highest id read so far, and ids below it not seen yet (id -> when first missed); guarded by this
+    private long highWaterMark;
+    private final Map<Long, Long> gaps = new HashMap<>();
+
+    @PostConstruct
+    void init() {
+        // Caches start empty: nothing written before this node started concerns them
+        highWaterMark = cacheInvalidationRepository.findMaxId();
+    }
+
+    @Override
+    public void send(Invalidation invalidation) {
+        cacheInvalidationRepository.save(CacheInvalidation.builder()
+                .kind(invalidation.kind())
+                .entityKey(invalidation.key())
+                .originNode(nodeId)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    @Override
+    public synchronized List<Invalidation> receive() {
+        long now = System.currentTimeMillis();
+        gaps.values().removeIf(missedAt -> now - missedAt > gapTimeoutMs);
+
+        List<CacheInvalidation> rows = new ArrayList<>();
+        if (!gaps.isEmpty()) {
+            List<CacheInvalidation> filled = cacheInvalidationRepository.findAllById(gaps.keySet());
+            filled.forEach(row -> gaps.remove(row.getId()));
+            rows.addAll(filled);
+        }
+        for (CacheInvalidation row : cacheInvalidationRepository.findByIdGreaterThanOrderById(highWaterMark,
+                Limit.of(batchSize))) {
+            // A jump wider than a batch is not a commit race (e.g. an auto-increment jump); don't track it
+            if (row.getId() - highWaterMark <= batchSize) {
+                for (long missing = highWaterMark + 1; missing < row.getId(); missing++) {
+                    gaps.put(missing, now);
+                }
+            }
+            highWaterMark = row.getId();
+            rows.add(row);
+        }
+
+        return rows.stream()
+                .filter(row -> !nodeId.equals(row.getOriginNode()))
+                .sorted(Comparator.comparing(CacheInvalidation::getId))
+                .map(row -> new Invalidation(row.getKind(), row.getEntityKey()))
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.cleanup-interval-ms:600000}",
+            initialDelayString = "${app.cache.invalidation.cleanup-interval-ms:600000}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = cacheInvalidationRepository.deleteCreatedBefore(LocalDateTime.now().minus(Duration.ofMillis(retentionMs)));
+        if (deleted > 0) {
+            System.out.println("🧹 Deleted " + deleted + " delivered cache invalidations");
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.examsystem.service;
+
+import com.examsystem.dto.exam.ExamSummary;
+import com.examsystem.model.ExamResult;
+import com.examsystem.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * The student dashboard, assembled once into an immutable per-student
+ * snapshot and served from a bounded cache. A snapshot is dropped when the
+ * student's results are recorded, when any exam is published, updated or
+ * deleted, and when one of the listed exams reaches its start or end time.
+ * Its ETag comes from the data versions, so every node tags the same
+ * dashboard alike.
+ */
+@Service
+@RequiredArgsConstructor
+public class StudentDashboardService {
+
+    private final ExamService examService;
+    private final ContentVersionService contentVersionService;
+    private final CacheMetrics cacheMetrics;
+
+    @Value("${app.cache.dashboards.max-size:20000}")
+    private long maxSize;
+
+    @Value("${app.cache.dashboards.max-age-seconds:600}")
+    private long maxAgeSeconds;
+
+    // Bumped on exam changes, which drop every snapshot, including ones still being built
+    private final AtomicLong examGeneration = new AtomicLong();
+
+    private Cache<Long, DashboardSnapshot> snapshots;
+
+    /**
+     * One student's dashboard. {@code validUntil} is the next start or end
+     * time of a listed exam (null if none), when availability flags change.
+     */
+    public record DashboardSnapshot(Map<String, Object> body, String etag, LocalDateTime validUntil) {
+    }
+
+    @PostConstruct
+    void init() {
+        Duration maxAge = Duration.ofSeconds(maxAgeSeconds);
+        snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((Long studentId, DashboardSnapshot snapshot) ->
+                        snapshot.validUntil() == null ? maxAge
+                                : min(maxAge, Duration.between(LocalDateTime.now(), snapshot.validUntil()))))
+                .recordStats()
+                .build();
+        cacheMetrics.register("dashboards", snapshots);
+    }
+
+    /**
+     * A student's snapshot is built inside the cache's per-key computation, so
+     * invalidating that student waits for a build in progress and then drops
+     * it; other students' builds and invalidations are not affected.
+     */
+    @Transactional(readOnly = true)
+    public DashboardSnapshot getDashboard(User student) {
+        long examGenerationBeforeBuild = examGeneration.get();
+        DashboardSnapshot snapshot = snapshots.get(student.getId(), studentId -> build(student));
+        if (examGeneration.get() != examGenerationBeforeBuild) {
+            // An exam changed meanwhile; the snapshot may predate it
+            snapshots.asMap().remove(student.getId(), snapshot);
+        }
+        return snapshot;
+    }
+
+    // After commit, so a rebuild never reads the data from before the change
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResultsRecorded(ExamResultsRecordedEvent event) {
+        snapshots.invalidateAll(event.results().stream()
+                .map(result -> result.getStudent().getId())
+                .collect(Collectors.toSet()));
+    }
+
+    // Every student's upcoming list may include the exam
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onExamChanged(ExamChangedEvent event) {
+        examGeneration.incrementAndGet();
+        snapshots.invalidateAll();
+    }
+
+    // The student's results changed on another node
+    public void evict(Long studentId) {
+        snapshots.invalidate(studentId);
+    }
+
+    private DashboardSnapshot build(User student) {
+        System.out.println("🚀 Building dashboard for student ID: " + student.getId());
+        LocalDateTime now = LocalDateTime.now();
+        // Read before the data, so a change in between yields a stale tag and the next request refetches
+        String etag = contentVersionService.studentDashboardTag(student.getId());
+
+        List<ExamResult> studentResults = examService.getExamResultsByStudent(student);
+
+        // Available exams: published ones the student has no finished result for
+        Set<Long> takenExamIds = studentResults.stream()
+                .map(result -> result.getExam().getId())
+                .collect(Collectors.toSet());
+        List<ExamSummary> availableExams = examService.getPublishedExamSummaries().stream()
+                .filter(exam -> !takenExamIds.contains(exam.getId()))
+                .toList();
+
+        LocalDateTime validUntil = null;
+        List<Map<String, Object>> upcomingExamsData = new ArrayList<>();
+        for (ExamSummary exam : availableExams) {
+            Map<String, Object> examData = new HashMap<>();
+            examData.put("id", exam.getId());
+            examData.put("title", exam.getTitle());
+            examData.put("description", exam.getDescription());
+            examData.put("duration", exam.getDurationMinutes());
+            examData.put("totalQuestions", exam.getQuestionCount());
+            examData.put("totalMarks", exam.getTotalMarks());
+            examData.put("passingMarks", exam.getPassingMarks());
+            examData.put("status", exam.getStatus() != null ? exam.getStatus().name() : "UNKNOWN");
+            examData.put("isPublished", exam.getIsPublished());
+            examData.put("startTime", exam.getStartTime());
+            examData.put("endTime", exam.getEndTime());
+            examData.put("available", exam.isAvailable());
+            examData.put("createdBy", exam.getTeacherName() != null ? exam.getTeacherName() : "Unknown");
+            examData.put("createdAt", exam.getCreatedAt());
+            examData.put("publishedAt", exam.getPublishedAt());
+            upcomingExamsData.add(Collections.unmodifiableMap(examData));
+
+            validUntil = earliestAfter(now, validUntil, exam.getStartTime());
+            // Available through the end time itself, so the flag changes just after it
+            validUntil = earliestAfter(now, validUntil, exam.getEndTime() != null ? exam.getEndTime().plusNanos(1000) : null);
+        }
+
+        List<Map<String, Object>> completedExamsData = new ArrayList<>();
+        for (ExamResult result : studentResults) {
+            Map<String, Object> resultData = new HashMap<>();
+            resultData.put("id", result.getId());
+            resultData.put("examId", result.getExam().getId());
+            resultData.put("examTitle", result.getExam().getTitle());
+            resultData.put("score", result.getScore());
+            resultData.put("totalMarks", result.getTotalMarks());
+            resultData.put("percentage", result.getPercentage());
+            resultData.put("status", result.getStatus().toString());
+            resultData.put("dateTaken", result.getSubmittedAt());
+            resultData.put("createdBy", result.getExam().getTeacher() != null ?
+                    result.getExam().getTeacher().getFullName() : "Unknown");
+            completedExamsData.add(Collections.unmodifiableMap(resultData));
+        }
+
+        double averageScore = studentResults.stream()
+                .mapToDouble(ExamResult::getPercentage)
+                .average()
+                .orElse(0.0);
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalExams", (long) (availableExams.size() + studentResults.size()));
+        stats.put("completedExams", (long) studentResults.size());
+        stats.put("averageScore", Math.round(averageScore * 100.0) / 100.0);
+        stats.put("upcomingExams", (long) availableExams.size());
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("upcomingExams", Collections.unmodifiableList(upcomingExamsData));
+        body.put("completedExams", Collections.unmodifiableList(completedExamsData));
+        body.put("stats", Collections.unmodifiableMap(stats));
+
+        System.out.println("✅ Dashboard built: " + upcomingExamsData.size() + " upcoming, "
+                + completedExamsData.size() + " completed");
+        return new DashboardSnapshot(Collections.unmodifiableMap(body), etag, validUntil);
+    }
+
+    private static LocalDateTime earliestAfter(LocalDateTime now, LocalDateTime current, LocalDateTime candidate) {
+        if (candidate == null || !candidate.isAfter(now)) {
+            return current;
+        }
+        return current == null || candidate.isBefore(current) ? candidate : current;
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
@@ -0,0 +1,95 @@
+package com.examsystem.service;
+
+import com.examsystem.config.NodeIdentity;
+import com.examsystem.dto.exam.TakeExamRequest;
+import com.examsystem.model.*;
+import com.examsystem.repository.SubmissionTicketRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Grades and persists a batch of queued submissions in a single transaction.
+ * Results and answers of the whole batch are saved together so their inserts
+ * share JDBC batches. Tickets are claimed for this node first, so a ticket
+ * queued on several nodes (e.g. recovered by each at startup) is graded once.
+ */
+@Service
+@RequiredArgsConstructor
+public class SubmissionBatchProcessor {
+
+    private final SubmissionTicketRepository ticketRepository;
+    private final ExamService examService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final NodeIdentity nodeIdentity;
+
+    @Value("${app.submission.async.claim-timeout-ms:300000}")
+    private long claimTimeoutMs;
+
+    /**
+     * Claims the given tickets for this node in a transaction of its own and
+     * returns the ids it now owns. Tickets another node holds are left out,
+     * unless that claim is older than the claim timeout (its node died).
+     */
+    @Transactional
+    public List<Long> claim(List<Long> ticketIds) {
+        ticketRepository.claim(ticketIds, SubmissionStatus.QUEUED, nodeIdentity.id(), LocalDateTime.now(), staleClaimsBefore());
+        return ticketRepository.findIdsByIdInAndStatusAndOwner(ticketIds, SubmissionStatus.QUEUED, nodeIdentity.id());
+    }
+
+    // Claims made before this are taken to belong to a node that died
+    public LocalDateTime staleClaimsBefore() {
+        return LocalDateTime.now().minus(Duration.ofMillis(claimTimeoutMs));
+    }
+
+    @Transactional
+    public int process(List<Long> ticketIds) {
+        List<SubmissionTicket> tickets = new ArrayList<>();
+        List<ExamResult> results = new ArrayList<>();
+
+        for (SubmissionTicket ticket : ticketRepository.findByIdInOrderById(ticketIds)) {
+            // Only tickets this node claimed
+            if (ticket.getStatus() != SubmissionStatus.QUEUED || !nodeIdentity.id().equals(ticket.getOwner())) {
+                continue;
+            }
+
+            User student = entityManager.getReference(User.class, ticket.getStudentId());
+            Exam exam = examService.validateSubmission(ticket.getExamId(), student);
+            TakeExamRequest request = objectMapper.readValue(ticket.getPayload(), TakeExamRequest.class);
+
+            tickets.add(ticket);
+            results.add(examService.gradeSubmission(exam, request, student));
+        }
+
+        List<ExamResult> savedResults = examService.persistResults(results);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < tickets.size(); i++) {
+            SubmissionTicket ticket = tickets.get(i);
+            ticket.setStatus(SubmissionStatus.COMPLETED);
+            ticket.setResultId(savedResults.get(i).getId());
+            ticket.setCompletedAt(now);
+        }
+
+        return tickets.size();
+    }
+
+    @Transactional
+    public void markFailed(Long ticketId, String error) {
+        ticketRepository.findById(ticketId)
+                .filter(ticket -> ticket.getStatus() != SubmissionStatus.COMPLETED)
+                .ifPresent(ticket -> {
+                    ticket.setStatus(SubmissionStatus.FAILED);
+                    ticket.setError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+                    ticket.setCompletedAt(LocalDateTime.now());
+                });
+    }
+}
@@ -0,0 +1,267 @@
+package com.examsystem.service;
+
+import com.examsystem.config.NodeIdentity;
+import com.examsystem.dto.exam.AnswerRequest;
+import com.examsystem.dto.exam.TakeExamRequest;
+import com.examsystem.model.Exam;
+import com.examsystem.model.SubmissionStatus;
+import com.examsystem.model.SubmissionTicket;
+import com.examsystem.model.User;
+import com.examsystem.repository.SubmissionTicketRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous submission pipeline. Submissions are validated, stored as
+ * {@link SubmissionTicket}s and queued; a small worker pool drains the queue in
+ * batches so the end-of-exam spike becomes steady, batched write traffic.
+ * Workers claim tickets for this node before grading them. Unclaimed tickets
+ * and this node's own claims are queued again on startup; tickets of a node
+ * that died are picked up by the periodic recovery once their claim is stale.
+ */
+@Service
+@RequiredArgsConstructor
+public class SubmissionQueueService {
+
+    private static final List<SubmissionStatus> PENDING = List.of(SubmissionStatus.QUEUED);
+
+    private final SubmissionTicketRepository ticketRepository;
+    private final SubmissionBatchProcessor batchProcessor;
+    private final ExamService examService;
+    private final AnswerKeyCache answerKeyCache;
+    private final ObjectMapper objectMapper;
+    private final NodeIdentity nodeIdentity;
+
+    @Value("${app.submission.async.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.submission.async.queue-capacity:5000}")
+    private int queueCapacity;
+
+    @Value("${app.submission.async.workers:2}")
+    private int workerCount;
+
+    @Value("${app.submission.async.batch-size:50}")
+    private int batchSize;
+
+    private final BlockingQueue<Long> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    // Ticket ids queued or in a worker's batch, so recovery never queues one twice
+    private final Set<Long> queuedIds = ConcurrentHashMap.newKeySet();
+    private final Map<Long, List<Consumer<SubmissionTicket>>> waiters = new ConcurrentHashMap<>();
+
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public SubmissionTicket enqueue(Long examId, TakeExamRequest request, User student) {
+        Exam exam = examService.validateSubmission(examId, student);
+
+        // Reject unknown questions now rather than failing later in a worker
+        AnswerKey answerKey = answerKeyCache.forExam(exam);
+        for (AnswerRequest answer : request.getAnswers()) {
+            if (answerKey.matcherFor(answer.getQuestionId()) == null) {
+                throw new RuntimeException("Question not found: " + answer.getQuestionId());
+            }
+        }
+
+        if (ticketRepository.existsByExamIdAndStudentIdAndStatusIn(examId, student.getId(), PENDING)) {
+            throw new RuntimeException("Your submission for this exam is already being processed");
+        }
+
+        if (pending.incrementAndGet() > queueCapacity) {
+            pending.decrementAndGet();
+            throw new QueueFullException("Submission queue is full, please retry shortly");
+        }
+
+        try {
+            SubmissionTicket ticket = ticketRepository.save(SubmissionTicket.builder()
+                    .examId(examId)
+                    .studentId(student.getId())
+                    .payload(objectMapper.writeValueAsString(request))
+                    .status(SubmissionStatus.QUEUED)
+                    .build());
+            queuedIds.add(ticket.getId());
+            queue.add(ticket.getId());
+            return ticket;
+        } catch (RuntimeException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    public Optional<SubmissionTicket> getTicket(Long ticketId, User student) {
+        return ticketRepository.findByIdAndStudentId(ticketId, student.getId());
+    }
+
+    /**
+     * Calls back once the ticket leaves the queue. If it already has, the
+     * callback runs immediately on the caller's thread.
+     */
+    public void onCompletion(SubmissionTicket ticket, Consumer<SubmissionTicket> callback) {
+        waiters.computeIfAbsent(ticket.getId(), id -> new CopyOnWriteArrayList<>()).add(callback);
+
+        // Re-check so a completion that raced the registration is not missed
+        ticketRepository.findById(ticket.getId())
+                .filter(current -> current.getStatus() != SubmissionStatus.QUEUED)
+                .ifPresent(current -> notifyWaiters(List.of(current)));
+    }
+
+    public void cancelWaiter(Long ticketId, Consumer<SubmissionTicket> callback) {
+        waiters.computeIfPresent(ticketId, (id, callbacks) -> {
+            callbacks.remove(callback);
+            return callbacks.isEmpty() ? null : callbacks;
+        });
+    }
+
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        // Every unclaimed ticket, whichever node queued it: claiming decides who grades it
+        recover(nodeIdentity.id(), LocalDateTime.now());
+
+        running = true;
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "submission-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::runWorker);
+        }
+    }
+
+    /**
+     * Queues tickets no live node is working on: unclaimed ones older than
+     * the claim timeout and ones whose claim has gone stale.
+     */
+    @Scheduled(fixedDelayString = "${app.submission.async.recovery-interval-ms:60000}",
+            initialDelayString = "${app.submission.async.recovery-interval-ms:60000}")
+    public void recoverStale() {
+        if (running) {
+            recover(null, batchProcessor.staleClaimsBefore());
+        }
+    }
+
+    private void recover(String owner, LocalDateTime queuedBefore) {
+        List<Long> recovered = ticketRepository.findIdsToRecover(SubmissionStatus.QUEUED, owner, queuedBefore,
+                batchProcessor.staleClaimsBefore()).stream()
+                .filter(queuedIds::add)
+                .toList();
+        pending.addAndGet(recovered.size());
+        queue.addAll(recovered);
+        if (!recovered.isEmpty()) {
+            System.out.println("📥 Recovered " + recovered.size() + " queued submissions");
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    private void runWorker() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Long first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.out.println("❌ Submission worker error: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                pending.addAndGet(-batch.size());
+                queuedIds.removeAll(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void processBatch(List<Long> queuedIds) {
+        List<Long> ticketIds = batchProcessor.claim(queuedIds);
+        if (ticketIds.isEmpty()) {
+            // All graded or being graded elsewhere
+            return;
+        }
+
+        try {
+            int processed = batchProcessor.process(ticketIds);
+            System.out.println("✅ Processed " + processed + " queued submissions");
+        } catch (Exception batchError) {
+            // One bad submission must not sink the whole batch: retry one by one
+            System.out.println("⚠️ Batch of " + ticketIds.size() + " failed, retrying individually: " + batchError.getMessage());
+            for (Long ticketId : ticketIds) {
+                try {
+                    batchProcessor.process(List.of(ticketId));
+                } catch (DataIntegrityViolationException e) {
+                    System.out.println("❌ Submission ticket " + ticketId + " is a duplicate");
+                    batchProcessor.markFailed(ticketId, "You have already taken this exam");
+                } catch (Exception e) {
+                    System.out.println("❌ Submission ticket " + ticketId + " failed: " + e.getMessage());
+                    batchProcessor.markFailed(ticketId, e.getMessage());
+                }
+            }
+        }
+
+        List<Long> watched = ticketIds.stream().filter(waiters::containsKey).toList();
+        if (!watched.isEmpty()) {
+            notifyWaiters(ticketRepository.findAllById(watched));
+        }
+    }
+
+    private void notifyWaiters(List<SubmissionTicket> tickets) {
+        for (SubmissionTicket ticket : tickets) {
+            List<Consumer<SubmissionTicket>> callbacks = waiters.remove(ticket.getId());
+            if (callbacks == null) {
+                continue;
+            }
+            for (Consumer<SubmissionTicket> callback : callbacks) {
+                try {
+                    callback.accept(ticket);
+                } catch (Exception e) {
+                    System.out.println("⚠️ Submission waiter failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    public static class QueueFullException extends RuntimeException {
+        public QueueFullException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.examsystem.service;
+
+import com.examsystem.dto.exam.TakeExamRequest;
+import com.examsystem.model.ExamResult;
+import com.examsystem.model.ResultStatus;
+import com.examsystem.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Idempotent front for synchronous submissions. There is no "already taken"
+ * read before the insert: the (exam_id, student_id) unique key decides, and a
+ * losing insert falls back to fetching the stored result. A retry carrying
+ * the Idempotency-Key of the stored result gets that result back without
+ * grading when this node saw the key recently; otherwise its insert is
+ * refused by the unique key and the stored row, which keeps the key, is
+ * returned, so restarts and other nodes replay too.
+ */
+@Service
+@RequiredArgsConstructor
+public class SubmissionService {
+
+    private static final int MAX_REMEMBERED_KEYS = 10_000;
+
+    private final ExamService examService;
+    private final AttemptService attemptService;
+
+    // (studentId:examId:idempotencyKey) -> resultId, least recently used evicted first
+    private final Map<String, Long> recentKeys = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_REMEMBERED_KEYS;
+        }
+    };
+
+    /**
+     * Must not be called inside an open transaction: a failed insert has to roll
+     * back on its own before the existing result is fetched.
+     */
+    public ExamResult submit(Long examId, TakeExamRequest request, User student, String idempotencyKey) {
+        checkIdempotencyKey(idempotencyKey);
+        String rememberedKey = idempotencyKey != null
+                ? student.getId() + ":" + examId + ":" + idempotencyKey
+                : null;
+
+        if (rememberedKey != null) {
+            Long resultId;
+            synchronized (recentKeys) {
+                resultId = recentKeys.get(rememberedKey);
+            }
+            if (resultId != null) {
+                System.out.println("🔁 Idempotent replay of submission " + resultId);
+                return examService.getExamResult(resultId);
+            }
+        }
+
+        ExamResult result;
+        try {
+            // A started attempt already holds the row: grade it instead of inserting
+            Long attemptId = attemptService.activeAttemptId(examId, student.getId());
+            result = attemptId != null
+                    ? attemptService.submitAttempt(attemptId, request, student, idempotencyKey)
+                    : examService.submitExam(examId, request, student, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            ExamResult existing = examService.findSubmittedResult(examId, student)
+                    .orElseThrow(() -> e);
+
+            if (existing.getStatus() == ResultStatus.IN_PROGRESS) {
+                // An attempt started on another node: submit that attempt
+                result = attemptService.submitAttempt(existing.getId(), request, student, idempotencyKey);
+            } else if (rememberedKey == null || !Objects.equals(existing.getIdempotencyKey(), idempotencyKey)) {
+                // Only a retry of the same request may see the stored result
+                throw new RuntimeException("You have already taken this exam");
+            } else {
+                // Not seen here, but the stored row still knows the key that created it
+                System.out.println("🔁 Idempotent replay of submission " + existing.getId() + " (stored key)");
+                result = existing;
+            }
+        }
+
+        if (rememberedKey != null) {
+            remember(rememberedKey, result);
+        }
+        return result;
+    }
+
+    /**
+     * Rejects an Idempotency-Key that is blank or longer than the stored
+     * column, before anything is graded; a missing key is fine.
+     */
+    public static void checkIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey != null
+                && (idempotencyKey.isBlank() || idempotencyKey.length() > ExamResult.MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to "
+                    + ExamResult.MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+    }
+
+    private void remember(String rememberedKey, ExamResult result) {
+        synchronized (recentKeys) {
+            recentKeys.put(rememberedKey, result.getId());
+        }
+    }
+}
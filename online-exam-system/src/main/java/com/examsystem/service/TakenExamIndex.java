@@ -0,0 +1,95 @@
+package com.examsystem.service;
+
+import com.examsystem.model.ExamResult;
+import com.examsystem.model.ResultStatus;
+import com.examsystem.repository.ExamResultRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Per-student set of exam ids the student has finished, as a compressed
+ * bitmap. The first lookup for a student runs one id-only query; after that,
+ * recorded results are added as they commit, so "available exams" filtering
+ * is a bitmap probe per exam instead of loading the student's results.
+ *
+ * <p>Loads, additions and evictions of one student run as atomic operations on
+ * that student's cache entry, so a result committed while the student's bitmap
+ * is loading is applied after the load instead of being lost, and other
+ * students are never held up.
+ *
+ * <p>Bitmaps are copy-on-write: a returned bitmap is never modified, so
+ * callers may read it without locking but must not change it.
+ */
+@Component
+@RequiredArgsConstructor
+public class TakenExamIndex {
+
+    private final ExamResultRepository examResultRepository;
+    private final ObjectProvider<CacheMetrics> cacheMetrics;
+
+    @Value("${app.cache.taken-exams.max-size:50000}")
+    private long maxSize;
+
+    // studentId -> taken exam ids
+    private Cache<Long, RoaringBitmap> takenByStudent;
+
+    @PostConstruct
+    void init() {
+        takenByStudent = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        cacheMetrics.ifAvailable(metrics -> metrics.register("taken-exams", takenByStudent));
+    }
+
+    public RoaringBitmap takenExamIds(Long studentId) {
+        return takenByStudent.get(studentId, this::load);
+    }
+
+    public boolean hasTaken(Long studentId, Long examId) {
+        return isTaken(takenExamIds(studentId), examId);
+    }
+
+    public static boolean isTaken(RoaringBitmap taken, Long examId) {
+        return taken.contains(Math.toIntExact(examId));
+    }
+
+    // After commit, so a rolled-back submission never marks an exam as taken
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onResultsRecorded(ExamResultsRecordedEvent event) {
+        for (ExamResult result : event.results()) {
+            int examId = Math.toIntExact(result.getExam().getId());
+
+            // Not cached: the next lookup loads it from the database
+            takenByStudent.asMap().computeIfPresent(result.getStudent().getId(), (studentId, current) -> {
+                if (current.contains(examId)) {
+                    return current;
+                }
+                RoaringBitmap updated = current.clone();
+                updated.add(examId);
+                return updated;
+            });
+        }
+    }
+
+    // The student's results changed on another node: reload on the next lookup
+    public void evict(Long studentId) {
+        takenByStudent.invalidate(studentId);
+    }
+
+    private RoaringBitmap load(Long studentId) {
+        RoaringBitmap loaded = new RoaringBitmap();
+        for (Long examId : examResultRepository.findExamIdsByStudentIdAndStatusNot(studentId, ResultStatus.IN_PROGRESS)) {
+            loaded.add(Math.toIntExact(examId));
+        }
+        loaded.runOptimize();
+        return loaded;
+    }
+}
@@ -0,0 +1,8 @@
+package com.examsystem.service;
+
+/**
+ * Published when a user row is updated or deleted, after the local principal
+ * cache has dropped the user; CacheInvalidationBus passes it to the other nodes.
+ */
+public record UserChangedEvent(String username) {
+}
@@ -0,0 +1,124 @@
+package com.examsystem.service;
+
+import com.examsystem.repository.UserRepository;
+import com.examsystem.util.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bloom filter of every username and email in use, in front of the
+ * registration form's availability checks. A name the filter has never seen
+ * is answered as free without a query; only possible hits are confirmed
+ * against the users table.
+ *
+ * <p>Keys are folded (case, accents, ß) at least as far as the database
+ * collation compares them, so a name the database would match is never
+ * reported free; folding further only costs a confirming query. Built at
+ * startup and rebuilt periodically, which also drops names of deleted users.
+ * Names taken on other nodes arrive through the CacheInvalidationBus.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserIdentifierIndex {
+
+    private static final String USERNAME = "u:";
+    private static final String EMAIL = "e:";
+
+    private final UserRepository userRepository;
+
+    @Value("${app.auth.identifier-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.auth.identifier-filter.batch-size:5000}")
+    private int batchSize;
+
+    // Null until the first build: every name may then exist
+    private volatile BloomFilter filter;
+
+    // The filter being rebuilt; additions go to both so none is lost in the swap
+    private volatile BloomFilter building;
+
+    public boolean usernameExists(String username) {
+        return mightContain(USERNAME, username) && userRepository.existsByUsername(username);
+    }
+
+    public boolean emailExists(String email) {
+        return mightContain(EMAIL, email) && userRepository.existsByEmail(email);
+    }
+
+    private boolean mightContain(String prefix, String value) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(prefix + fold(value));
+    }
+
+    // After commit: a rebuild started after this point reads the row itself
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIdentifiersAdded(UserIdentifiersAddedEvent event) {
+        add(event.username(), event.email());
+    }
+
+    public void add(String username, String email) {
+        addUsername(username);
+        addEmail(email);
+    }
+
+    public void addUsername(String username) {
+        addKey(USERNAME + fold(username));
+    }
+
+    public void addEmail(String email) {
+        addKey(EMAIL + fold(email));
+    }
+
+    private void addKey(String key) {
+        // building before filter: if no rebuild is running yet, a later one reads the row; if one just
+        // finished, filter is already its result
+        for (BloomFilter target : new BloomFilter[]{building, filter}) {
+            if (target != null) {
+                target.add(key);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.auth.identifier-filter.rebuild-interval-ms:3600000}",
+            initialDelayString = "${app.auth.identifier-filter.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        // Two keys per user, with room for the user count to double before the next rebuild
+        long users = userRepository.count();
+        BloomFilter next = BloomFilter.create(Math.max(1_000, users * 4), falsePositiveRate);
+        building = next;
+        try {
+            long afterId = 0;
+            List<Object[]> rows;
+            do {
+                rows = userRepository.findIdentifiersAfter(afterId, Limit.of(batchSize));
+                for (Object[] row : rows) {
+                    afterId = (Long) row[0];
+                    next.add(USERNAME + fold((String) row[1]));
+                    next.add(EMAIL + fold((String) row[2]));
+                }
+            } while (rows.size() == batchSize);
+            filter = next;
+        } finally {
+            building = null;
+        }
+        System.out.println("🌸 Built username/email filter for " + users + " users (" + next.bitCount() / 8 / 1024
+                + " KB, " + next.hashCount() + " hashes)");
+    }
+
+    static String fold(String value) {
+        String decomposed = Normalizer.normalize(value.strip(), Normalizer.Form.NFKD);
+        return decomposed.replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT).replace("ß", "ss");
+    }
+}
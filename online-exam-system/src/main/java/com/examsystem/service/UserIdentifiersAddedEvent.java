@@ -0,0 +1,10 @@
+package com.examsystem.service;
+
+/**
+ * Published inside the writing transaction when a username or email comes
+ * into use: on registration and when a user's email is changed.
+ * UserIdentifierIndex adds both after commit; CacheInvalidationBus passes
+ * them on to the other nodes.
+ */
+public record UserIdentifiersAddedEvent(String username, String email) {
+}
@@ -1,10 +1,19 @@
 // src/main/java/com/examsystem/service/UserService.java
 package com.examsystem.service;
 
+import com.examsystem.dto.CursorPage;
 import com.examsystem.model.Role;
 import com.examsystem.model.User;
 import com.examsystem.repository.UserRepository;
+import com.examsystem.util.KeysetCursor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -12,6 +21,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,11 +31,47 @@ public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ObjectProvider<CacheMetrics> cacheMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.cache.principals.max-size:10000}")
+    private long principalMaxSize;
+
+    @Value("${app.cache.principals.ttl-seconds:300}")
+    private long principalTtlSeconds;
+
+    // Every authenticated request resolves its user here; unknown usernames are not cached
+    private Cache<String, User> principals;
+
+    @PostConstruct
+    void init() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(principalMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(principalTtlSeconds))
+                .recordStats()
+                .build();
+        cacheMetrics.ifAvailable(metrics -> metrics.register("principals", principals));
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+        return principals.get(username, key -> userRepository.findByUsername(key)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + key)));
+    }
+
+    /**
+     * Drops the cached principal here and, through the invalidation bus, on
+     * the other nodes. Needed after any change to a user row made outside
+     * updateUser/deleteUser.
+     */
+    public void principalChanged(String username) {
+        evictPrincipal(username);
+        eventPublisher.publishEvent(new UserChangedEvent(username));
+    }
+
+    // This node only; see principalChanged
+    public void evictPrincipal(String username) {
+        principals.invalidate(username);
     }
 
     @Transactional
@@ -43,7 +89,9 @@ public class UserService implements UserDetailsService {
         // Encode password
         user.setPassword(passwordEncoder.encode(user.getPassword()));
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserIdentifiersAddedEvent(saved.getUsername(), saved.getEmail()));
+        return saved;
     }
     
     public boolean userExists(String username) {
@@ -81,6 +129,14 @@ public class UserService implements UserDetailsService {
         return userRepository.findAll();
     }
 
+    // One page of users in id order; role and enabled filters are optional (null)
+    @Transactional(readOnly = true)
+    public CursorPage<User> getUsersPage(Role role, Boolean enabled, String cursor, int limit) {
+        List<User> rows = userRepository.findPage(role, enabled, KeysetCursor.idOf(KeysetCursor.decode(cursor)),
+                Limit.of(limit + 1));
+        return CursorPage.of(rows, limit, user -> KeysetCursor.encode(null, user.getId()));
+    }
+
     public List<User> getUsersByRole(Role role) {
         return userRepository.findByRole(role);
     }
@@ -93,8 +149,9 @@ public class UserService implements UserDetailsService {
         if (userDetails.getFullName() != null) {
             user.setFullName(userDetails.getFullName());
         }
-        if (userDetails.getEmail() != null) {
+        if (userDetails.getEmail() != null && !userDetails.getEmail().equals(user.getEmail())) {
             user.setEmail(userDetails.getEmail());
+            eventPublisher.publishEvent(new UserIdentifiersAddedEvent(user.getUsername(), user.getEmail()));
         }
         if (userDetails.getRole() != null) {
             user.setRole(userDetails.getRole());
@@ -103,13 +160,15 @@ public class UserService implements UserDetailsService {
             user.setEnabled(userDetails.isEnabled());
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        principalChanged(saved.getUsername());
+        return saved;
     }
 
     public void deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new RuntimeException("User not found with id: " + id);
-        }
-        userRepository.deleteById(id);
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        userRepository.delete(user);
+        principalChanged(user.getUsername());
     }
 }
\ No newline at end of file
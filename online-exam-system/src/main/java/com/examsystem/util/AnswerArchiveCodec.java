@@ -0,0 +1,76 @@
+package com.examsystem.util;
+
+import com.examsystem.model.Question;
+import com.examsystem.model.StudentAnswer;
+
+import java.io.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Packs a result's answers into one gzip-compressed binary blob and back.
+ * Per answer only the id, question id, answer text, grading and creation
+ * time are kept; the update timestamp and row overhead are dropped. The
+ * leading version byte leaves room to change the layout later.
+ */
+public final class AnswerArchiveCodec {
+
+    private static final int VERSION = 1;
+
+    private AnswerArchiveCodec() {
+    }
+
+    public static byte[] encode(List<StudentAnswer> answers) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeByte(VERSION);
+            out.writeInt(answers.size());
+            for (StudentAnswer answer : answers) {
+                out.writeLong(answer.getId());
+                out.writeLong(answer.getQuestion().getId());
+                out.writeUTF(answer.getAnswer() != null ? answer.getAnswer() : "");
+                out.writeBoolean(Boolean.TRUE.equals(answer.getIsCorrect()));
+                out.writeInt(answer.getPointsAwarded() != null ? answer.getPointsAwarded() : 0);
+                out.writeLong(answer.getCreatedAt() != null
+                        ? answer.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli() : 0L);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Rebuilds detached answers; {@code questions} resolves each stored
+     * question id (retired questions included).
+     */
+    public static List<StudentAnswer> decode(byte[] payload, Function<Long, Question> questions) {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(payload)))) {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unknown answer archive version " + version);
+            }
+            int count = in.readInt();
+            List<StudentAnswer> answers = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                StudentAnswer answer = new StudentAnswer();
+                answer.setId(in.readLong());
+                answer.setQuestion(questions.apply(in.readLong()));
+                answer.setAnswer(in.readUTF());
+                answer.setIsCorrect(in.readBoolean());
+                answer.setPointsAwarded(in.readInt());
+                answer.setCreatedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(in.readLong()), ZoneOffset.UTC));
+                answers.add(answer);
+            }
+            return answers;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
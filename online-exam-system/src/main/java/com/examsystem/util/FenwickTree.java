@@ -0,0 +1,75 @@
+package com.examsystem.util;
+
+/**
+ * Fenwick (binary indexed) tree of counts over the buckets {@code 0..size-1}:
+ * adding to a bucket and summing a prefix of buckets both take O(log size).
+ * Not thread-safe; callers synchronize.
+ */
+public class FenwickTree {
+
+    // 1-based: tree[i] holds the sum of the buckets (i - lowbit(i), i]
+    private final long[] tree;
+    private long total;
+
+    public FenwickTree(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Fenwick tree size must be positive");
+        }
+        this.tree = new long[size + 1];
+    }
+
+    /**
+     * Tree over the given bucket counts, built in O(size).
+     */
+    public static FenwickTree of(long[] counts) {
+        FenwickTree fenwick = new FenwickTree(counts.length);
+        long[] tree = fenwick.tree;
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] += counts[i - 1];
+            fenwick.total += counts[i - 1];
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+        return fenwick;
+    }
+
+    public void add(int bucket, long delta) {
+        checkBucket(bucket);
+        for (int i = bucket + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+        total += delta;
+    }
+
+    /**
+     * Sum of the buckets {@code 0..bucket}, inclusive; 0 for a negative bucket
+     * and the total for one past the end.
+     */
+    public long prefixSum(int bucket) {
+        long sum = 0;
+        for (int i = Math.min(bucket + 1, tree.length - 1); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    public long get(int bucket) {
+        return prefixSum(bucket) - prefixSum(bucket - 1);
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public int size() {
+        return tree.length - 1;
+    }
+
+    private void checkBucket(int bucket) {
+        if (bucket < 0 || bucket >= size()) {
+            throw new IndexOutOfBoundsException("Bucket " + bucket + " outside 0.." + (size() - 1));
+        }
+    }
+}
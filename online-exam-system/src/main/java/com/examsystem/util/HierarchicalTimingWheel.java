@@ -0,0 +1,224 @@
+package com.examsystem.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel for large numbers of deadlines. Level 0 has one
+ * slot per tick; each higher level covers a whole turn of the level below per
+ * slot, and its timers are cascaded down as time reaches them. Scheduling and
+ * cancelling are O(1) (a linked-list insert or unlink); {@link #advance(long)}
+ * costs one slot visit per elapsed tick plus the timers that fire or cascade.
+ *
+ * <p>All methods are synchronized; the wheel is meant to be shared between
+ * request threads that schedule or cancel and one thread that advances it.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int slotBits;
+    private final int slotMask;
+    private final Bucket<T>[][] levels;
+
+    // Timers whose deadline had already passed when they were (re)inserted
+    private final Bucket<T> due = new Bucket<>();
+
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int slotBits, int levelCount, long startMillis) {
+        if (tickMillis <= 0 || slotBits <= 0 || levelCount <= 0 || slotBits * levelCount >= 62) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions");
+        }
+        this.tickMillis = tickMillis;
+        this.slotBits = slotBits;
+        this.slotMask = (1 << slotBits) - 1;
+        this.levels = new Bucket[levelCount][1 << slotBits];
+        for (Bucket<T>[] level : levels) {
+            for (int slot = 0; slot < level.length; slot++) {
+                level[slot] = new Bucket<>();
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules a payload to fire once the wheel has advanced past the deadline.
+     * Deadlines in the past fire on the next advance.
+     */
+    public synchronized Timeout<T> schedule(long deadlineMillis, T payload) {
+        // Round up so a timer never fires before its deadline
+        Timeout<T> timeout = new Timeout<>(this, payload, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        insert(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Moves the wheel forward to the given time and returns the payloads of all
+     * timers that expired on the way.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+
+        drain(due, expired);
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                // Nothing scheduled: skip the empty ticks
+                currentTick = targetTick;
+                break;
+            }
+            currentTick++;
+            cascade();
+            drain(levels[0][(int) (currentTick & slotMask)], expired);
+            drain(due, expired);
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket == null) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        size--;
+        return true;
+    }
+
+    private void insert(Timeout<T> timeout) {
+        if (timeout.deadlineTick <= currentTick) {
+            due.add(timeout);
+            return;
+        }
+
+        // Lowest level whose current turn contains the deadline; the slot is then
+        // always ahead of the current position, so it is reached within this turn
+        for (int level = 0; level < levels.length; level++) {
+            int turnShift = slotBits * (level + 1);
+            if ((timeout.deadlineTick >>> turnShift) == (currentTick >>> turnShift)) {
+                int slot = (int) ((timeout.deadlineTick >>> (slotBits * level)) & slotMask);
+                levels[level][slot].add(timeout);
+                return;
+            }
+        }
+
+        // Beyond the current top-level turn: park it in top slot 0, which in-range
+        // timers never use and which is cascaded exactly when the next turn begins
+        levels[levels.length - 1][0].add(timeout);
+    }
+
+    /**
+     * When the lower levels wrap around, re-insert the timers of the higher
+     * level slot that has just come into range.
+     */
+    private void cascade() {
+        int highest = 0;
+        while (highest + 1 < levels.length && (currentTick & ((1L << (slotBits * (highest + 1))) - 1)) == 0) {
+            highest++;
+        }
+
+        // Top down, so timers cascading from a high level can land in a lower slot not yet visited
+        for (int level = highest; level >= 1; level--) {
+            Bucket<T> bucket = levels[level][(int) ((currentTick >>> (slotBits * level)) & slotMask)];
+            for (Timeout<T> timeout = bucket.removeAll(); timeout != null; ) {
+                Timeout<T> next = timeout.next;
+                timeout.next = null;
+                timeout.prev = null;
+                insert(timeout);
+                timeout = next;
+            }
+        }
+    }
+
+    private void drain(Bucket<T> bucket, List<T> expired) {
+        for (Timeout<T> timeout = bucket.removeAll(); timeout != null; ) {
+            Timeout<T> next = timeout.next;
+            timeout.next = null;
+            timeout.prev = null;
+            expired.add(timeout.payload);
+            size--;
+            timeout = next;
+        }
+    }
+
+    /**
+     * Handle for a scheduled payload.
+     */
+    public static final class Timeout<T> {
+        private final HierarchicalTimingWheel<T> wheel;
+        private final T payload;
+        private final long deadlineTick;
+
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(HierarchicalTimingWheel<T> wheel, T payload, long deadlineTick) {
+            this.wheel = wheel;
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        public boolean isPending() {
+            synchronized (wheel) {
+                return bucket != null;
+            }
+        }
+
+        /**
+         * Returns false if the timer already fired or was cancelled.
+         */
+        public boolean cancel() {
+            return wheel.cancel(this);
+        }
+    }
+
+    // Doubly linked list of timers, so a cancel can unlink without searching
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        // Detaches the whole list and returns its first element
+        Timeout<T> removeAll() {
+            Timeout<T> first = head;
+            head = null;
+            for (Timeout<T> timeout = first; timeout != null; timeout = timeout.next) {
+                timeout.bucket = null;
+            }
+            return first;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.examsystem.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page in a keyset-paginated listing: the
+ * sort timestamp (null for id-only orderings) and the row id as tie-breaker.
+ * The next page is read with a "WHERE (at, id) is past the cursor" condition
+ * on an index, so every page costs the same however deep it is.
+ *
+ * <p>Clients receive it as an opaque URL-safe token and must send it back
+ * unchanged.
+ */
+public record KeysetCursor(LocalDateTime at, Long id) {
+
+    public static String encode(LocalDateTime at, Long id) {
+        String raw = at != null ? at + "|" + id : String.valueOf(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Null for a missing or blank token (first page).
+     *
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode}
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                return new KeysetCursor(null, Long.parseLong(raw));
+            }
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public static LocalDateTime atOf(KeysetCursor cursor) {
+        return cursor != null ? cursor.at() : null;
+    }
+
+    public static Long idOf(KeysetCursor cursor) {
+        return cursor != null ? cursor.id() : null;
+    }
+}
@@ -0,0 +1,220 @@
+package com.examsystem;
+
+import com.examsystem.model.*;
+import jakarta.persistence.EntityManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists users, exams and results for JPA slice tests. Add it to the
+ * test's {@code @Import} and autowire it; it writes through the test's
+ * EntityManager, so everything rolls back with the test. Exams and results
+ * start from valid defaults and tests only set what they are about.
+ */
+public class TestData {
+
+    private final EntityManager entityManager;
+
+    public TestData(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public User user(String username, Role role) {
+        User user = User.builder()
+                .username(username)
+                .password("secret")
+                .email(username + "@example.com")
+                .fullName(username)
+                .role(role)
+                .build();
+        entityManager.persist(user);
+        return user;
+    }
+
+    /**
+     * A published exam by the teacher. Total marks default to the sum of the
+     * question points, or 10 for an exam without questions.
+     */
+    public ExamFixture exam(User teacher) {
+        return new ExamFixture(teacher);
+    }
+
+    /**
+     * A PASSED result with score 0; the percentage follows from score and
+     * total marks unless set.
+     */
+    public ResultFixture result(Exam exam, User student) {
+        return new ResultFixture(exam, student);
+    }
+
+    public class ExamFixture {
+
+        private final Exam exam;
+        private final List<Question> questions = new ArrayList<>();
+        private String explanation;
+        private boolean totalMarksSet;
+
+        private ExamFixture(User teacher) {
+            exam = Exam.builder()
+                    .title("Exam")
+                    .durationMinutes(60)
+                    .totalMarks(10)
+                    .passingMarks(50)
+                    .status(ExamStatus.PUBLISHED)
+                    .isPublished(true)
+                    .teacher(teacher)
+                    .updatedAt(LocalDateTime.now())
+                    .build();
+        }
+
+        public ExamFixture title(String title) {
+            exam.setTitle(title);
+            return this;
+        }
+
+        public ExamFixture status(ExamStatus status) {
+            exam.setStatus(status);
+            exam.setIsPublished(status == ExamStatus.PUBLISHED);
+            return this;
+        }
+
+        public ExamFixture totalMarks(int totalMarks) {
+            exam.setTotalMarks(totalMarks);
+            totalMarksSet = true;
+            return this;
+        }
+
+        public ExamFixture startTime(LocalDateTime startTime) {
+            exam.setStartTime(startTime);
+            return this;
+        }
+
+        public ExamFixture deletedAt(LocalDateTime deletedAt) {
+            exam.setDeletedAt(deletedAt);
+            return this;
+        }
+
+        // Explanation of the questions added after this call
+        public ExamFixture explanation(String explanation) {
+            this.explanation = explanation;
+            return this;
+        }
+
+        public ExamFixture question(String correctAnswer, int points) {
+            questions.add(Question.builder()
+                    .text("Question " + questions.size())
+                    .type(QuestionType.SHORT_ANSWER)
+                    .correctAnswer(correctAnswer)
+                    .explanation(explanation)
+                    .points(points)
+                    .build());
+            return this;
+        }
+
+        public ExamFixture questions(int count, String correctAnswer, int points) {
+            for (int i = 0; i < count; i++) {
+                question(correctAnswer, points);
+            }
+            return this;
+        }
+
+        public Exam persist() {
+            if (!totalMarksSet && !questions.isEmpty()) {
+                exam.setTotalMarks(questions.stream().mapToInt(Question::getPoints).sum());
+            }
+            entityManager.persist(exam);
+            for (Question question : questions) {
+                question.setExam(exam);
+                entityManager.persist(question);
+                exam.getQuestions().add(question);
+            }
+            return exam;
+        }
+    }
+
+    public class ResultFixture {
+
+        private final ExamResult result;
+        private final List<StudentAnswer> answers = new ArrayList<>();
+        private LocalDateTime submittedAt;
+
+        private ResultFixture(Exam exam, User student) {
+            result = ExamResult.builder()
+                    .exam(exam)
+                    .student(student)
+                    .score(0)
+                    .totalMarks(exam.getTotalMarks())
+                    .status(ResultStatus.PASSED)
+                    .build();
+        }
+
+        public ResultFixture score(int score) {
+            result.setScore(score);
+            return this;
+        }
+
+        public ResultFixture totalMarks(int totalMarks) {
+            result.setTotalMarks(totalMarks);
+            return this;
+        }
+
+        public ResultFixture percentage(double percentage) {
+            result.setPercentage(percentage);
+            return this;
+        }
+
+        public ResultFixture status(ResultStatus status) {
+            result.setStatus(status);
+            return this;
+        }
+
+        // Applied after persisting, since the entity stamps the current time on persist
+        public ResultFixture submittedAt(LocalDateTime submittedAt) {
+            this.submittedAt = submittedAt;
+            return this;
+        }
+
+        // A started attempt held by the given node
+        public ResultFixture attempt(LocalDateTime startedAt, LocalDateTime deadlineAt, String owner) {
+            result.setStatus(ResultStatus.IN_PROGRESS);
+            result.setStartedAt(startedAt);
+            result.setDeadlineAt(deadlineAt);
+            result.setOwner(owner);
+            return this;
+        }
+
+        // The next question of the exam, in order, answered with the given text
+        public ResultFixture answer(String text, boolean correct) {
+            Question question = result.getExam().getQuestions().get(answers.size());
+            answers.add(StudentAnswer.builder()
+                    .question(question)
+                    .answer(text)
+                    .isCorrect(correct)
+                    .pointsAwarded(correct ? question.getPoints() : 0)
+                    .build());
+            return this;
+        }
+
+        // Every question answered correctly
+        public ResultFixture correctAnswers() {
+            for (Question question : result.getExam().getQuestions()) {
+                answer(question.getCorrectAnswer(), true);
+            }
+            return this;
+        }
+
+        public ExamResult persist() {
+            entityManager.persist(result);
+            if (submittedAt != null) {
+                result.setSubmittedAt(submittedAt);
+            }
+            for (StudentAnswer answer : answers) {
+                answer.setExamResult(result);
+                entityManager.persist(answer);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.examsystem.repository;
+
+import com.examsystem.TestData;
+import com.examsystem.dto.exam.ExamSummary;
+import com.examsystem.model.*;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ExamSummaryQueryTest {
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void summariesCountQuestionsWithoutLoadingEntities() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        Exam published = testData.exam(teacher).questions(3, "yes", 1).persist();
+        Exam empty = testData.exam(teacher).persist();
+        testData.exam(teacher).status(ExamStatus.DRAFT).questions(2, "yes", 1).persist();
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ExamSummary> summaries = examRepository.findSummariesByStatus(ExamStatus.PUBLISHED);
+
+        assertEquals(List.of(published.getId(), empty.getId()), summaries.stream().map(ExamSummary::getId).toList());
+        assertEquals(3, summaries.get(0).getQuestionCount());
+        assertEquals(0, summaries.get(1).getQuestionCount());
+        assertEquals("teacher", summaries.get(0).getTeacherName());
+        assertTrue(summaries.get(0).isAvailable());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+
+        assertEquals(3, examRepository.findSummariesByTeacherId(teacher.getId()).size());
+    }
+}
@@ -0,0 +1,61 @@
+package com.examsystem.repository;
+
+import com.examsystem.TestData;
+import com.examsystem.model.*;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(TestData.class)
+class ResultFetchPlanTest {
+
+    @Autowired
+    private ExamResultRepository examResultRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void fetchPlansLoadEverythingTheViewReadsInOneStatement() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        User student = testData.user("student", Role.STUDENT);
+        Exam exam = testData.exam(teacher).questions(3, "yes", 1).persist();
+        ExamResult result = testData.result(exam, student)
+                .score(3).status(ResultStatus.SUBMITTED).correctAnswers().persist();
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.unwrap(Session.class).getSessionFactory().getStatistics();
+
+        long statementsBefore = statistics.getPrepareStatementCount();
+        ExamResult review = examResultRepository.findReviewByIdAndStatusNot(result.getId(), ResultStatus.IN_PROGRESS).orElseThrow();
+        assertEquals(statementsBefore + 1, statistics.getPrepareStatementCount());
+        assertTrue(Hibernate.isInitialized(review.getStudent()));
+        assertTrue(Hibernate.isInitialized(review.getExam().getTeacher()));
+        assertTrue(Hibernate.isInitialized(review.getAnswers()));
+        assertEquals(3, review.getAnswers().size());
+        review.getAnswers().forEach(answer -> assertTrue(Hibernate.isInitialized(answer.getQuestion())));
+        entityManager.clear();
+
+        statementsBefore = statistics.getPrepareStatementCount();
+        List<ExamResult> listed = examResultRepository.findListByStudentIdAndStatusNot(student.getId(), ResultStatus.IN_PROGRESS);
+        assertEquals(statementsBefore + 1, statistics.getPrepareStatementCount());
+        assertEquals(1, listed.size());
+        assertTrue(Hibernate.isInitialized(listed.get(0).getExam().getTeacher()));
+        assertFalse(Hibernate.isInitialized(listed.get(0).getAnswers()));
+    }
+}
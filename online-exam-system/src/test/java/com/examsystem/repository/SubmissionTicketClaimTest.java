@@ -0,0 +1,74 @@
+package com.examsystem.repository;
+
+import com.examsystem.model.SubmissionStatus;
+import com.examsystem.model.SubmissionTicket;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class SubmissionTicketClaimTest {
+
+    @Autowired
+    private SubmissionTicketRepository ticketRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // Two nodes that both recovered the same queued tickets at startup
+    @Test
+    void eachTicketIsClaimedByOneNodeUntilTheClaimGoesStale() {
+        List<Long> ids = List.of(persistTicket(1L).getId(), persistTicket(2L).getId());
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusMinutes(5);
+
+        assertEquals(2, claim(ids, "node-a", now, staleBefore));
+        assertEquals(0, claim(ids, "node-b", now, staleBefore));
+        assertEquals(ids, owned(ids, "node-a"));
+        assertEquals(List.of(), owned(ids, "node-b"));
+
+        // After a restart node-a takes its own claims back; the periodic recovery of other nodes leaves them alone
+        assertEquals(ids, recover("node-a", now, staleBefore));
+        assertEquals(List.of(), recover(null, staleBefore, staleBefore));
+
+        // node-a died: once its claims are stale another node may take them
+        LocalDateTime later = now.plusMinutes(10);
+        assertEquals(ids, recover(null, later.minusMinutes(5), later.minusMinutes(5)));
+        assertEquals(2, claim(ids, "node-b", later, later.minusMinutes(5)));
+        assertEquals(ids, owned(ids, "node-b"));
+    }
+
+    private int claim(List<Long> ids, String owner, LocalDateTime now, LocalDateTime staleBefore) {
+        int claimed = ticketRepository.claim(ids, SubmissionStatus.QUEUED, owner, now, staleBefore);
+        entityManager.clear();
+        return claimed;
+    }
+
+    private List<Long> owned(List<Long> ids, String owner) {
+        return ticketRepository.findIdsByIdInAndStatusAndOwner(ids, SubmissionStatus.QUEUED, owner);
+    }
+
+    private List<Long> recover(String owner, LocalDateTime queuedBefore, LocalDateTime staleBefore) {
+        return ticketRepository.findIdsToRecover(SubmissionStatus.QUEUED, owner, queuedBefore, staleBefore);
+    }
+
+    private SubmissionTicket persistTicket(Long studentId) {
+        SubmissionTicket ticket = SubmissionTicket.builder()
+                .examId(1L)
+                .studentId(studentId)
+                .payload("{}")
+                .status(SubmissionStatus.QUEUED)
+                .build();
+        entityManager.persist(ticket);
+        entityManager.flush();
+        return ticket;
+    }
+}
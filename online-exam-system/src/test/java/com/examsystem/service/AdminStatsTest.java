@@ -0,0 +1,75 @@
+package com.examsystem.service;
+
+import com.examsystem.TestData;
+import com.examsystem.dto.AdminStats;
+import com.examsystem.model.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({AdminStatsService.class, TestData.class})
+class AdminStatsTest {
+
+    @Autowired
+    private AdminStatsService adminStatsService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void snapshotRollsUpUsersExamsAndSubmissionsAndAddsNewResults() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        User first = testData.user("first", Role.STUDENT);
+        User second = testData.user("second", Role.STUDENT);
+        testData.user("admin", Role.ADMIN);
+        Exam published = testData.exam(teacher).persist();
+        testData.exam(teacher).status(ExamStatus.COMPLETED).persist();
+        testData.exam(teacher).status(ExamStatus.DRAFT).deletedAt(LocalDateTime.now()).persist();
+        testData.result(published, first).score(8).persist();
+        testData.result(published, second).score(4).status(ResultStatus.FAILED).persist();
+        entityManager.persist(ExamStats.builder().examId(published.getId()).attemptCount(2L).passCount(1L)
+                .percentageSum(120.0).build());
+        entityManager.flush();
+
+        AdminStats stats = adminStatsService.refresh();
+
+        assertEquals(4, stats.totalUsers());
+        assertEquals(2, stats.students());
+        assertEquals(1, stats.teachers());
+        assertEquals(1, stats.admins());
+        // The deleted draft is not counted
+        assertEquals(2, stats.totalExams());
+        assertEquals(1, stats.completedExams());
+        assertEquals(0, stats.examsByStatus().get(ExamStatus.DRAFT));
+        assertEquals(2, stats.totalSubmissions());
+        assertEquals(50.0, stats.passRate(), 0.001);
+        assertEquals(60.0, stats.averageScore(), 0.001);
+        assertEquals(List.of(new AdminStats.DailySubmissions(LocalDate.now(), 2, 1)), stats.submissionsPerDay());
+        assertSame(stats, adminStatsService.getStats());
+
+        ExamResult next = ExamResult.builder().status(ResultStatus.PASSED).percentage(90.0)
+                .submittedAt(LocalDateTime.now()).build();
+        adminStatsService.onResultsRecorded(new ExamResultsRecordedEvent(List.of(next)));
+
+        AdminStats updated = adminStatsService.getStats();
+        assertEquals(3, updated.totalSubmissions());
+        assertEquals(2, updated.passedSubmissions());
+        assertEquals(70.0, updated.averageScore(), 0.001);
+        assertEquals(List.of(new AdminStats.DailySubmissions(LocalDate.now(), 3, 2)), updated.submissionsPerDay());
+        assertEquals(stats.computedAt(), updated.computedAt());
+    }
+}
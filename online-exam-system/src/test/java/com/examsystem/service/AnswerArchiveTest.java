@@ -0,0 +1,84 @@
+package com.examsystem.service;
+
+import com.examsystem.TestData;
+import com.examsystem.config.PasswordConfig;
+import com.examsystem.model.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ExamService.class, AnswerArchiver.class, AnswerKeyCache.class, UserService.class, PasswordConfig.class, TestData.class})
+class AnswerArchiveTest {
+
+    private static final int QUESTIONS = 3;
+
+    @Autowired
+    private AnswerArchiver answerArchiver;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void completedExamAnswersMoveToArchiveAndReviewStillReadsThem() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        User student = testData.user("student", Role.STUDENT);
+        ExamResult archivedResult = persistResult(testData.exam(teacher).status(ExamStatus.COMPLETED).questions(QUESTIONS, "yes", 1).persist(), student);
+        ExamResult hotResult = persistResult(testData.exam(teacher).questions(QUESTIONS, "yes", 1).persist(), student);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(1, answerArchiver.archiveChunk(10));
+        assertEquals(0, answerArchiver.archiveChunk(10));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(QUESTIONS, count("SELECT COUNT(a) FROM StudentAnswer a"));
+        ArchivedAnswers archive = entityManager.find(ArchivedAnswers.class, archivedResult.getId());
+        assertEquals(QUESTIONS, archive.getAnswerCount());
+        assertTrue(entityManager.find(ExamResult.class, archivedResult.getId()).getAnswersArchived());
+        entityManager.clear();
+
+        ExamResult review = examService.getExamResultForReview(archivedResult.getId());
+        assertEquals(List.of("answer 0", "answer 1", "answer 2"),
+                review.getAnswers().stream().map(StudentAnswer::getAnswer).toList());
+        assertEquals(List.of(true, false, true), review.getAnswers().stream().map(StudentAnswer::getIsCorrect).toList());
+        assertEquals("Question 1", review.getAnswers().get(1).getQuestion().getText());
+
+        // Reading from the archive must not write the answers back to the hot table
+        entityManager.flush();
+        assertEquals(QUESTIONS, count("SELECT COUNT(a) FROM StudentAnswer a"));
+
+        List<ExamResult> reviews = examService.getExamResultReviewsByStudent(student);
+        assertEquals(2, reviews.size());
+        reviews.forEach(result -> assertEquals(QUESTIONS, result.getAnswers().size()));
+        assertTrue(reviews.stream().anyMatch(result -> result.getId().equals(hotResult.getId())));
+    }
+
+    private long count(String jpql) {
+        return entityManager.createQuery(jpql, Long.class).getSingleResult();
+    }
+
+    // Every other answer correct
+    private ExamResult persistResult(Exam exam, User student) {
+        TestData.ResultFixture result = testData.result(exam, student).score(2);
+        for (int i = 0; i < QUESTIONS; i++) {
+            result.answer("answer " + i, i % 2 == 0);
+        }
+        return result.persist();
+    }
+}
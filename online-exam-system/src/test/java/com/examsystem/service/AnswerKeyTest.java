@@ -0,0 +1,114 @@
+package com.examsystem.service;
+
+import com.examsystem.model.Exam;
+import com.examsystem.model.Question;
+import com.examsystem.model.QuestionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnswerKeyTest {
+
+    private static Question question(long id, QuestionType type, String correct, String... options) {
+        Question.QuestionBuilder builder = Question.builder()
+                .id(id)
+                .type(type)
+                .correctAnswer(correct)
+                .points(5);
+        if (options.length > 0) builder.option1(options[0]);
+        if (options.length > 1) builder.option2(options[1]);
+        if (options.length > 2) builder.option3(options[2]);
+        if (options.length > 3) builder.option4(options[3]);
+        return builder.build();
+    }
+
+    private static AnswerKey key(Question... questions) {
+        Exam exam = Exam.builder()
+                .id(1L)
+                .totalMarks(5 * questions.length)
+                .passingMarks(50)
+                .updatedAt(LocalDateTime.of(2024, 1, 1, 9, 0))
+                .questions(List.of(questions))
+                .build();
+        return AnswerKey.compile(exam);
+    }
+
+    @Test
+    void multipleChoiceAcceptsOptionIndexOrText() {
+        AnswerKey key = key(question(10, QuestionType.MULTIPLE_CHOICE, " Paris ", "London", "paris", "Rome", "Berlin"));
+        AnswerKey.Matcher matcher = key.matcherFor(10L);
+
+        assertTrue(matcher.matches("2"));
+        assertTrue(matcher.matches(" +2 "));
+        assertTrue(matcher.matches("PARIS"));
+        assertFalse(matcher.matches("1"));
+        assertFalse(matcher.matches("5"));
+        assertFalse(matcher.matches("-2"));
+        assertFalse(matcher.matches("99999999999"));
+        assertFalse(matcher.matches("   "));
+        assertFalse(matcher.matches(null));
+    }
+
+    @Test
+    void trueFalseAcceptsShortForms() {
+        AnswerKey key = key(question(20, QuestionType.TRUE_FALSE, "True"), question(21, QuestionType.TRUE_FALSE, "false"));
+
+        assertTrue(key.matcherFor(20L).matches("true"));
+        assertTrue(key.matcherFor(20L).matches("T"));
+        assertTrue(key.matcherFor(20L).matches("1"));
+        assertFalse(key.matcherFor(20L).matches("0"));
+        assertFalse(key.matcherFor(20L).matches("yes"));
+        assertTrue(key.matcherFor(21L).matches(" F "));
+        assertTrue(key.matcherFor(21L).matches("0"));
+        assertFalse(key.matcherFor(21L).matches("TRUE"));
+    }
+
+    @Test
+    void shortAnswerIgnoresCaseAndSurroundingWhitespace() {
+        AnswerKey key = key(question(30, QuestionType.SHORT_ANSWER, "Photosynthesis"), question(31, QuestionType.SHORT_ANSWER, " "));
+
+        assertTrue(key.matcherFor(30L).matches("  photosynthesis\n"));
+        assertFalse(key.matcherFor(30L).matches("photo synthesis"));
+        assertFalse(key.matcherFor(31L).matches(" "));
+        assertNull(key.matcherFor(99L));
+    }
+
+    @Test
+    void keyTracksExamVersion() {
+        AnswerKey key = key(question(40, QuestionType.SHORT_ANSWER, "x"));
+
+        assertTrue(key.isVersion(LocalDateTime.of(2024, 1, 1, 9, 0)));
+        assertFalse(key.isVersion(LocalDateTime.of(2024, 1, 1, 9, 1)));
+        assertEquals(5, key.getTotalMarks());
+    }
+
+    @Test
+    void cacheKeepsOneKeyPerExamVersionAndDropsItWhenTheExamChanges() {
+        AnswerKeyCache cache = new AnswerKeyCache(new DefaultListableBeanFactory().getBeanProvider(CacheMetrics.class));
+        ReflectionTestUtils.setField(cache, "maxSize", 10L);
+        cache.init();
+        Exam exam = Exam.builder()
+                .id(1L)
+                .totalMarks(5)
+                .passingMarks(50)
+                .updatedAt(LocalDateTime.of(2024, 1, 1, 9, 0))
+                .questions(List.of(question(50, QuestionType.SHORT_ANSWER, "x")))
+                .build();
+
+        AnswerKey first = cache.forExam(exam);
+        assertSame(first, cache.forExam(exam));
+
+        exam.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 9, 1));
+        AnswerKey second = cache.forExam(exam);
+        assertNotSame(first, second);
+        assertSame(second, cache.get(1L));
+
+        cache.onExamChanged(new ExamChangedEvent(1L));
+        assertNull(cache.get(1L));
+    }
+}
@@ -0,0 +1,216 @@
+package com.examsystem.service;
+
+import com.examsystem.TestData;
+import com.examsystem.config.NodeIdentity;
+import com.examsystem.config.PasswordConfig;
+import com.examsystem.dto.exam.AnswerRequest;
+import com.examsystem.dto.exam.TakeExamRequest;
+import com.examsystem.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Long intervals so only the test triggers flushes and expiry
+@DataJpaTest(properties = {
+        "app.attempt.autosave.flush-interval-ms=3600000",
+        "app.attempt.deadline.poll-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+@Import({AttemptService.class, AttemptDeadlineScheduler.class, NodeIdentity.class, ExamService.class, AnswerArchiver.class, AnswerKeyCache.class, UserService.class, PasswordConfig.class, TestData.class})
+class AttemptAutosaveTest {
+
+    @Autowired
+    private AttemptService attemptService;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void autosaveCoalescesEditsAndSubmitGradesStoredAnswers() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        User student = testData.user("student", Role.STUDENT);
+        Exam exam = testData.exam(teacher).question("Paris", 5).question("Berlin", 5).persist();
+        Long first = exam.getQuestions().get(0).getId();
+        Long second = exam.getQuestions().get(1).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        AttemptService.ActiveAttempt attempt = attemptService.startAttempt(exam.getId(), student);
+        assertSame(attempt, attemptService.startAttempt(exam.getId(), student));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Keystrokes on the same question between flushes collapse into one row write
+        for (String typed : List.of("P", "Pa", "Par", "Paris")) {
+            attemptService.saveAnswers(attempt.getId(), List.of(answer(first, typed)), student);
+        }
+        attemptService.saveAnswers(attempt.getId(), List.of(answer(second, "wrong")), student);
+        assertEquals(0, statistics.getEntityInsertCount());
+
+        attemptService.flush();
+        entityManager.flush();
+        assertEquals(2, statistics.getEntityInsertCount());
+
+        attemptService.saveAnswers(attempt.getId(), List.of(answer(second, "berlin")), student);
+        attemptService.flush();
+        entityManager.flush();
+        assertEquals(1, statistics.getEntityUpdateCount());
+        assertEquals(2, attemptService.getAnswers(attempt).size());
+        entityManager.clear();
+
+        ExamResult result = attemptService.submitAttempt(attempt.getId(),
+                TakeExamRequest.builder().answers(List.of()).timeTaken(12).build(), student, null);
+        entityManager.flush();
+
+        assertEquals(ResultStatus.PASSED, result.getStatus());
+        assertEquals(10, result.getScore());
+        assertEquals(12, result.getTimeTaken());
+        assertNull(attemptService.activeAttemptId(exam.getId(), student.getId()));
+        assertThrows(RuntimeException.class,
+                () -> attemptService.saveAnswers(attempt.getId(), List.of(answer(first, "x")), student));
+    }
+
+    @Test
+    void overdueAttemptIsGradedAsExpired() throws InterruptedException {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        User student = testData.user("student", Role.STUDENT);
+        Exam exam = testData.exam(teacher).question("Paris", 5).question("Berlin", 5).persist();
+        exam.setEndTime(LocalDateTime.now().plusSeconds(1));
+        Long first = exam.getQuestions().get(0).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        AttemptService.ActiveAttempt attempt = attemptService.startAttempt(exam.getId(), student);
+        attemptService.saveAnswers(attempt.getId(), List.of(answer(first, "paris")), student);
+        entityManager.clear();
+
+        Thread.sleep(2100);
+        attemptService.expireOverdueAttempts();
+        entityManager.flush();
+        entityManager.clear();
+
+        ExamResult result = entityManager.find(ExamResult.class, attempt.getId());
+        assertEquals(ResultStatus.EXPIRED, result.getStatus());
+        assertEquals(5, result.getScore());
+        assertNull(attemptService.activeAttemptId(exam.getId(), student.getId()));
+    }
+
+    @Test
+    void runningAttemptCannotBeReviewed() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        User student = testData.user("student", Role.STUDENT);
+        Exam exam = testData.exam(teacher).question("Paris", 5).question("Berlin", 5).persist();
+        entityManager.flush();
+        entityManager.clear();
+
+        // The review would show the correct answers while they can still be changed
+        AttemptService.ActiveAttempt attempt = attemptService.startAttempt(exam.getId(), student);
+        attemptService.saveAnswers(attempt.getId(), List.of(answer(exam.getQuestions().get(0).getId(), "Rome")), student);
+        attemptService.flush();
+        entityManager.clear();
+        assertThrows(RuntimeException.class, () -> examService.getExamResultForReview(attempt.getId()));
+
+        attemptService.submitAttempt(attempt.getId(),
+                TakeExamRequest.builder().answers(List.of(answer(exam.getQuestions().get(0).getId(), "Rome"))).build(),
+                student, null);
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(1, examService.getExamResultForReview(attempt.getId()).getAnswers().size());
+    }
+
+    @Test
+    void submitAfterTheDeadlineIsClosedAsExpired() throws InterruptedException {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        User student = testData.user("student", Role.STUDENT);
+        Exam exam = testData.exam(teacher).question("Paris", 5).question("Berlin", 5).persist();
+        exam.setEndTime(LocalDateTime.now().plusSeconds(1));
+        Long first = exam.getQuestions().get(0).getId();
+        Long second = exam.getQuestions().get(1).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        AttemptService.ActiveAttempt attempt = attemptService.startAttempt(exam.getId(), student);
+        attemptService.saveAnswers(attempt.getId(), List.of(answer(first, "paris")), student);
+        entityManager.clear();
+
+        // The deadline passes before the wheel fires; the late answer is not counted
+        Thread.sleep(2100);
+        ExamResult result = attemptService.submitAttempt(attempt.getId(),
+                TakeExamRequest.builder().answers(List.of(answer(second, "Berlin"))).timeTaken(1).build(), student, null);
+        entityManager.flush();
+
+        assertEquals(ResultStatus.EXPIRED, result.getStatus());
+        assertEquals(5, result.getScore());
+        assertNull(attemptService.activeAttemptId(exam.getId(), student.getId()));
+    }
+
+    @Test
+    void attemptHeldByAnotherNodeIsClosedOnce() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        User student = testData.user("student", Role.STUDENT);
+        User absent = testData.user("absent", Role.STUDENT);
+        Exam exam = testData.exam(teacher).question("Paris", 5).question("Berlin", 5).persist();
+        Long first = exam.getQuestions().get(0).getId();
+        LocalDateTime now = LocalDateTime.now();
+        ExamResult running = testData.result(exam, student).attempt(now, now.plusHours(1), "other-node").persist();
+        ExamResult orphaned = testData.result(exam, absent).attempt(now.minusHours(2), now.minusHours(1), "other-node").persist();
+        entityManager.flush();
+        entityManager.clear();
+
+        // Restarting this node leaves the other node's attempts alone
+        attemptService.rebuild();
+        assertNull(attemptService.activeAttemptId(exam.getId(), student.getId()));
+
+        // Autosaves reaching this node are written at once rather than buffered
+        Long second = exam.getQuestions().get(1).getId();
+        assertEquals(0, attemptService.saveAnswers(running.getId(), List.of(answer(second, "Berlin")), student));
+        entityManager.flush();
+        entityManager.clear();
+
+        ExamResult submitted = attemptService.submitAttempt(running.getId(),
+                TakeExamRequest.builder().answers(List.of(answer(first, "Paris"))).timeTaken(7).build(), student, null);
+        entityManager.flush();
+        assertEquals(ResultStatus.PASSED, submitted.getStatus());
+        assertEquals(10, submitted.getScore());
+        assertThrows(RuntimeException.class,
+                () -> attemptService.saveAnswers(running.getId(), List.of(answer(second, "wrong")), student));
+
+        // The owner's deadline firing later finds nothing left to close
+        assertEquals(0, examService.expireAttempts(Map.of(running.getId(), Map.of(first, "wrong"))));
+        assertEquals(0, examService.writeAttemptAnswers(Map.of(running.getId(), Map.of(first, "wrong"))));
+
+        attemptService.expireOrphanedAttempts();
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(ResultStatus.PASSED, entityManager.find(ExamResult.class, running.getId()).getStatus());
+        assertEquals(2, entityManager.find(ExamResult.class, running.getId()).getAnswers().size());
+        assertEquals(ResultStatus.EXPIRED, entityManager.find(ExamResult.class, orphaned.getId()).getStatus());
+    }
+
+    private static AnswerRequest answer(Long questionId, String text) {
+        return AnswerRequest.builder().questionId(questionId).answer(text).build();
+    }
+}
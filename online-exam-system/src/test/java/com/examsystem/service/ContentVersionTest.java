@@ -0,0 +1,71 @@
+package com.examsystem.service;
+
+import com.examsystem.TestData;
+import com.examsystem.model.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ContentVersionService.class, TestData.class})
+class ContentVersionTest {
+
+    @Autowired
+    private ContentVersionService contentVersionService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void catalogTagMovesWithExamsResultsAndPassedBoundaries() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        User student = testData.user("student", Role.STUDENT);
+        User other = testData.user("other", Role.STUDENT);
+        Exam exam = testData.exam(teacher).startTime(LocalDateTime.now().plusHours(1)).persist();
+        entityManager.flush();
+
+        String initial = contentVersionService.studentCatalogTag(student.getId());
+        assertEquals(initial, contentVersionService.studentCatalogTag(student.getId()));
+
+        // The start time has now passed without any edit, so the exam became available
+        exam.setStartTime(LocalDateTime.now().minusMinutes(1));
+        entityManager.flush();
+        String started = contentVersionService.studentCatalogTag(student.getId());
+        assertNotEquals(initial, started);
+
+        // Another student's result does not touch this student's tag
+        testData.result(exam, other).score(5).persist();
+        entityManager.flush();
+        assertEquals(started, contentVersionService.studentCatalogTag(student.getId()));
+
+        testData.result(exam, student).score(5).persist();
+        entityManager.flush();
+        String taken = contentVersionService.studentCatalogTag(student.getId());
+        assertNotEquals(started, taken);
+
+        exam.setUpdatedAt(exam.getUpdatedAt().plusSeconds(1));
+        entityManager.flush();
+        assertNotEquals(taken, contentVersionService.studentCatalogTag(student.getId()));
+    }
+
+    @Test
+    void paperTagDependsOnVersionAndEncoding() {
+        Exam exam = Exam.builder().id(7L).updatedAt(LocalDateTime.of(2026, 1, 1, 9, 0)).build();
+        String plain = contentVersionService.paperTag(exam, false);
+        assertNotEquals(plain, contentVersionService.paperTag(exam, true));
+
+        exam.setUpdatedAt(exam.getUpdatedAt().plusNanos(1000));
+        assertNotEquals(plain, contentVersionService.paperTag(exam, false));
+    }
+}
@@ -0,0 +1,75 @@
+package com.examsystem.service;
+
+import com.examsystem.TestData;
+import com.examsystem.config.HibernateCacheConfig;
+import com.examsystem.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({HibernateCacheConfig.class, ExamCacheEvictor.class, CacheMetrics.class, TestData.class})
+class ExamCacheTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ExamCacheEvictor examCacheEvictor;
+
+    @Autowired
+    private CacheMetrics cacheMetrics;
+
+    // Each step in its own transaction: READ_WRITE entries are only visible to transactions started after the put
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void cachedExamAndQuestionsLoadWithoutSqlUntilEvicted() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long examId = tx.execute(status -> testData.exam(testData.user("teacher", Role.TEACHER)).questions(3, "yes", 1).persist().getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // First read fills the exam, question list and question regions
+        Integer questionCount = tx.execute(status -> entityManager.find(Exam.class, examId).getQuestions().size());
+        assertEquals(3, questionCount);
+
+        long statementsBefore = statistics.getPrepareStatementCount();
+        tx.executeWithoutResult(status -> {
+            Exam cached = entityManager.find(Exam.class, examId);
+            assertEquals(3, cached.getQuestions().size());
+            assertEquals("Question 0", cached.getQuestions().get(0).getText());
+        });
+        assertEquals(statementsBefore, statistics.getPrepareStatementCount());
+
+        examCacheEvictor.onExamChanged(new ExamChangedEvent(examId));
+        tx.executeWithoutResult(status -> entityManager.find(Exam.class, examId).getQuestions().size());
+        assertTrue(statistics.getPrepareStatementCount() > statementsBefore);
+
+        Map<String, Object> examRegion = cacheMetrics.snapshot().get("hibernate." + HibernateCacheConfig.EXAM_REGION);
+        assertEquals(1L, examRegion.get("size"));
+        assertTrue((Long) examRegion.get("hits") >= 1);
+    }
+}
@@ -0,0 +1,66 @@
+package com.examsystem.service;
+
+import com.examsystem.TestData;
+import com.examsystem.config.HibernateCacheConfig;
+import com.examsystem.config.PasswordConfig;
+import com.examsystem.model.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jackson.autoconfigure.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ExamPaperCache.class, JacksonAutoConfiguration.class, HibernateCacheConfig.class, CacheMetrics.class,
+        ExamService.class, AnswerArchiver.class, AnswerKeyCache.class, UserService.class, PasswordConfig.class, TestData.class})
+class ExamPaperCacheTest {
+
+    @Autowired
+    private ExamPaperCache examPaperCache;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void paperIsRenderedOncePerVersionWithoutAnswers() throws IOException {
+        Exam exam = testData.exam(testData.user("teacher", Role.TEACHER))
+                .explanation("secret explanation")
+                .questions(3, "secret answer", 1)
+                .persist();
+        entityManager.flush();
+        entityManager.clear();
+
+        ExamPaperCache.Paper paper = examPaperCache.get(exam);
+        assertSame(paper, examPaperCache.get(exam));
+
+        String json = new String(paper.json(), StandardCharsets.UTF_8);
+        assertTrue(json.contains("Question 1"));
+        assertFalse(json.contains("secret answer"));
+        assertFalse(json.contains("secret explanation"));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(paper.gzip()))) {
+            assertArrayEquals(paper.json(), gzip.readAllBytes());
+        }
+
+        // A new updatedAt is a new version
+        exam.setUpdatedAt(exam.getUpdatedAt().plusSeconds(1));
+        ExamPaperCache.Paper edited = examPaperCache.get(exam);
+        assertNotSame(paper, edited);
+        assertSame(edited, examPaperCache.get(exam));
+
+        examPaperCache.onExamChanged(new ExamChangedEvent(exam.getId()));
+        assertNotSame(edited, examPaperCache.get(exam));
+    }
+}
@@ -0,0 +1,115 @@
+package com.examsystem.service;
+
+import com.examsystem.TestData;
+import com.examsystem.config.PasswordConfig;
+import com.examsystem.model.*;
+import com.examsystem.repository.ExamRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ExamPurgeService.class, ExamPurger.class, ExamService.class, AnswerArchiver.class, AnswerKeyCache.class, UserService.class,
+        PasswordConfig.class, TestData.class})
+class ExamPurgeTest {
+
+    private static final int STUDENTS = 5;
+    private static final int QUESTIONS = 3;
+
+    @Autowired
+    private ExamPurgeService examPurgeService;
+
+    @Autowired
+    private ExamPurger examPurger;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void deleteHidesTheExamAndPurgeRemovesItsRowsInChunks() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        Exam exam = persistExamWithResults(teacher);
+        entityManager.flush();
+        entityManager.clear();
+
+        examService.deleteExam(exam.getId(), teacher);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThrows(RuntimeException.class, () -> examService.getExamById(exam.getId()));
+        assertThrows(RuntimeException.class, () -> examService.getExamForStudent(exam.getId()));
+        assertTrue(examRepository.findSummariesByTeacherId(teacher.getId()).isEmpty());
+        assertEquals(0, examService.getTotalQuestionsForTeacher(teacher.getId()));
+        assertEquals(0, examService.getTotalStudentsForTeacher(teacher.getId()));
+        assertEquals(List.of(exam.getId()), examRepository.findDeletedIds());
+
+        // Two results per chunk: three result chunks, one question chunk, then the exam row
+        List<ExamPurger.Chunk> chunks = List.of(
+                examPurger.purgeChunk(exam.getId(), 2, 10),
+                examPurger.purgeChunk(exam.getId(), 2, 10),
+                examPurger.purgeChunk(exam.getId(), 2, 10),
+                examPurger.purgeChunk(exam.getId(), 2, 10),
+                examPurger.purgeChunk(exam.getId(), 2, 10));
+        assertEquals(List.of(2, 2, 1, 0, 0), chunks.stream().map(ExamPurger.Chunk::results).toList());
+        assertEquals(List.of(2 * QUESTIONS, 2 * QUESTIONS, QUESTIONS, 0, 0), chunks.stream().map(ExamPurger.Chunk::answers).toList());
+        assertEquals(QUESTIONS, chunks.get(3).questions());
+        assertTrue(chunks.get(4).finished());
+
+        assertEquals(0L, count("SELECT COUNT(a) FROM StudentAnswer a"));
+        assertEquals(0L, count("SELECT COUNT(r) FROM ExamResult r"));
+        assertEquals(0L, count("SELECT COUNT(q) FROM Question q"));
+        assertEquals(0L, count("SELECT COUNT(e) FROM Exam e"));
+    }
+
+    @Test
+    void scheduledPurgeReportsProgress() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        Exam exam = persistExamWithResults(teacher);
+        entityManager.flush();
+        entityManager.clear();
+        examService.deleteExam(exam.getId(), teacher);
+        entityManager.flush();
+
+        examPurgeService.purgeDeletedExams();
+
+        ExamPurgeService.Progress progress = examPurgeService.getProgress().get(0);
+        assertEquals(exam.getId(), progress.getExamId());
+        assertTrue(progress.isFinished());
+        assertEquals(STUDENTS, progress.getResultsDeleted());
+        assertEquals(STUDENTS * QUESTIONS, progress.getAnswersDeleted());
+        assertEquals(QUESTIONS, progress.getQuestionsDeleted());
+        assertTrue(examRepository.findDeletedIds().isEmpty());
+    }
+
+    private Exam persistExamWithResults(User teacher) {
+        Exam exam = testData.exam(teacher).questions(QUESTIONS, "yes", 1).persist();
+        for (int s = 0; s < STUDENTS; s++) {
+            testData.result(exam, testData.user("student" + s, Role.STUDENT))
+                    .score(QUESTIONS)
+                    .correctAnswers()
+                    .persist();
+        }
+        return exam;
+    }
+
+    private long count(String jpql) {
+        return entityManager.createQuery(jpql, Long.class).getSingleResult();
+    }
+}
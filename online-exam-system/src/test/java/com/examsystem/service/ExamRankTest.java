@@ -0,0 +1,105 @@
+package com.examsystem.service;
+
+import com.examsystem.TestData;
+import com.examsystem.config.HibernateCacheConfig;
+import com.examsystem.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ExamRankService.class, HibernateCacheConfig.class, CacheMetrics.class, TestData.class})
+class ExamRankTest {
+
+    @Autowired
+    private ExamRankService examRankService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void ranksComeFromTheIndexAndFollowRecordedResults() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        Exam exam = testData.exam(teacher).persist();
+        LocalDateTime start = LocalDateTime.now().minusHours(1);
+        ExamResult best = persistResult(exam, "best", 9, start);
+        ExamResult earlierTie = persistResult(exam, "tie-first", 7, start.plusMinutes(1));
+        ExamResult laterTie = persistResult(exam, "tie-second", 7, start.plusMinutes(2));
+        persistResult(exam, "last", 3, start.plusMinutes(3));
+        entityManager.flush();
+
+        ExamRankService.Standing standing = examRankService.getStanding(exam.getId(), 7);
+        assertEquals(2, standing.rank());
+        assertEquals(4, standing.rankedCount());
+        assertEquals(75.0, standing.percentile());
+        assertEquals(1, examRankService.getStanding(exam.getId(), 9).rank());
+        assertEquals(4, examRankService.getStanding(exam.getId(), 3).rank());
+
+        assertEquals(List.of(best.getId(), earlierTie.getId(), laterTie.getId()), topIds(exam, 3));
+        assertEquals(List.of(1L, 2L, 2L), examRankService.getTopResults(exam.getId(), 3).stream()
+                .map(ExamRankService.RankedResult::rank).toList());
+
+        // A submission is counted once its transaction commits, without rebuilding the index
+        ExamResult submitted = persistResult(exam, "submitted", 8, start.plusMinutes(4));
+        entityManager.flush();
+        commit(() -> examRankService.onResultsRecorded(new ExamResultsRecordedEvent(List.of(submitted))));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertEquals(3, examRankService.getStanding(exam.getId(), 7).rank());
+        assertEquals(5, examRankService.getStanding(exam.getId(), 7).rankedCount());
+        Map<Integer, ExamRankService.Standing> page = examRankService.getStandings(exam.getId(), List.of(9, 7, 7, 3));
+        assertEquals(List.of(1L, 3L, 5L), List.of(page.get(9).rank(), page.get(7).rank(), page.get(3).rank()));
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(List.of(best.getId(), submitted.getId()), topIds(exam, 2));
+
+        examRankService.onExamChanged(new ExamChangedEvent(exam.getId()));
+        statistics.clear();
+        assertEquals(3, examRankService.getStanding(exam.getId(), 7).rank());
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+    }
+
+    private List<Long> topIds(Exam exam, int limit) {
+        return examRankService.getTopResults(exam.getId(), limit).stream()
+                .map(ranked -> ranked.result().getId())
+                .toList();
+    }
+
+    // Runs the action and then the transaction callbacks it registered, as a commit would
+    private void commit(Runnable action) {
+        List<TransactionSynchronization> before = TransactionSynchronizationManager.getSynchronizations();
+        action.run();
+        List<TransactionSynchronization> registered = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        registered.removeAll(before);
+        registered.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private ExamResult persistResult(Exam exam, String username, int score, LocalDateTime submittedAt) {
+        return testData.result(exam, testData.user(username, Role.STUDENT))
+                .score(score)
+                .submittedAt(submittedAt)
+                .persist();
+    }
+}
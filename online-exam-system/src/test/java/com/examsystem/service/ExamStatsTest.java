@@ -0,0 +1,74 @@
+package com.examsystem.service;
+
+import com.examsystem.TestData;
+import com.examsystem.config.PasswordConfig;
+import com.examsystem.dto.exam.AnswerRequest;
+import com.examsystem.dto.exam.TakeExamRequest;
+import com.examsystem.model.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ExamStatsService.class, ExamService.class, AnswerArchiver.class, AnswerKeyCache.class, UserService.class, PasswordConfig.class, TestData.class})
+class ExamStatsTest {
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private ExamStatsService examStatsService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void submissionsUpdateAggregatesInTheSameTransaction() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        Exam exam = testData.exam(teacher).questions(2, "yes", 5).persist();
+        Long first = exam.getQuestions().get(0).getId();
+        Long second = exam.getQuestions().get(1).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(0, examStatsService.getStats(List.of(exam.getId())).get(exam.getId()).getAttemptCount());
+
+        // 100%, 50% and 0%
+        submit(exam, testData.user("s1", Role.STUDENT), first, "yes", second, "yes");
+        submit(exam, testData.user("s2", Role.STUDENT), first, "yes", second, "no");
+        submit(exam, testData.user("s3", Role.STUDENT), first, "no", second, "no");
+        entityManager.clear();
+
+        ExamStats stats = examStatsService.getStats(List.of(exam.getId())).get(exam.getId());
+        assertEquals(3, stats.getAttemptCount());
+        assertEquals(2, stats.getPassCount());
+        assertEquals(50.0, stats.getAveragePercentage(), 1e-9);
+        assertEquals(Math.sqrt(50.0 / 3), stats.getScoreStdDev(), 1e-9);
+        assertArrayEquals(new long[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 1}, stats.getHistogram());
+
+        assertEquals(3, examService.getTotalStudentsForTeacher(teacher.getId()));
+        assertEquals(2, examService.getTotalQuestionsForTeacher(teacher.getId()));
+        assertEquals(1, examService.getActiveExamsForTeacher(teacher.getId()));
+    }
+
+    private void submit(Exam exam, User student, Long first, String firstAnswer, Long second, String secondAnswer) {
+        TakeExamRequest request = TakeExamRequest.builder()
+                .answers(List.of(
+                        AnswerRequest.builder().questionId(first).answer(firstAnswer).build(),
+                        AnswerRequest.builder().questionId(second).answer(secondAnswer).build()))
+                .timeTaken(10)
+                .build();
+        examService.submitExam(exam.getId(), request, student);
+    }
+}
@@ -0,0 +1,114 @@
+package com.examsystem.service;
+
+import com.examsystem.TestData;
+import com.examsystem.config.PasswordConfig;
+import com.examsystem.dto.exam.CreateExamRequest;
+import com.examsystem.dto.exam.CreateQuestionRequest;
+import com.examsystem.model.*;
+import com.examsystem.repository.ExamRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ExamService.class, AnswerArchiver.class, AnswerKeyCache.class, UserService.class, PasswordConfig.class, TestData.class})
+class ExamUpdateDiffTest {
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void updateTouchesOnlyChangedQuestionsAndRetiresRemovedOnes() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        Exam exam = examService.createExam(CreateExamRequest.builder()
+                .title("Diff")
+                .duration(30)
+                .passingMarks(50)
+                .status("DRAFT")
+                .questions(List.of(question(null, "Unchanged"), question(null, "Typo"), question(null, "Dropped")))
+                .build(), teacher);
+        entityManager.flush();
+        entityManager.clear();
+        List<Long> ids = examService.getExamById(exam.getId()).getQuestions().stream().map(Question::getId).toList();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        examService.updateExam(exam.getId(), CreateExamRequest.builder()
+                .title("Diff")
+                .duration(30)
+                .passingMarks(50)
+                .status("DRAFT")
+                .questions(List.of(question(ids.get(0), "Unchanged"), question(ids.get(1), "Fixed"), question(null, "Added")))
+                .build(), teacher);
+        entityManager.flush();
+
+        // One edited question and one retired question are updated, one question is inserted, nothing is deleted
+        assertEquals(2, statistics.getEntityStatistics(Question.class.getName()).getUpdateCount());
+        assertEquals(1, statistics.getEntityStatistics(Question.class.getName()).getInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        entityManager.clear();
+
+        List<Question> paper = examService.getExamById(exam.getId()).getQuestions();
+        assertEquals(List.of("Unchanged", "Fixed", "Added"), paper.stream().map(Question::getText).toList());
+        assertEquals(ids.subList(0, 2), paper.subList(0, 2).stream().map(Question::getId).toList());
+        assertTrue(entityManager.find(Question.class, ids.get(2)).getRetired());
+        assertEquals(3, examRepository.findSummariesByTeacherId(teacher.getId()).get(0).getQuestionCount());
+        assertEquals(3, examService.getTotalQuestionsForTeacher(teacher.getId()));
+    }
+
+    @Test
+    void questionIdFromAnotherExamIsRejected() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        Exam exam = examService.createExam(CreateExamRequest.builder()
+                .title("Diff")
+                .duration(30)
+                .passingMarks(50)
+                .questions(List.of(question(null, "Only")))
+                .build(), teacher);
+        entityManager.flush();
+        entityManager.clear();
+
+        CreateExamRequest request = CreateExamRequest.builder()
+                .title("Diff")
+                .duration(30)
+                .passingMarks(50)
+                .questions(List.of(question(Long.MAX_VALUE, "Foreign")))
+                .build();
+        assertThrows(RuntimeException.class, () -> examService.updateExam(exam.getId(), request, teacher));
+    }
+
+    private CreateQuestionRequest question(Long id, String text) {
+        return CreateQuestionRequest.builder()
+                .id(id)
+                .text(text)
+                .type("SHORT_ANSWER")
+                .correctAnswer("yes")
+                .points(1)
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.examsystem.service;
+
+import com.examsystem.model.Role;
+import com.examsystem.model.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringJUnitConfig(JwtService.class)
+@TestPropertySource(properties = {
+        "app.jwt.secret=3e8b9f7d2c1a5e6b8c9a0d4e7f2b5c8a9d1e3f6b8c9a0d4e7f2b5c8a9d1e3f6b",
+        "app.jwt.expiration=60000"
+})
+class JwtServiceTest {
+
+    @Autowired
+    private JwtService jwtService;
+
+    private final User user = User.builder().username("student").role(Role.STUDENT).build();
+
+    @Test
+    void verifiedTokenIsParsedOnceAndReusedUntilExpiry() {
+        String token = jwtService.generateToken(Map.of("authorities", List.of("ROLE_STUDENT")), user);
+
+        JwtService.VerifiedToken verified = jwtService.verify(token);
+        assertEquals("student", verified.username());
+        assertEquals(List.of("ROLE_STUDENT"), verified.authorities());
+        assertFalse(verified.isExpired());
+        assertSame(verified, jwtService.verify(token));
+        assertTrue(jwtService.isTokenValid(token, user));
+
+        // A token without the authorities claim leaves them to the caller
+        assertNull(jwtService.verify(jwtService.generateToken(user)).authorities());
+    }
+
+    @Test
+    void tamperedAndExpiredTokensAreRejected() {
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", -1000L);
+        try {
+            String expired = jwtService.generateToken(user);
+            assertThrows(ExpiredJwtException.class, () -> jwtService.verify(expired));
+            assertFalse(jwtService.isTokenValid(expired, user));
+        } finally {
+            ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60000L);
+        }
+    }
+}
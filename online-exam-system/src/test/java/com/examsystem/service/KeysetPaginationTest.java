@@ -0,0 +1,96 @@
+package com.examsystem.service;
+
+import com.examsystem.TestData;
+import com.examsystem.config.PasswordConfig;
+import com.examsystem.dto.CursorPage;
+import com.examsystem.model.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ExamStatsService.class, ExamService.class, AnswerArchiver.class, AnswerKeyCache.class, UserService.class, PasswordConfig.class, TestData.class})
+class KeysetPaginationTest {
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void resultPagesWalkNewestFirstWithoutGapsOrDuplicates() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        Exam exam = testData.exam(teacher).persist();
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 9, 0);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            // Two results share each timestamp, so the id tie-breaker matters
+            ExamResult result = testData.result(exam, testData.user("s" + i, Role.STUDENT))
+                    .status(i % 2 == 0 ? ResultStatus.PASSED : ResultStatus.FAILED)
+                    .submittedAt(base.plusMinutes(i / 2))
+                    .persist();
+            expected.add(0, result.getId());
+        }
+        testData.result(exam, testData.user("running", Role.STUDENT))
+                .status(ResultStatus.IN_PROGRESS)
+                .submittedAt(base.plusHours(1))
+                .persist();
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<ExamResult> page = examService.getExamResultsPage(exam.getId(), null, null, null, cursor, 2);
+            page.items().forEach(result -> seen.add(result.getId()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(expected, seen);
+
+        CursorPage<ExamResult> passed = examService.getExamResultsPage(exam.getId(), ResultStatus.PASSED,
+                base.plusMinutes(1), null, null, 10);
+        assertEquals(2, passed.items().size());
+        assertNull(passed.nextCursor());
+        assertTrue(passed.items().stream().allMatch(result -> result.getStatus() == ResultStatus.PASSED));
+    }
+
+    @Test
+    void userPagesFilterByRole() {
+        for (int i = 0; i < 3; i++) {
+            testData.user("student" + i, Role.STUDENT);
+        }
+        testData.user("teacher", Role.TEACHER);
+        entityManager.flush();
+
+        CursorPage<User> first = userService.getUsersPage(Role.STUDENT, null, null, 2);
+        CursorPage<User> second = userService.getUsersPage(Role.STUDENT, null, first.nextCursor(), 2);
+
+        assertEquals(2, first.items().size());
+        assertNotNull(first.nextCursor());
+        assertEquals(1, second.items().size());
+        assertNull(second.nextCursor());
+        assertTrue(first.items().get(1).getId() < second.items().get(0).getId());
+        assertThrows(IllegalArgumentException.class, () -> userService.getUsersPage(null, null, "not a cursor", 2));
+    }
+}
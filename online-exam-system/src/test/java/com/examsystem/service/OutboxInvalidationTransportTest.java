@@ -0,0 +1,76 @@
+package com.examsystem.service;
+
+import com.examsystem.model.InvalidationKind;
+import com.examsystem.repository.CacheInvalidationRepository;
+import com.examsystem.service.InvalidationTransport.Invalidation;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class OutboxInvalidationTransportTest {
+
+    @Autowired
+    private CacheInvalidationRepository cacheInvalidationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // Two nodes sharing one database
+    @Test
+    void eachNodeReceivesTheOthersInvalidationsOnceAndInOrder() {
+        OutboxInvalidationTransport first = node();
+        OutboxInvalidationTransport second = node();
+
+        first.send(new Invalidation(InvalidationKind.EXAM, "1"));
+        second.send(new Invalidation(InvalidationKind.USER, "student"));
+        first.send(new Invalidation(InvalidationKind.STUDENT_RESULTS, "7"));
+        entityManager.flush();
+
+        assertEquals(List.of(new Invalidation(InvalidationKind.EXAM, "1"),
+                        new Invalidation(InvalidationKind.STUDENT_RESULTS, "7")),
+                second.receive());
+        assertEquals(List.of(new Invalidation(InvalidationKind.USER, "student")), first.receive());
+        assertEquals(List.of(), second.receive());
+    }
+
+    @Test
+    void rowCommittedBehindTheHighWaterMarkIsStillDelivered() {
+        OutboxInvalidationTransport receiver = node();
+        long last = cacheInvalidationRepository.findMaxId();
+
+        // The row with the lower id commits after the one above it has been read
+        insert(last + 2, "late-reader");
+        assertEquals(List.of(new Invalidation(InvalidationKind.USER, "late-reader")), receiver.receive());
+
+        insert(last + 1, "late-writer");
+        assertEquals(List.of(new Invalidation(InvalidationKind.USER, "late-writer")), receiver.receive());
+        assertEquals(List.of(), receiver.receive());
+    }
+
+    private OutboxInvalidationTransport node() {
+        OutboxInvalidationTransport transport = new OutboxInvalidationTransport(cacheInvalidationRepository);
+        ReflectionTestUtils.setField(transport, "batchSize", 500);
+        ReflectionTestUtils.setField(transport, "gapTimeoutMs", 30000L);
+        transport.init();
+        return transport;
+    }
+
+    private void insert(long id, String username) {
+        entityManager.createNativeQuery("INSERT INTO cache_invalidations (id, kind, entity_key, origin_node, created_at) "
+                        + "VALUES (?, 'USER', ?, 'other-node', ?)")
+                .setParameter(1, id)
+                .setParameter(2, username)
+                .setParameter(3, LocalDateTime.now())
+                .executeUpdate();
+    }
+}
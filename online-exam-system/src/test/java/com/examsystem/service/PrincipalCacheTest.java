@@ -0,0 +1,60 @@
+package com.examsystem.service;
+
+import com.examsystem.config.PasswordConfig;
+import com.examsystem.model.Role;
+import com.examsystem.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({UserService.class, PasswordConfig.class})
+class PrincipalCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void principalIsLoadedOnceUntilUpdatedOrDeleted() {
+        User user = User.builder()
+                .username("student")
+                .password("secret")
+                .email("student@example.com")
+                .fullName("Before")
+                .role(Role.STUDENT)
+                .build();
+        entityManager.persist(user);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        long statementsBefore = statistics.getPrepareStatementCount();
+        User first = (User) userService.loadUserByUsername("student");
+        assertSame(first, userService.loadUserByUsername("student"));
+        assertEquals(1, statistics.getPrepareStatementCount() - statementsBefore);
+
+        userService.updateUser(user.getId(), User.builder().fullName("After").build());
+        entityManager.flush();
+        assertEquals("After", ((User) userService.loadUserByUsername("student")).getFullName());
+
+        userService.deleteUser(user.getId());
+        entityManager.flush();
+        assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("student"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.examsystem.service;
+
+import com.examsystem.TestData;
+import com.examsystem.config.HibernateCacheConfig;
+import com.examsystem.config.PasswordConfig;
+import com.examsystem.model.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({StudentDashboardService.class, ContentVersionService.class, HibernateCacheConfig.class, CacheMetrics.class,
+        ExamService.class, AnswerArchiver.class, AnswerKeyCache.class, UserService.class, PasswordConfig.class, TestData.class})
+class StudentDashboardTest {
+
+    @Autowired
+    private StudentDashboardService studentDashboardService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void snapshotIsReusedUntilTheStudentSubmitsOrAnExamChanges() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        User student = testData.user("student", Role.STUDENT);
+        User other = testData.user("other", Role.STUDENT);
+        Exam taken = testData.exam(teacher).persist();
+        LocalDateTime startTime = LocalDateTime.now().plusHours(2).truncatedTo(ChronoUnit.SECONDS);
+        Exam upcoming = testData.exam(teacher).startTime(startTime).persist();
+        ExamResult result = testData.result(taken, student).score(5).persist();
+        entityManager.flush();
+
+        StudentDashboardService.DashboardSnapshot first = studentDashboardService.getDashboard(student);
+        List<Map<String, Object>> upcomingExams = (List<Map<String, Object>>) first.body().get("upcomingExams");
+        assertEquals(List.of(upcoming.getId()), upcomingExams.stream().map(exam -> exam.get("id")).toList());
+        assertEquals(false, upcomingExams.get(0).get("available"));
+        assertEquals(1, ((List<?>) first.body().get("completedExams")).size());
+        assertEquals(startTime, first.validUntil());
+        assertSame(first, studentDashboardService.getDashboard(student));
+
+        // Another student's submission leaves this snapshot alone
+        studentDashboardService.onResultsRecorded(new ExamResultsRecordedEvent(List.of(testData.result(upcoming, other).score(5).persist())));
+        assertSame(first, studentDashboardService.getDashboard(student));
+
+        result.setSubmittedAt(result.getSubmittedAt().plusMinutes(1));
+        entityManager.flush();
+        studentDashboardService.onResultsRecorded(new ExamResultsRecordedEvent(List.of(result)));
+        StudentDashboardService.DashboardSnapshot rebuilt = studentDashboardService.getDashboard(student);
+        assertNotSame(first, rebuilt);
+        assertNotEquals(first.etag(), rebuilt.etag());
+
+        // A rebuild of unchanged data, e.g. on another node, carries the same tag
+        studentDashboardService.onExamChanged(new ExamChangedEvent(upcoming.getId()));
+        StudentDashboardService.DashboardSnapshot again = studentDashboardService.getDashboard(student);
+        assertNotSame(rebuilt, again);
+        assertEquals(rebuilt.etag(), again.etag());
+    }
+}
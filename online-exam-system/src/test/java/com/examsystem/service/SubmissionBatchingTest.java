@@ -0,0 +1,71 @@
+package com.examsystem.service;
+
+import com.examsystem.TestData;
+import com.examsystem.config.PasswordConfig;
+import com.examsystem.dto.exam.AnswerRequest;
+import com.examsystem.dto.exam.TakeExamRequest;
+import com.examsystem.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ExamService.class, AnswerArchiver.class, AnswerKeyCache.class, UserService.class, PasswordConfig.class, TestData.class})
+class SubmissionBatchingTest {
+
+    private static final int QUESTIONS = 100;
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void hundredAnswerSubmissionUsesBatchedInserts() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        User student = testData.user("student", Role.STUDENT);
+        Exam exam = testData.exam(teacher).questions(QUESTIONS, "Answer", 5).persist();
+        entityManager.flush();
+        entityManager.clear();
+
+        List<AnswerRequest> answers = new ArrayList<>();
+        for (Question question : exam.getQuestions()) {
+            answers.add(AnswerRequest.builder().questionId(question.getId()).answer("answer").build());
+        }
+        TakeExamRequest request = TakeExamRequest.builder().answers(answers).timeTaken(30).build();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ExamResult result = examService.submitExam(exam.getId(), request, student);
+        entityManager.flush();
+
+        assertEquals(QUESTIONS * 5, result.getScore());
+        assertEquals(QUESTIONS + 1, statistics.getEntityInsertCount());
+
+        // IDENTITY ids would need one INSERT round trip per answer (100+ statements).
+        // With pooled ids the answers go out in batches of 20 and id allocation
+        // touches the generator table only a few times.
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 20, "Expected a bounded number of statements but was " + statements);
+    }
+}
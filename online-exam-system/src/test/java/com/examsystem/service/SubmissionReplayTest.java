@@ -0,0 +1,100 @@
+package com.examsystem.service;
+
+import com.examsystem.TestData;
+import com.examsystem.config.NodeIdentity;
+import com.examsystem.config.PasswordConfig;
+import com.examsystem.dto.exam.AnswerRequest;
+import com.examsystem.dto.exam.TakeExamRequest;
+import com.examsystem.model.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "app.attempt.autosave.flush-interval-ms=3600000",
+        "app.attempt.deadline.poll-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+@Import({SubmissionService.class, AttemptService.class, AttemptDeadlineScheduler.class, NodeIdentity.class, ExamService.class,
+        AnswerArchiver.class, AnswerKeyCache.class, UserService.class, PasswordConfig.class, TestData.class})
+class SubmissionReplayTest {
+
+    @Autowired
+    private ExamService examService;
+
+    @Autowired
+    private AttemptService attemptService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // The retry reaches a node that never saw the key, e.g. after a restart.
+    // Not in a test transaction: the retry's insert has to fail and roll back on its own
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void retryWithTheStoredKeyIsReplayedOnAnyNode() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        User student = tx.execute(status -> testData.user("replaying-student", Role.STUDENT));
+        List<Exam> exams = tx.execute(status -> {
+            User teacher = testData.user("replaying-teacher", Role.TEACHER);
+            return List.of(testData.exam(teacher).question("Paris", 5).persist(),
+                    testData.exam(teacher).question("Paris", 5).persist());
+        });
+        Exam exam = exams.get(0);
+        Exam other = exams.get(1);
+
+        ExamResult stored = new SubmissionService(examService, attemptService)
+                .submit(exam.getId(), request(exam), student, "retry-key");
+
+        SubmissionService otherNode = new SubmissionService(examService, attemptService);
+        assertEquals(stored.getId(), otherNode.submit(exam.getId(), request(exam), student, "retry-key").getId());
+        assertThrows(RuntimeException.class,
+                () -> otherNode.submit(exam.getId(), request(exam), student, "another-key"));
+
+        // The same key on another exam is a new submission
+        ExamResult otherResult = otherNode.submit(other.getId(), request(other), student, "retry-key");
+        assertNotEquals(stored.getId(), otherResult.getId());
+    }
+
+    @Test
+    void blankOrOverlongKeysAreRejectedBeforeGrading() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        User student = testData.user("student", Role.STUDENT);
+        Exam exam = testData.exam(teacher).question("Paris", 5).persist();
+        entityManager.flush();
+
+        SubmissionService submissionService = new SubmissionService(examService, attemptService);
+        assertThrows(IllegalArgumentException.class,
+                () -> submissionService.submit(exam.getId(), request(exam), student, "k".repeat(65)));
+        assertThrows(IllegalArgumentException.class,
+                () -> submissionService.submit(exam.getId(), request(exam), student, " "));
+        assertTrue(examService.findSubmittedResult(exam.getId(), student).isEmpty());
+    }
+
+    private static TakeExamRequest request(Exam exam) {
+        return TakeExamRequest.builder()
+                .answers(List.of(AnswerRequest.builder()
+                        .questionId(exam.getQuestions().get(0).getId())
+                        .answer("Paris")
+                        .build()))
+                .timeTaken(5)
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.examsystem.service;
+
+import com.examsystem.TestData;
+import com.examsystem.model.*;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({TakenExamIndex.class, TestData.class})
+class TakenExamIndexTest {
+
+    @Autowired
+    private TakenExamIndex takenExamIndex;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestData testData;
+
+    @Test
+    void loadsFinishedResultsOnceAndFollowsRecordedResults() {
+        User teacher = testData.user("teacher", Role.TEACHER);
+        User student = testData.user("student", Role.STUDENT);
+        Exam finished = testData.exam(teacher).persist();
+        Exam running = testData.exam(teacher).persist();
+        Exam later = testData.exam(teacher).persist();
+        testData.result(finished, student).persist();
+        testData.result(running, student).status(ResultStatus.IN_PROGRESS).persist();
+        entityManager.flush();
+
+        RoaringBitmap taken = takenExamIndex.takenExamIds(student.getId());
+        assertTrue(TakenExamIndex.isTaken(taken, finished.getId()));
+        assertFalse(TakenExamIndex.isTaken(taken, running.getId()));
+        assertSame(taken, takenExamIndex.takenExamIds(student.getId()));
+
+        ExamResult recorded = testData.result(later, student).status(ResultStatus.FAILED).persist();
+        takenExamIndex.onResultsRecorded(new ExamResultsRecordedEvent(List.of(recorded)));
+
+        assertTrue(takenExamIndex.hasTaken(student.getId(), later.getId()));
+        // Copy-on-write: the bitmap handed out earlier is unchanged
+        assertFalse(TakenExamIndex.isTaken(taken, later.getId()));
+
+        entityManager.flush();
+        takenExamIndex.evict(student.getId());
+        assertTrue(takenExamIndex.hasTaken(student.getId(), later.getId()));
+        assertNotSame(taken, takenExamIndex.takenExamIds(student.getId()));
+    }
+}
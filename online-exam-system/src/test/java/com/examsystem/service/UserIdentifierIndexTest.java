@@ -0,0 +1,68 @@
+package com.examsystem.service;
+
+import com.examsystem.model.Role;
+import com.examsystem.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(UserIdentifierIndex.class)
+class UserIdentifierIndexTest {
+
+    @Autowired
+    private UserIdentifierIndex userIdentifierIndex;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void freeNamesAreAnsweredWithoutQueryingAndTakenOnesAreConfirmed() {
+        entityManager.persist(User.builder()
+                .username("Jose")
+                .password("secret")
+                .email("jose@example.com")
+                .fullName("José")
+                .role(Role.STUDENT)
+                .build());
+        entityManager.flush();
+        userIdentifierIndex.rebuild();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        long statementsBefore = statistics.getPrepareStatementCount();
+        assertFalse(userIdentifierIndex.usernameExists("maria"));
+        assertFalse(userIdentifierIndex.emailExists("maria@example.com"));
+        assertEquals(0, statistics.getPrepareStatementCount() - statementsBefore);
+
+        assertTrue(userIdentifierIndex.usernameExists("Jose"));
+        assertTrue(userIdentifierIndex.emailExists("jose@example.com"));
+
+        // Names a case- and accent-insensitive collation would match always reach the database
+        assertEquals(UserIdentifierIndex.fold("Jose"), UserIdentifierIndex.fold("JOSÉ"));
+        assertEquals(UserIdentifierIndex.fold("strasse"), UserIdentifierIndex.fold("Straße "));
+
+        userIdentifierIndex.onIdentifiersAdded(new UserIdentifiersAddedEvent("maria", "maria@example.com"));
+        statementsBefore = statistics.getPrepareStatementCount();
+        // Now a possible hit: confirmed by a query, and not registered yet
+        assertFalse(userIdentifierIndex.usernameExists("maria"));
+        assertEquals(1, statistics.getPrepareStatementCount() - statementsBefore);
+
+        // An email taken on another node, as received from the invalidation bus
+        userIdentifierIndex.addEmail("Pedro@Example.com");
+        statementsBefore = statistics.getPrepareStatementCount();
+        assertFalse(userIdentifierIndex.emailExists("pedro@example.com"));
+        assertEquals(1, statistics.getPrepareStatementCount() - statementsBefore);
+    }
+}
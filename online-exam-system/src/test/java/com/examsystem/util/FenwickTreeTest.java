@@ -0,0 +1,44 @@
+package com.examsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FenwickTreeTest {
+
+    @Test
+    void prefixSumsMatchABruteForceCount() {
+        Random random = new Random(42);
+        long[] counts = new long[101];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = random.nextInt(5);
+        }
+        FenwickTree tree = FenwickTree.of(counts);
+
+        for (int i = 0; i < 1_000; i++) {
+            int bucket = random.nextInt(counts.length);
+            counts[bucket]++;
+            tree.add(bucket, 1);
+        }
+
+        long expected = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            expected += counts[bucket];
+            assertEquals(expected, tree.prefixSum(bucket));
+            assertEquals(counts[bucket], tree.get(bucket));
+        }
+        assertEquals(expected, tree.total());
+        assertEquals(0, tree.prefixSum(-1));
+        assertEquals(expected, tree.prefixSum(counts.length + 10));
+    }
+
+    @Test
+    void rejectsBucketsOutsideTheTree() {
+        FenwickTree tree = new FenwickTree(10);
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.add(10, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.add(-1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new FenwickTree(0));
+    }
+}
@@ -0,0 +1,84 @@
+package com.examsystem.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    void firesAtDeadlineAcrossLevels() {
+        // 4 slots per level, 3 levels: 64 ticks before the overflow path kicks in
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 2, 3, 0);
+        wheel.schedule(3 * TICK, "level0");
+        wheel.schedule(9 * TICK, "level1");
+        wheel.schedule(40 * TICK, "level2");
+        wheel.schedule(200 * TICK, "overflow");
+
+        assertEquals(List.of(), wheel.advance(2 * TICK));
+        assertEquals(List.of("level0"), wheel.advance(3 * TICK));
+        assertEquals(List.of(), wheel.advance(8 * TICK));
+        assertEquals(List.of("level1"), wheel.advance(9 * TICK));
+        assertEquals(List.of(), wheel.advance(39 * TICK));
+        assertEquals(List.of("level2"), wheel.advance(40 * TICK));
+        assertEquals(List.of(), wheel.advance(199 * TICK));
+        assertEquals(List.of("overflow"), wheel.advance(200 * TICK));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledTimersNeverFire() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 6, 4, 0);
+        HierarchicalTimingWheel.Timeout<String> cancelled = wheel.schedule(5 * TICK, "cancelled");
+        wheel.schedule(5 * TICK, "kept");
+
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+        assertEquals(List.of("kept"), wheel.advance(10 * TICK));
+    }
+
+    @Test
+    void pastDeadlinesFireOnNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 6, 4, 100 * TICK);
+        wheel.schedule(50 * TICK, "overdue");
+
+        assertEquals(List.of("overdue"), wheel.advance(100 * TICK));
+    }
+
+    @Test
+    void randomDeadlinesFireNoEarlierAndAtMostOneTickLate() {
+        Random random = new Random(42);
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK, 3, 3, 0);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        List<HierarchicalTimingWheel.Timeout<Integer>> cancelled = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            long deadline = random.nextInt(2000 * (int) TICK);
+            HierarchicalTimingWheel.Timeout<Integer> timeout = wheel.schedule(deadline, i);
+            if (i % 10 == 0) {
+                cancelled.add(timeout);
+            } else {
+                deadlines.put(i, deadline);
+            }
+        }
+        cancelled.forEach(HierarchicalTimingWheel.Timeout::cancel);
+
+        for (long now = 0; now <= 2001 * TICK; now += TICK / 2) {
+            for (Integer fired : wheel.advance(now)) {
+                long deadline = deadlines.remove(fired);
+                assertTrue(now >= deadline, "timer " + fired + " fired early");
+                assertTrue(now - deadline < 2 * TICK, "timer " + fired + " fired late");
+            }
+        }
+        assertTrue(deadlines.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+}